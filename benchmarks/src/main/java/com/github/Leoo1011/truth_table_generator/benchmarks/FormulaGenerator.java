@@ -0,0 +1,121 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random formulae that follow the grammar in the README:
+ * <pre>
+ * &lt;term&gt;        ::= &lt;unary_op&gt; (&lt;op_symbol&gt; &lt;unary_op&gt;)*
+ * &lt;unary_op&gt;    ::= "!" &lt;unary_op&gt; | &lt;proposition&gt;
+ * &lt;proposition&gt; ::= name | "(" &lt;term&gt; ")"
+ * </pre>
+ * The same seed and parameters always generate the same formula.
+ */
+public final class FormulaGenerator {
+    private static final int MAX_OPERANDS = 4;
+    private static final double NEGATION_RATIO = 0.25;
+
+    private final SplittableRandom random;
+    private final int variables;
+    private final int maxDepth;
+    private final String[] operators;
+    private final boolean hasNegations;
+    private final double repeatRatio;
+
+    private final List<String> groups = new ArrayList<>();
+    private final boolean[] isUsed;
+
+    /**
+     * @param seed the seed of the random generator.
+     * @param variables the number of distinct propositions: P0, P1, and so on.
+     * @param maxDepth the most nested parentheses.
+     * @param operators the symbols the formulae can use, separated by spaces, e.g. "&amp; | -&gt; !".
+     *                  "!" enables negations; the rest are binary operators, of which there should be at least one.
+     * @param repeatRatio the probability of repeating a parenthesized subformula generated earlier,
+     *                    instead of generating a new one.
+     *
+     * @throws IllegalArgumentException if a parameter is out of range, or an operator is unknown.
+     */
+    public FormulaGenerator(long seed, int variables, int maxDepth, String operators, double repeatRatio)
+            throws IllegalArgumentException {
+        if (variables < 1 || maxDepth < 0 || repeatRatio < 0 || repeatRatio > 1) {
+            throw new IllegalArgumentException("Invalid generator parameters.");
+        }
+        this.random = new SplittableRandom(seed);
+        this.variables = variables;
+        this.maxDepth = maxDepth;
+        this.repeatRatio = repeatRatio;
+        List<String> binary = new ArrayList<>();
+        boolean negations = false;
+        for (String symbol : operators.trim().split(" +")) {
+            switch (symbol) {
+                case "!" -> negations = true;
+                case "&", "|", "^", "->", "<->" -> binary.add(symbol);
+                default -> throw new IllegalArgumentException("Unknown operator: " + symbol);
+            }
+        }
+        if (binary.isEmpty()) {
+            throw new IllegalArgumentException("At least one binary operator is needed.");
+        }
+        this.operators = binary.toArray(new String[0]);
+        this.hasNegations = negations;
+        this.isUsed = new boolean[variables];
+    }
+
+    /**
+     * @param size the number of proposition occurrences, at least the number of variables (it's raised otherwise).
+     * Repeated subformulae count as new occurrences, so the formula may be somewhat longer.
+     * @return a formula in which every variable appears.
+     */
+    public String generate(int size) {
+        groups.clear();
+        Arrays.fill(isUsed, false);
+        StringBuilder formula = new StringBuilder();
+        term(formula, Math.max(size, variables), maxDepth, new int[]{0});
+
+        // Repeated subformulae may have skipped some of the variables
+        for (int i = 0; i < variables; i++) {
+            if (!isUsed[i]) {
+                formula.append(' ').append(operator()).append(" P").append(i);
+            }
+        }
+        return formula.toString();
+    }
+
+    private void term(StringBuilder out, int leaves, int depth, int[] nextLeaf) {
+        int operands = depth == 0 || leaves == 1 ? leaves : 2 + random.nextInt(Math.min(leaves, MAX_OPERANDS) - 1);
+        int remaining = leaves;
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                out.append(' ').append(operator()).append(' ');
+            }
+            int operandsLeft = operands - i;
+            int operandLeaves = operandsLeft == 1 ? remaining : 1 + random.nextInt(remaining - operandsLeft + 1);
+            remaining -= operandLeaves;
+            if (hasNegations && random.nextDouble() < NEGATION_RATIO) {
+                out.append('!');
+            }
+            if (operandLeaves == 1) {
+                int variable = nextLeaf[0] < variables ? nextLeaf[0] : random.nextInt(variables);
+                nextLeaf[0]++;
+                isUsed[variable] = true;
+                out.append('P').append(variable);
+            } else if (!groups.isEmpty() && random.nextDouble() < repeatRatio) {
+                out.append(groups.get(random.nextInt(groups.size())));
+            } else {
+                int start = out.length();
+                out.append('(');
+                term(out, operandLeaves, depth - 1, nextLeaf);
+                out.append(')');
+                groups.add(out.substring(start));
+            }
+        }
+    }
+
+    private String operator() {
+        return operators[random.nextInt(operators.length)];
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import com.github.Leoo1011.truth_table_generator.BooleanLogicLexer;
+import com.github.Leoo1011.truth_table_generator.BooleanLogicParser;
+import com.github.Leoo1011.truth_table_generator.CompiledFormula;
+import com.github.Leoo1011.truth_table_generator.Expr;
+import com.github.Leoo1011.truth_table_generator.Token;
+import com.github.Leoo1011.truth_table_generator.TokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexing, parsing and compiling a generated formula.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontEndBenchmark {
+    @Benchmark
+    public Token[] tokenize(Workload workload) throws BooleanLogicLexer.LexError {
+        return BooleanLogicLexer.tokenize(workload.formula);
+    }
+
+    @Benchmark
+    public TokenBuffer scan(Workload workload) throws BooleanLogicLexer.LexError {
+        return BooleanLogicLexer.scan(workload.formula);
+    }
+
+    @Benchmark
+    public Expr parse(Workload workload) throws BooleanLogicParser.ParseError {
+        return new BooleanLogicParser(workload.tokens).parse();
+    }
+
+    @Benchmark
+    public CompiledFormula compile(Workload workload) throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError {
+        return CompiledFormula.compile(workload.formula);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import com.github.Leoo1011.truth_table_generator.BooleanLogicInterpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpreting a generated formula one row at a time, for rows picked at random.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterpreterBenchmark {
+    private static final int ROWS = 256;
+
+    private BooleanLogicInterpreter interpreter;
+    private int[][] rows;
+
+    @Setup(Level.Trial)
+    public void setUp(Workload workload) {
+        interpreter = new BooleanLogicInterpreter(workload.compiled);
+        SplittableRandom random = new SplittableRandom(workload.seed);
+        int numProps = workload.compiled.getPropositionNames().size();
+        rows = new int[ROWS][numProps];
+        for (int[] row : rows) {
+            for (int i = 0; i < numProps; i++) {
+                row[i] = random.nextInt(2);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int interpret() {
+        int trueRows = 0;
+        for (int[] row : rows) {
+            trueRows += interpreter.interpret(row);
+        }
+        return trueRows;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import com.github.Leoo1011.truth_table_generator.BooleanLogicLexer;
+import com.github.Leoo1011.truth_table_generator.BooleanLogicParser;
+import com.github.Leoo1011.truth_table_generator.CompiledFormula;
+import com.github.Leoo1011.truth_table_generator.Satisfiability;
+import com.github.Leoo1011.truth_table_generator.TruthTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enumerating every true row of a tautology, "(P0 | !P0) & (P1 | !P1) & ...", with {@link Satisfiability}
+ * and from the table: the worst case for the solver, which should be about as fast as the table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SatisfiabilityBenchmark {
+    private static final String[] TRUTH_REPRESENTATION = {"T", "F"};
+
+    /**
+     * The number of propositions, so there are 2^variables rows to enumerate.
+     */
+    @Param({"12", "16", "20"})
+    public int variables;
+
+    private CompiledFormula tautology;
+
+    @Setup(Level.Trial)
+    public void setUp() throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError {
+        StringBuilder formula = new StringBuilder("(P0 | !P0)");
+        for (int i = 1; i < variables; i++) {
+            formula.append(" & (P").append(i).append(" | !P").append(i).append(')');
+        }
+        tautology = CompiledFormula.compile(formula.toString());
+    }
+
+    @Benchmark
+    public long satisfyingRows() {
+        return new Satisfiability(tautology).satisfyingRows().count();
+    }
+
+    @Benchmark
+    public long tableRows() {
+        return new TruthTable(tautology, TRUTH_REPRESENTATION).getResult().rowsWhere(true).count();
+    }
+}
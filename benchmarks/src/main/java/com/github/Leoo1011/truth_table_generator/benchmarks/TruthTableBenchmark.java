@@ -0,0 +1,50 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import com.github.Leoo1011.truth_table_generator.EvaluationEngine;
+import com.github.Leoo1011.truth_table_generator.PackedTruthTable;
+import com.github.Leoo1011.truth_table_generator.TruthTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating the whole table of a generated formula with each engine: the packed result column,
+ * and the String[][] view built from it. The formula is compiled beforehand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TruthTableBenchmark {
+    private static final String[] TRUTH_REPRESENTATION = {"T", "F"};
+
+    @Param({"INTERPRETER", "SHORT_CIRCUIT", "BIT_SLICED", "BYTECODE", "INCREMENTAL", "BDD"})
+    public EvaluationEngine engine;
+
+    private TruthTable newTable(Workload workload) {
+        TruthTable table = new TruthTable(workload.compiled, TRUTH_REPRESENTATION);
+        table.setEngine(engine);
+        return table;
+    }
+
+    @Benchmark
+    public PackedTruthTable getResult(Workload workload) {
+        return newTable(workload).getResult();
+    }
+
+    @Benchmark
+    public String[][] getTable(Workload workload) {
+        return newTable(workload).getTable();
+    }
+}
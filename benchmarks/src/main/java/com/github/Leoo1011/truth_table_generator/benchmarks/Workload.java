@@ -0,0 +1,62 @@
+package com.github.Leoo1011.truth_table_generator.benchmarks;
+
+import com.github.Leoo1011.truth_table_generator.BooleanLogicLexer;
+import com.github.Leoo1011.truth_table_generator.BooleanLogicParser;
+import com.github.Leoo1011.truth_table_generator.CompiledFormula;
+import com.github.Leoo1011.truth_table_generator.Token;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A generated formula, and what the front end makes of it, shared by the benchmarks.
+ * Every parameter can be overridden from the command line, e.g. {@code -p variables=20 -p operators="& | !"}.
+ */
+@State(Scope.Benchmark)
+public class Workload {
+    /**
+     * The number of distinct propositions.
+     */
+    @Param({"8", "16"})
+    public int variables;
+
+    /**
+     * The number of proposition occurrences.
+     */
+    @Param({"64", "1024"})
+    public int size;
+
+    /**
+     * The most nested parentheses.
+     */
+    @Param({"4", "16"})
+    public int depth;
+
+    /**
+     * The symbols the formula can use, separated by spaces.
+     */
+    @Param({"& | !", "& | ^ -> <-> !"})
+    public String operators;
+
+    /**
+     * The probability of repeating a parenthesized subformula instead of generating a new one.
+     */
+    @Param({"0", "0.5"})
+    public double repeatRatio;
+
+    @Param("42")
+    public long seed;
+
+    public String formula;
+    public Token[] tokens;
+    public CompiledFormula compiled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError {
+        formula = new FormulaGenerator(seed, variables, depth, operators, repeatRatio).generate(size);
+        tokens = BooleanLogicLexer.tokenize(formula);
+        compiled = CompiledFormula.compile(formula);
+    }
+}
@@ -0,0 +1,610 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reduced Ordered Binary Decision Diagrams (ROBDDs): canonical representations of boolean functions,
+ * so tautology and equivalence checks are constant-time comparisons, and counting the true rows takes
+ * time proportional to the size of the diagram instead of 2^n.
+ * <p>
+ * Nodes are integers: {@link #FALSE}, {@link #TRUE}, or indices into the node arrays of this manager.
+ * They're hash-consed through a unique table, so two nodes are equal if and only if they represent the same
+ * function. Nodes are never freed, so a manager should be used for a batch of queries and then dropped.
+ * Instances aren't thread-safe.
+ */
+public class Bdd {
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    private final List<String> variableOrder;
+    private final Map<String, Integer> levels = new HashMap<>();
+    private final int numVars;
+
+    private int[] vars = new int[1024];
+    private int[] lows = new int[1024];
+    private int[] highs = new int[1024];
+    private int size = 2;
+
+    // Open addressing: node + 1, or 0 for empty buckets.
+    private int[] unique = new int[2048];
+
+    // Direct-mapped operation cache: a new entry evicts whatever was in its bucket.
+    private final int[] cacheF;
+    private final int[] cacheG;
+    private final int[] cacheH;
+    private final int[] cacheResult;
+
+    // The stack of ite, kept between calls.
+    private int[] iteFs = new int[64];
+    private int[] iteGs = new int[64];
+    private int[] iteHs = new int[64];
+    private int[] iteVars = new int[64];
+    private int[] iteLows = new int[64];
+    private byte[] iteStages = new byte[64];
+
+    /**
+     * Same as {@link #Bdd(List, int)}, with {@link #DEFAULT_CACHE_SIZE}.
+     */
+    public Bdd(final List<String> variableOrder) {
+        this(variableOrder, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param variableOrder the names of the variables, from the top of the diagrams to the bottom,
+     *                      such as {@link CompiledFormula#getPropositionNames()} or {@link #heuristicOrder(Expr)}.
+     * @param cacheSize the number of entries of the if-then-else cache, rounded up to a power of 2.
+     */
+    public Bdd(final List<String> variableOrder, int cacheSize) {
+        this.variableOrder = List.copyOf(variableOrder);
+        numVars = variableOrder.size();
+        for (int i = 0; i < numVars; i++) {
+            levels.put(variableOrder.get(i), i);
+        }
+        vars[FALSE] = vars[TRUE] = numVars; // terminals are below every variable
+
+        int cacheCapacity = Integer.highestOneBit(Math.max(1, cacheSize - 1)) << 1;
+        cacheF = new int[cacheCapacity];
+        cacheG = new int[cacheCapacity];
+        cacheH = new int[cacheCapacity];
+        cacheResult = new int[cacheCapacity];
+        Arrays.fill(cacheF, -1);
+    }
+
+    public List<String> getVariableOrder() {
+        return variableOrder;
+    }
+
+    /**
+     * @return the number of nodes created so far, terminals included.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the node representing the variable with the given name.
+     * @throws IllegalArgumentException if the variable isn't in the order given in the constructor.
+     */
+    public int variable(String name) throws IllegalArgumentException {
+        Integer level = levels.get(name);
+        if (level == null) {
+            throw new IllegalArgumentException("Unknown variable: " + name);
+        }
+        return makeNode(level, FALSE, TRUE);
+    }
+
+    private static int hash(int a, int b, int c) {
+        int h = a * 0x9E3779B1 + b * 0x85EBCA77 + c * 0xC2B2AE3D;
+        return h ^ (h >>> 16);
+    }
+
+    private int makeNode(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        int mask = unique.length - 1;
+        int bucket = hash(var, low, high) & mask;
+        while (unique[bucket] != 0) {
+            int node = unique[bucket] - 1;
+            if (vars[node] == var && lows[node] == low && highs[node] == high) {
+                return node;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+
+        if (size == vars.length) {
+            vars = Arrays.copyOf(vars, size * 2);
+            lows = Arrays.copyOf(lows, size * 2);
+            highs = Arrays.copyOf(highs, size * 2);
+        }
+        int node = size++;
+        vars[node] = var;
+        lows[node] = low;
+        highs[node] = high;
+        unique[bucket] = node + 1;
+        if (size * 2 > unique.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    private void rehash() {
+        unique = new int[unique.length * 2];
+        int mask = unique.length - 1;
+        for (int node = 2; node < size; node++) {
+            int bucket = hash(vars[node], lows[node], highs[node]) & mask;
+            while (unique[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            unique[bucket] = node + 1;
+        }
+    }
+
+    /**
+     * @return the node representing "if f then g else h".
+     */
+    public int ite(int f, int g, int h) {
+        // Recursing on the cofactors would go as deep as the number of variables, so this keeps its own stack.
+        // Each frame holds the arguments of a call, its top variable, and how many of its cofactors are built.
+        int top = 0;
+        iteFs[0] = f;
+        iteGs[0] = g;
+        iteHs[0] = h;
+        iteStages[0] = 0;
+        int result = FALSE;
+        while (top >= 0) {
+            f = iteFs[top];
+            g = iteGs[top];
+            h = iteHs[top];
+            int var = iteVars[top];
+            switch (iteStages[top]) {
+                case 0 -> {
+                    result = shortcut(f, g, h);
+                    if (result < 0) {
+                        var = Math.min(vars[f], Math.min(vars[g], vars[h]));
+                        iteVars[top] = var;
+                        iteStages[top] = 1;
+                        top = pushIte(top, cofactor(f, var, false), cofactor(g, var, false), cofactor(h, var, false));
+                        continue;
+                    }
+                }
+                case 1 -> {
+                    iteLows[top] = result;
+                    iteStages[top] = 2;
+                    top = pushIte(top, cofactor(f, var, true), cofactor(g, var, true), cofactor(h, var, true));
+                    continue;
+                }
+                default -> {
+                    result = makeNode(var, iteLows[top], result);
+                    int bucket = hash(f, g, h) & (cacheF.length - 1);
+                    cacheF[bucket] = f;
+                    cacheG[bucket] = g;
+                    cacheH[bucket] = h;
+                    cacheResult[bucket] = result;
+                }
+            }
+            top--;
+        }
+        return result;
+    }
+
+    /**
+     * @return the result of {@link #ite(int, int, int)} if it's a terminal case or cached, or -1.
+     */
+    private int shortcut(int f, int g, int h) {
+        if (f == TRUE) return g;
+        if (f == FALSE) return h;
+        if (g == h) return g;
+        if (g == TRUE && h == FALSE) return f;
+
+        int bucket = hash(f, g, h) & (cacheF.length - 1);
+        if (cacheF[bucket] == f && cacheG[bucket] == g && cacheH[bucket] == h) {
+            return cacheResult[bucket];
+        }
+        return -1;
+    }
+
+    private int pushIte(int top, int f, int g, int h) {
+        if (++top == iteFs.length) {
+            iteFs = Arrays.copyOf(iteFs, top * 2);
+            iteGs = Arrays.copyOf(iteGs, top * 2);
+            iteHs = Arrays.copyOf(iteHs, top * 2);
+            iteVars = Arrays.copyOf(iteVars, top * 2);
+            iteLows = Arrays.copyOf(iteLows, top * 2);
+            iteStages = Arrays.copyOf(iteStages, top * 2);
+        }
+        iteFs[top] = f;
+        iteGs[top] = g;
+        iteHs[top] = h;
+        iteStages[top] = 0;
+        return top;
+    }
+
+    private int cofactor(int node, int var, boolean value) {
+        if (vars[node] != var) {
+            return node;
+        }
+        return value ? highs[node] : lows[node];
+    }
+
+    public int not(int f) {
+        return ite(f, FALSE, TRUE);
+    }
+
+    public int and(int f, int g) {
+        return ite(f, g, FALSE);
+    }
+
+    public int or(int f, int g) {
+        return ite(f, TRUE, g);
+    }
+
+    public int xor(int f, int g) {
+        return ite(f, not(g), g);
+    }
+
+    public int implies(int f, int g) {
+        return ite(f, g, TRUE);
+    }
+
+    public int iff(int f, int g) {
+        return ite(f, g, not(g));
+    }
+
+    /**
+     * Builds the diagram of a formula.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @return the node representing the formula.
+     * @throws IllegalArgumentException if the ast contains a variable that isn't in the variable order.
+     */
+    public int build(final Expr ast) throws IllegalArgumentException {
+        Objects.requireNonNull(ast);
+        // Subtrees shared by the parser are only built once. The traversal keeps its own stacks, so that long
+        // chains of operators (which the parser turns into equally deep asts) don't overflow the thread's stack:
+        // each frame holds an ast node and the number of its operands built so far, on top of the result stack.
+        Map<Expr, Integer> built = new IdentityHashMap<>();
+        Expr[] nodes = new Expr[16];
+        int[] builtOperands = new int[16];
+        int[] results = new int[16];
+        int top = 0;
+        int resultCount = 0;
+        nodes[0] = ast;
+        while (top >= 0) {
+            Expr expr = nodes[top];
+            if (expr instanceof Expr.Grouping grouping) {
+                nodes[top] = grouping.expression;
+                continue;
+            }
+            int done = builtOperands[top];
+            Integer node = done == 0 ? built.get(expr) : null;
+            if (node == null) {
+                int operandCount = FormulaCompiler.operandCount(expr);
+                if (done < operandCount) {
+                    builtOperands[top] = done + 1;
+                    if (++top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, top * 2);
+                        builtOperands = Arrays.copyOf(builtOperands, top * 2);
+                    }
+                    nodes[top] = FormulaCompiler.operand(expr, done);
+                    builtOperands[top] = 0;
+                    continue;
+                }
+                resultCount -= operandCount;
+                node = build(expr, results, resultCount);
+                built.put(expr, node);
+            }
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = node;
+            top--;
+        }
+        return results[0];
+    }
+
+    /**
+     * @param operandNodes the diagrams of the operands, from operandNodes[from] on.
+     */
+    private int build(final Expr ast, final int[] operandNodes, int from) {
+        return switch (ast) {
+            case Expr.BinaryOperation binaryOp -> {
+                int left = operandNodes[from];
+                int right = operandNodes[from + 1];
+                yield switch (binaryOp.operator.type) {
+                    case OR   -> or(left, right);
+                    case AND  -> and(left, right);
+                    case XOR  -> xor(left, right);
+                    case THEN -> implies(left, right);
+                    case IFF  -> iff(left, right);
+                    case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                        throw new IllegalStateException("Unexpected operator type: '" + binaryOp.operator.type + "'");
+                };
+            }
+            case Expr.NaryOperation naryOp -> {
+                boolean isAnd = naryOp.operator.type == TokenType.AND;
+                int result = isAnd ? TRUE : FALSE;
+                for (int i = from; i < from + naryOp.operands.size(); i++) {
+                    result = isAnd ? and(result, operandNodes[i]) : or(result, operandNodes[i]);
+                }
+                yield result;
+            }
+            case Expr.Constant constant -> constant.value ? TRUE : FALSE;
+            case Expr.UnaryOperation ignored -> not(operandNodes[from]);
+            case Expr.Proposition prop -> variable(prop.propositionName.name);
+            default -> throw new IllegalStateException("Unexpected value: " + ast);
+        };
+    }
+
+    public boolean isTautology(int node) {
+        return node == TRUE;
+    }
+
+    public boolean isSatisfiable(int node) {
+        return node != FALSE;
+    }
+
+    /**
+     * @return the number of assignments of all the variables in the order that satisfy the function.
+     */
+    public BigInteger satCount(int node) {
+        // The number of assignments of the variables from each node's level down, children first.
+        Map<Integer, BigInteger> counts = new HashMap<>();
+        counts.put(FALSE, BigInteger.ZERO);
+        counts.put(TRUE, BigInteger.ONE);
+        List<Integer> stack = new ArrayList<>(List.of(node));
+        while (!stack.isEmpty()) {
+            int n = stack.getLast();
+            if (counts.containsKey(n)) {
+                stack.removeLast();
+                continue;
+            }
+            int low = lows[n];
+            int high = highs[n];
+            BigInteger lowCount = counts.get(low);
+            BigInteger highCount = counts.get(high);
+            if (lowCount == null || highCount == null) {
+                if (lowCount == null) stack.add(low);
+                if (highCount == null) stack.add(high);
+                continue;
+            }
+            counts.put(n, lowCount.shiftLeft(vars[low] - vars[n] - 1)
+                    .add(highCount.shiftLeft(vars[high] - vars[n] - 1)));
+            stack.removeLast();
+        }
+        return counts.get(node).shiftLeft(vars[node]);
+    }
+
+    /**
+     * @return the number of nodes reachable from the given one, terminals included.
+     */
+    public int nodeCount(int node) {
+        Set<Integer> visited = new LinkedHashSet<>();
+        List<Integer> stack = new ArrayList<>(List.of(node));
+        while (!stack.isEmpty()) {
+            int n = stack.removeLast();
+            if (visited.add(n) && n > TRUE) {
+                stack.add(lows[n]);
+                stack.add(highs[n]);
+            }
+        }
+        return visited.size();
+    }
+
+    /**
+     * @param node a function.
+     * @param assignment the value of every variable, in the variable order.
+     * @return the value of the function for the assignment.
+     */
+    public boolean evaluate(int node, boolean[] assignment) {
+        while (node > TRUE) {
+            node = assignment[vars[node]] ? highs[node] : lows[node];
+        }
+        return node == TRUE;
+    }
+
+    /**
+     * @return an assignment (in the variable order) that satisfies the function, with unconstrained variables
+     * set to false, or null if the function is unsatisfiable.
+     */
+    public boolean[] satisfyingAssignment(int node) {
+        if (node == FALSE) return null;
+        boolean[] assignment = new boolean[numVars];
+        while (node > TRUE) {
+            if (lows[node] != FALSE) {
+                node = lows[node];
+            } else {
+                assignment[vars[node]] = true;
+                node = highs[node];
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Generates the truth table of a function from its diagram. When the variable order is the order of
+     * the table's columns, whole ranges of rows are filled at once for nodes that skip variables.
+     *
+     * @param node the function.
+     * @param propositionNames the columns of the table: the first one is the most significant bit of the row index.
+     * @return the result column, in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
+     * @throws IllegalArgumentException if propositionNames doesn't contain every variable of the order.
+     */
+    public long[] toColumn(int node, final List<String> propositionNames) throws IllegalArgumentException {
+        int numProps = propositionNames.size();
+        if (!Set.copyOf(propositionNames).containsAll(variableOrder)) {
+            throw new IllegalArgumentException("Every variable of the diagram should be a column of the table.");
+        }
+        long[] result = new long[BitSlicedEvaluator.wordCount(numProps)];
+        if (propositionNames.equals(variableOrder)) {
+            fill(node, 0, 0, result);
+            return result;
+        }
+
+        int[] columns = new int[numVars];
+        for (int level = 0; level < numVars; level++) {
+            columns[level] = propositionNames.indexOf(variableOrder.get(level));
+        }
+        boolean[] assignment = new boolean[numVars];
+        for (long row = 0; row < 1L << numProps; row++) {
+            for (int level = 0; level < numVars; level++) {
+                assignment[level] = ((row >>> (numProps - 1 - columns[level])) & 1) != 0;
+            }
+            if (evaluate(node, assignment)) {
+                result[(int) (row >>> 6)] |= 1L << row;
+            }
+        }
+        return result;
+    }
+
+    // Fills the rows whose variables above 'level' are the bits of 'prefix'.
+    private void fill(int node, int level, long prefix, long[] result) {
+        if (node == FALSE) return;
+        if (node == TRUE) {
+            long from = prefix << (numVars - level);
+            long to = (prefix + 1) << (numVars - level);
+            for (long row = from; row < to; ) {
+                if ((row & 63) == 0 && to - row >= 64) {
+                    result[(int) (row >>> 6)] = -1L;
+                    row += 64;
+                } else {
+                    result[(int) (row >>> 6)] |= 1L << row;
+                    row++;
+                }
+            }
+            return;
+        }
+        if (vars[node] > level) {
+            fill(node, level + 1, prefix << 1, result);
+            fill(node, level + 1, (prefix << 1) | 1, result);
+        } else {
+            fill(lows[node], level + 1, prefix << 1, result);
+            fill(highs[node], level + 1, (prefix << 1) | 1, result);
+        }
+    }
+
+    /**
+     * Variable order heuristic: a depth-first traversal of the ast that visits the deeper operand first,
+     * taking variables in the order they're reached. Variables that interact in deep subformulas end up
+     * close together, which tends to keep diagrams small.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @return the names of the propositions in the ast, in the suggested order.
+     */
+    public static List<String> heuristicOrder(final Expr ast) {
+        Map<Expr, Integer> depths = depths(ast);
+        Set<String> order = new LinkedHashSet<>();
+        // A shared subtree is done with before anything after it is reached, so visiting it again adds nothing.
+        Set<Expr> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(ast);
+        while (!pending.isEmpty()) {
+            Expr node = pending.pop();
+            if (!visited.add(node)) {
+                continue;
+            }
+            switch (node) {
+                case Expr.BinaryOperation binaryOp -> {
+                    boolean rightFirst = depths.get(binaryOp.right) > depths.get(binaryOp.left);
+                    pending.push(rightFirst ? binaryOp.left : binaryOp.right);
+                    pending.push(rightFirst ? binaryOp.right : binaryOp.left);
+                }
+                case Expr.NaryOperation naryOp -> {
+                    List<Expr> operands = new ArrayList<>(naryOp.operands);
+                    operands.sort(Comparator.comparingInt(depths::get).reversed());
+                    for (int i = operands.size() - 1; i >= 0; i--) {
+                        pending.push(operands.get(i));
+                    }
+                }
+                case Expr.Constant ignored -> {}
+                case Expr.UnaryOperation unaryOp -> pending.push(unaryOp.expression);
+                case Expr.Grouping grouping -> pending.push(grouping.expression);
+                case Expr.Proposition prop -> order.add(prop.propositionName.name);
+                default -> throw new IllegalStateException("Unexpected value: " + node);
+            }
+        }
+        return List.copyOf(order);
+    }
+
+    /**
+     * @return the depth of every node of the ast (groupings don't count), computed children first.
+     */
+    private static Map<Expr, Integer> depths(final Expr ast) {
+        Map<Expr, Integer> depths = new HashMap<>();
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(ast);
+        while (!pending.isEmpty()) {
+            Expr node = pending.peek();
+            if (depths.containsKey(node)) {
+                pending.pop();
+                continue;
+            }
+            if (node instanceof Expr.Grouping grouping) {
+                Integer depth = depths.get(grouping.expression);
+                if (depth == null) {
+                    pending.push(grouping.expression);
+                } else {
+                    depths.put(node, depth);
+                }
+                continue;
+            }
+            int operandCount = FormulaCompiler.operandCount(node);
+            int max = -1;
+            for (int i = 0; i < operandCount; i++) {
+                Integer depth = depths.get(FormulaCompiler.operand(node, i));
+                if (depth == null) {
+                    pending.push(FormulaCompiler.operand(node, i));
+                    max = Integer.MAX_VALUE;
+                } else if (max != Integer.MAX_VALUE) {
+                    max = Math.max(max, depth);
+                }
+            }
+            if (max != Integer.MAX_VALUE) {
+                depths.put(node, max + 1);
+            }
+        }
+        return depths;
+    }
+
+    /**
+     * @return whether the formula is true in every row of its truth table.
+     */
+    public static boolean isTautology(final CompiledFormula formula) {
+        Bdd bdd = new Bdd(formula.getPropositionNames());
+        return bdd.isTautology(bdd.build(formula.getAst()));
+    }
+
+    /**
+     * @return whether the formulae have the same value for every assignment of their variables
+     * (a variable that only appears in one of them can take any value).
+     */
+    public static boolean areEquivalent(final CompiledFormula a, final CompiledFormula b) {
+        Set<String> variables = new LinkedHashSet<>(a.getPropositionNames());
+        variables.addAll(b.getPropositionNames());
+        Bdd bdd = new Bdd(List.copyOf(variables));
+        return bdd.build(a.getAst()) == bdd.build(b.getAst());
+    }
+
+    /**
+     * @return the number of rows of the formula's truth table in which it's true.
+     */
+    public static BigInteger countTrue(final CompiledFormula formula) {
+        Bdd bdd = new Bdd(heuristicOrder(formula.getAst()));
+        return bdd.satCount(bdd.build(formula.getAst()));
+    }
+}
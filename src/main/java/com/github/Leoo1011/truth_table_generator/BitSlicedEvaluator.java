@@ -0,0 +1,120 @@
+package com.github.Leoo1011.truth_table_generator;
+
+/**
+ * Bit-parallel ("bit-sliced") evaluator: every proposition becomes a column of bits packed 64 rows per long,
+ * and every connective is applied as a single bitwise operation over 64 rows at a time.
+ * Row {@code r} of the truth table lives in bit {@code r & 63} of word {@code r >>> 6}.
+ */
+public class BitSlicedEvaluator {
+    private BitSlicedEvaluator() {
+    }
+
+    /**
+     * Column patterns of the six least significant bits of the row index within a single word:
+     * bit 0 alternates every row, bit 1 every two rows, and so on up to bit 5, which alternates every 32 rows.
+     */
+    private static final long[] PATTERNS = {
+            0xAAAAAAAAAAAAAAAAL,
+            0xCCCCCCCCCCCCCCCCL,
+            0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L,
+            0xFFFF0000FFFF0000L,
+            0xFFFFFFFF00000000L
+    };
+
+    /**
+     * Returns the 64 values taken by one bit of the row index, for the rows covered by the given word.
+     *
+     * @param bit the bit of the row index (0 is the least significant one).
+     * @param wordIndex the index of the word, i.e. the row index divided by 64.
+     * @return a word whose i-th bit is set if the given bit of row {@code wordIndex * 64 + i} is set.
+     */
+    static long propositionWord(int bit, long wordIndex) {
+        if (bit < PATTERNS.length) {
+            return PATTERNS[bit];
+        }
+        return ((wordIndex >>> (bit - PATTERNS.length)) & 1) == 0 ? 0L : -1L;
+    }
+
+    /**
+     * The most propositions a table can have while its result column still fits in a single long[].
+     */
+    public static final int MAX_PROPOSITIONS = 36;
+
+    /**
+     * Number of words needed to store one bit per row of a table with the given number of propositions.
+     *
+     * @throws IllegalArgumentException if there are more than {@link #MAX_PROPOSITIONS} propositions.
+     */
+    static int wordCount(int numProps) throws IllegalArgumentException {
+        if (numProps > MAX_PROPOSITIONS) {
+            throw new IllegalArgumentException(
+                    "Too many propositions: " + numProps + " (at most " + MAX_PROPOSITIONS + " are supported).");
+        }
+        return numProps <= 6 ? 1 : 1 << (numProps - 6);
+    }
+
+    /**
+     * Mask of the bits of a word that correspond to actual rows; only relevant when there are fewer than 64 rows.
+     */
+    static long validRowsMask(int numProps) {
+        return numProps >= 6 ? -1L : (1L << (1 << numProps)) - 1;
+    }
+
+    /**
+     * Evaluates the formula for every row of its truth table, 64 rows at a time.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the propositions in the ast, in order of appearance.
+     * @return the result column, see {@link #evaluate(EvaluationProgram)}.
+     */
+    public static long[] evaluate(final Expr ast, final String[] propositionNames) {
+        return evaluate(FormulaCompiler.compile(ast, propositionNames));
+    }
+
+    /**
+     * Runs the program for every row of its truth table, 64 rows at a time.
+     * Rows are in the same order as in {@link TruthTable}: the first proposition is the most significant bit
+     * of the row index, so it is false for the first half of the rows and true for the second half.
+     *
+     * @param program the formula, as compiled by the {@link FormulaCompiler}.
+     * @return the result column, with bit {@code r & 63} of word {@code r >>> 6} holding the value of row {@code r}.
+     * Bits past the last row are always 0.
+     */
+    public static long[] evaluate(final EvaluationProgram program) {
+        int numProps = program.getNumSlots();
+        long[] result = new long[wordCount(numProps)];
+        long[] propWords = new long[numProps];
+        long[] stack = program.newStack();
+        for (int w = 0; w < result.length; w++) {
+            for (int i = 0; i < numProps; i++) {
+                // The first proposition is the most significant bit of the row index.
+                propWords[i] = propositionWord(numProps - 1 - i, w);
+            }
+            result[w] = program.evaluate(propWords, stack);
+        }
+        result[result.length - 1] &= validRowsMask(numProps);
+        return result;
+    }
+
+    /**
+     * Same as {@link #evaluate(EvaluationProgram)}, but the formula is evaluated by a {@link WordEvaluator},
+     * such as one generated by the {@link BytecodeCompiler}.
+     *
+     * @param evaluator the formula to evaluate.
+     * @param numProps the number of propositions the evaluator reads.
+     * @return the result column, see {@link #evaluate(EvaluationProgram)}.
+     */
+    public static long[] evaluate(final WordEvaluator evaluator, int numProps) {
+        long[] result = new long[wordCount(numProps)];
+        long[] propWords = new long[numProps];
+        for (int w = 0; w < result.length; w++) {
+            for (int i = 0; i < numProps; i++) {
+                propWords[i] = propositionWord(numProps - 1 - i, w);
+            }
+            result[w] = evaluator.evaluate(propWords);
+        }
+        result[result.length - 1] &= validRowsMask(numProps);
+        return result;
+    }
+}
@@ -1,20 +1,40 @@
 package com.github.Leoo1011.truth_table_generator;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public class BooleanLogicInterpreter {
-    private BooleanLogicInterpreter() {
+    private final Expr ast;
+    private final Map<String, Integer> propIndices = new HashMap<>();
+
+    /**
+     * An interpreter for a formula. It doesn't change after construction, so it can be shared between threads.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the names of the propositions in the ast, in order of appearance.
+     */
+    public BooleanLogicInterpreter(final Expr ast, final List<String> propositionNames) {
+        this.ast = Objects.requireNonNull(ast);
+        for (int i = 0; i < propositionNames.size(); i++) {
+            propIndices.put(propositionNames.get(i), i);
+        }
     }
 
-    private static Map<String, Integer> propValues;
-    private static Expr ast;
+    /**
+     * An interpreter for a compiled formula.
+     *
+     * @param formula the formula to interpret.
+     */
+    public BooleanLogicInterpreter(final CompiledFormula formula) {
+        this(formula.getAst(), formula.getPropositionNames());
+    }
 
     /**
-     * Interprets the provided Abstract Syntax Tree according to the truth values provided.
+     * Interprets the Abstract Syntax Tree according to the truth values provided.
      *
-     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
      * @param truthValues int[] of 0s and 1s, representing each proposition's truth value.
      *                    The values are taken in order of appearance: in the formula "A->B",
      *                    the first value will go to A, the second, to B.
@@ -23,39 +43,68 @@ public class BooleanLogicInterpreter {
      *
      * @throws IllegalArgumentException if the number of truth values and propositions in the ast don't match.
      */
-    public static int interpret(final Expr ast, int[] truthValues) throws IllegalArgumentException {
-        BooleanLogicInterpreter.ast = Objects.requireNonNull(ast);
-        if (truthValues.length != BooleanLogicParser.getPropositionNames().size()) {
+    public int interpret(int[] truthValues) throws IllegalArgumentException {
+        if (truthValues.length != propIndices.size()) {
             throw new IllegalArgumentException(
                     "The number of truth values provided should be equal to the number of propositions in the ast.");
         }
-
-        propValues = new LinkedHashMap<>();
-        String[] propNames = BooleanLogicParser.getPropositionNames().toArray(new String[0]);
-        for (int i = 0; i < propNames.length; i++) {
-            propValues.put(propNames[i], truthValues[i]);
-        }
-        return interpret(ast);
+        return interpret(ast, truthValues);
     }
 
-    private static int interpret(final Expr ast) {
-        return switch (ast) {
-            case Expr.BinaryOperation binaryOp -> interpret(binaryOp);
-            case Expr.UnaryOperation unaryOp -> interpret(unaryOp);
-            case Expr.Grouping grouping -> interpret(grouping);
-            case Expr.Proposition proposition -> interpret(proposition);
-            default -> throw new IllegalStateException("Unexpected value: " + ast);
-        };
+    /**
+     * Interprets the ast in post-order. The traversal keeps its own stacks, so that long chains of operators
+     * (which the parser turns into equally deep asts) don't overflow the thread's stack: each frame holds a node
+     * and the number of its operands interpreted so far, whose values are on top of the value stack.
+     */
+    private int interpret(final Expr ast, final int[] truthValues) {
+        Expr[] nodes = new Expr[16];
+        int[] interpreted = new int[16];
+        int[] values = new int[16];
+        int top = 0;
+        int valueCount = 0;
+        nodes[0] = ast;
+        while (top >= 0) {
+            Expr node = nodes[top];
+            if (node instanceof Expr.Grouping grouping) {
+                nodes[top] = grouping.expression;
+                continue;
+            }
+            int operandCount = FormulaCompiler.operandCount(node);
+            int done = interpreted[top];
+            if (done < operandCount) {
+                interpreted[top] = done + 1;
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    interpreted = Arrays.copyOf(interpreted, top * 2);
+                }
+                nodes[top] = FormulaCompiler.operand(node, done);
+                interpreted[top] = 0;
+                continue;
+            }
+
+            valueCount -= operandCount;
+            int value = switch (node) {
+                case Expr.BinaryOperation binaryOp -> interpret(binaryOp, values[valueCount], values[valueCount + 1]);
+                case Expr.UnaryOperation ignored -> not(values[valueCount]);
+                case Expr.Proposition proposition -> interpret(proposition, truthValues);
+                case Expr.NaryOperation naryOp -> interpret(naryOp, values, valueCount);
+                case Expr.Constant constant -> constant.value ? 1 : 0;
+                default -> throw new IllegalStateException("Unexpected value: " + node);
+            };
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, valueCount * 2);
+            }
+            values[valueCount++] = value;
+            top--;
+        }
+        return values[0];
     }
 
     private static int not(int a) {
         return a ^ 1;
     }
 
-    private static int interpret(final Expr.BinaryOperation binaryOp) {
-        int left = interpret(binaryOp.left);
-        int right = interpret(binaryOp.right);
-
+    private static int interpret(final Expr.BinaryOperation binaryOp, int left, int right) {
         return switch (binaryOp.operator.type) {
             case OR   -> left | right;
             case AND  -> left & right;
@@ -67,16 +116,19 @@ public class BooleanLogicInterpreter {
         };
     }
 
-    private static int interpret(final Expr.UnaryOperation unaryOp) {
-        int propValue = interpret(unaryOp.expression);
-        return not(propValue);
-    }
-
-    private static int interpret(final Expr.Grouping grouping) {
-        return interpret(grouping.expression);
+    /**
+     * @param values the values of the operands, from values[from] on.
+     */
+    private static int interpret(final Expr.NaryOperation naryOp, final int[] values, int from) {
+        boolean isAnd = naryOp.operator.type == TokenType.AND;
+        int result = isAnd ? 1 : 0;
+        for (int i = from; i < from + naryOp.operands.size(); i++) {
+            result = isAnd ? result & values[i] : result | values[i];
+        }
+        return result;
     }
 
-    private static int interpret(final Expr.Proposition prop) {
-        return propValues.get(prop.propositionName.name);
+    private int interpret(final Expr.Proposition prop, final int[] truthValues) {
+        return truthValues[propIndices.get(prop.propositionName.name)];
     }
 }
@@ -1,10 +1,6 @@
 package com.github.Leoo1011.truth_table_generator;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class BooleanLogicLexer {
     private BooleanLogicLexer() {
@@ -27,31 +23,100 @@ public class BooleanLogicLexer {
      * @throws LexError if there's any extraneous token.
      */
     public static Token[] tokenize(String formula) throws LexError {
-        String f = Objects.requireNonNull(formula).replaceAll(" ", "");
-        String regex = "(?<name>\\w+)|[&|^!()]|->|<->|(?<unknown>.)";
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(f);
-
-        ArrayList<Token> tokens = new ArrayList<>();
-        HashMap<String, TokenType> tokenTypeHashMap = TokenTypeHashMap.getHashMap();
-        while (matcher.find()) {
-            String tokenString = f.substring(matcher.start(), matcher.end());
-
-            Token result;
-            if (matcher.group("unknown") != null) {
-                throw new LexError("Unknown symbol: " + tokenString);
+        return scan(formula).toTokens();
+    }
+
+    /**
+     * Same as {@link #tokenize(String)}, but returns the tokens in a compact form: a single pass over
+     * the characters, which allocates little more than the buffer and one String per distinct name.
+     * A char[] can be scanned by wrapping it with {@link java.nio.CharBuffer#wrap(char[])}.
+     * <p>
+     * Spaces are ignored anywhere, even inside symbols and names: "A - > B C" is "A->BC".
+     * Line terminators are ignored too, but they do separate names.
+     *
+     * @param formula the formula to analyze
+     * @return the tokens, with an {@link TokenType#EOL} at the end.
+     * @throws LexError if there's any extraneous token.
+     */
+    public static TokenBuffer scan(CharSequence formula) throws LexError {
+        int length = Objects.requireNonNull(formula).length();
+        TokenBuffer tokens = new TokenBuffer(formula, length / 2 + 1);
+        int i = 0;
+        while (i < length) {
+            char c = formula.charAt(i);
+            if (c == ' ' || isLineTerminator(c)) {
+                i++;
+                continue;
             }
-            else if (matcher.group("name") != null) {
-                result = new PropositionName(tokenString);
+            int start = i;
+            if (isNameChar(c)) {
+                int hash = 0;
+                int end = i;
+                for (; i < length; i++) {
+                    char next = formula.charAt(i);
+                    if (isNameChar(next)) {
+                        hash = 31 * hash + next;
+                        end = i + 1;
+                    } else if (next != ' ') {
+                        break;
+                    }
+                }
+                tokens.addName(start, end - start, hash);
+                i = end;
+                continue;
             }
-            else {
-                TokenType tokenType = tokenTypeHashMap.get(tokenString);
-                result = new Connective(tokenType);
+
+            TokenType type = switch (c) {
+                case '|' -> TokenType.OR;
+                case '&' -> TokenType.AND;
+                case '^' -> TokenType.XOR;
+                case '!' -> TokenType.NOT;
+                case '(' -> TokenType.LEFT_PAREN;
+                case ')' -> TokenType.RIGHT_PAREN;
+                default -> null;
+            };
+            if (type != null) {
+                tokens.add(type, start, 1);
+                i++;
+                continue;
+            }
+
+            if (c == '-' || c == '<') {
+                int arrow = c == '-' ? start : skipSpaces(formula, start + 1);
+                if (c == '-' || charAt(formula, arrow) == '-') {
+                    int head = skipSpaces(formula, arrow + 1);
+                    if (charAt(formula, head) == '>') {
+                        tokens.add(c == '-' ? TokenType.THEN : TokenType.IFF, start, head + 1 - start);
+                        i = head + 1;
+                        continue;
+                    }
+                }
             }
-            tokens.add(result);
+            throw new LexError("Unknown symbol: " + new String(Character.toChars(Character.codePointAt(formula, i))));
         }
 
-        tokens.add(new EndOfLine());
-        return tokens.toArray(new Token[0]);
+        tokens.add(TokenType.EOL, length, 0);
+        return tokens;
+    }
+
+    // The characters of \w, without Pattern.UNICODE_CHARACTER_CLASS.
+    private static boolean isNameChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
+    // The characters that aren't matched by . without Pattern.DOTALL, which the regex-based lexer skipped.
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static int skipSpaces(CharSequence formula, int i) {
+        while (i < formula.length() && formula.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static char charAt(CharSequence formula, int i) {
+        return i < formula.length() ? formula.charAt(i) : 0;
     }
 }
@@ -1,16 +1,34 @@
 package com.github.Leoo1011.truth_table_generator;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static com.github.Leoo1011.truth_table_generator.TokenType.*;
 
 public class BooleanLogicParser {
-    private static Token[] tokens;
-    private static int current = 0;
-    private static Set<String> propositionNames;
-    private BooleanLogicParser() {
+    private final Token[] tokens;
+    private int current = 0;
+    private final Set<String> propositionNames = new LinkedHashSet<>();
+    private final Map<Expr, Expr> nodes = new HashMap<>();
+    private int deduplicatedNodeCount = 0;
+
+    /**
+     * @param tokens the array of tokens to parse, produced by the {@link BooleanLogicLexer}.
+     */
+    public BooleanLogicParser(final Token[] tokens) {
+        this.tokens = Objects.requireNonNull(tokens);
+    }
+
+    /**
+     * @param tokens the tokens to parse, produced by {@link BooleanLogicLexer#scan(CharSequence)}.
+     */
+    public BooleanLogicParser(final TokenBuffer tokens) {
+        this(tokens.toTokens());
     }
 
     public static class ParseError extends Exception {
@@ -19,23 +37,58 @@ public class BooleanLogicParser {
         }
     }
 
-    public static Set<String> getPropositionNames() {
+    /**
+     * @return the names of the propositions found by the last call to {@link #parse()}, in order of appearance.
+     */
+    public Set<String> getPropositionNames() {
         return Collections.unmodifiableSet(propositionNames);
     }
 
+    /**
+     * @return the number of distinct nodes in the ast built by the last call to {@link #parse()}.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * @return how many times the last call to {@link #parse()} reused an existing node instead of creating
+     * an identical one. The ast would have this many more nodes if it were a tree.
+     */
+    public int getDeduplicatedNodeCount() {
+        return deduplicatedNodeCount;
+    }
+
+    /**
+     * Hash-consing: returns the node identical to the given one, if there's already one in the ast.
+     */
+    private Expr intern(Expr node) {
+        Expr existing = nodes.putIfAbsent(node, node);
+        if (existing == null) {
+            return node;
+        }
+        deduplicatedNodeCount++;
+        return existing;
+    }
+
     /**
      * Tries to "parse" the tokens provided by matching each to a rule in the context-free grammar
      * (see the grammar in README.md).
-     * This is an LL(1) (Left to right, Leftmost derivation, one token of lookahead) recursive descent parser.
+     * This is an LL(1) (Left to right, Leftmost derivation, one token of lookahead) parser. Instead of recursing,
+     * it keeps an explicit stack with a frame per open parenthesis, so deeply nested or very long formulae
+     * don't overflow the thread's stack; memory use is linear in the number of tokens.
+     * Identical subtrees are built only once and shared, so the ast is a directed acyclic graph.
+     *
+     * A parser isn't thread-safe, but it's cheap: use one per formula.
      *
-     * @param tokenArray the array of tokens to parse, produced by the {@link BooleanLogicLexer}.
      * @return a child instance of {@link Expr} representing the Abstract Syntax Tree (AST) constructed.
      * @throws ParseError if the tokens provided in the constructor don't match the grammar.
      */
-    public static Expr parse(final Token[] tokenArray) throws ParseError {
+    public Expr parse() throws ParseError {
         current = 0;
-        tokens = tokenArray;
-        propositionNames = new LinkedHashSet<>();
+        propositionNames.clear();
+        nodes.clear();
+        deduplicatedNodeCount = 0;
 
         Expr result = formula();
         if (!isAtEnd()) {
@@ -47,29 +100,29 @@ public class BooleanLogicParser {
         return result;
     }
 
-    private static Token peek() {
+    private Token peek() {
         return tokens[current];
     }
 
-    private static Token previous() {
+    private Token previous() {
         return tokens[current - 1];
     }
 
-    private static Token advance() {
+    private Token advance() {
         if (!isAtEnd()) current++;
         return previous();
     }
 
-    private static boolean isAtEnd() {
+    private boolean isAtEnd() {
         return peek().type == EOL;
     }
 
-    private static boolean check(TokenType type) {
+    private boolean check(TokenType type) {
         if (isAtEnd()) return false;
         return peek().type == type;
     }
 
-    private static boolean match(TokenType... types) {
+    private boolean match(TokenType... types) {
         for (TokenType type : types) {
             if (check(type)) {
                 advance();
@@ -79,68 +132,92 @@ public class BooleanLogicParser {
         return false;
     }
 
-    private static Token consume(TokenType type, String message) throws ParseError {
+    private Token consume(TokenType type, String message) throws ParseError {
         if (check(type)) return advance();
         throw new ParseError(message);
     }
 
-    private static Expr formula() throws ParseError {
+    private Expr formula() throws ParseError {
         if (isAtEnd()) return null;
         return term();
     }
 
-    private static Expr term() throws ParseError {
-        Expr binaryOp = binaryOperation();
-        while (match(OR, AND, XOR, THEN, IFF)) { // to match multiple operators
-            Token operator = previous();
-            Expr right = term();
-            return new Expr.BinaryOperation(binaryOp, operator, right);
-        }
-        return binaryOp;
-    }
-
-    private static Expr binaryOperation() throws ParseError {
-        Expr expr = unaryOperation();
-        while (match(OR, AND, XOR, THEN, IFF)) {
-            Token operator = previous();
-            if (match(RIGHT_PAREN) || isAtEnd()) {
-                throw new ParseError(
-                        "Expected expression or proposition name after operator '" + operator.type.prettyName + "'");
+    /**
+     * <pre>
+     * term      ::= unary_op (op_symbol unary_op)*
+     * unary_op  ::= "!" unary_op | name | "(" term ")"
+     * </pre>
+     * Every operator has the same precedence, and chains are left-associative: A&B|C is (A&B)|C.
+     * The frame of each term holds the operation built so far, the operator waiting for its right operand,
+     * and the number of '!' before that operand.
+     */
+    private Expr term() throws ParseError {
+        Expr[] lefts = new Expr[8];
+        Token[] operators = new Token[8];
+        int[] negations = new int[8];
+        int depth = 0;
+
+        while (true) {
+            // unary_op: the '!'s, then a name or a parenthesized term
+            while (match(NOT)) {
+                if (match(RIGHT_PAREN, AND, OR, XOR, THEN, IFF)) {
+                    throw new ParseError("Expected expression or proposition after '!'.");
+                }
+                negations[depth]++;
+            }
+            Expr operand;
+            if (match(PROP_NAME) && previous() instanceof PropositionName propName) {
+                propositionNames.add(propName.name);
+                operand = intern(new Expr.Proposition(propName));
+                checkAfterOperand("' not allowed after proposition/expression.");
+            } else if (match(LEFT_PAREN)) {
+                if (++depth == lefts.length) {
+                    lefts = Arrays.copyOf(lefts, depth * 2);
+                    operators = Arrays.copyOf(operators, depth * 2);
+                    negations = Arrays.copyOf(negations, depth * 2);
+                }
+                lefts[depth] = null;
+                operators[depth] = null;
+                negations[depth] = 0;
+                continue;
+            } else {
+                throw new ParseError("Invalid syntax");
             }
-            Expr rightOperator = unaryOperation();
-            expr = new Expr.BinaryOperation(expr, operator, rightOperator);
-        }
-        return expr;
-    }
 
-    private static Expr unaryOperation() throws ParseError {
-        if (match(NOT)) {
-            if (match(RIGHT_PAREN, AND, OR, XOR, THEN, IFF)) {
-                throw new ParseError("Expected expression or proposition after '!'.");
+            // Adds the operand to the operation of its term. When a term ends, it's the operand of the outer one.
+            while (true) {
+                for (int i = 0; i < negations[depth]; i++) {
+                    operand = intern(new Expr.UnaryOperation(operand));
+                }
+                negations[depth] = 0;
+                lefts[depth] = lefts[depth] == null
+                        ? operand
+                        : intern(new Expr.BinaryOperation(lefts[depth], operators[depth], operand));
+
+                if (match(OR, AND, XOR, THEN, IFF)) {
+                    Token operator = previous();
+                    if (match(RIGHT_PAREN) || isAtEnd()) {
+                        throw new ParseError("Expected expression or proposition name after operator '"
+                                + operator.type.prettyName + "'");
+                    }
+                    operators[depth] = operator;
+                    break;
+                }
+                if (depth == 0) {
+                    return lefts[0];
+                }
+                consume(RIGHT_PAREN, "Expected ')' after expression.");
+                checkAfterOperand("' not allowed after ')'.");
+                operand = intern(new Expr.Grouping(lefts[depth]));
+                lefts[depth] = null;
+                depth--;
             }
-            Expr unaryOp = unaryOperation();
-            return new Expr.UnaryOperation(unaryOp);
         }
-        Expr prop = proposition();
-        if (match(LEFT_PAREN, NOT)) {
-            throw new ParseError("'" + previous().type.prettyName + "' not allowed after proposition/expression.");
-        }
-        return prop;
     }
 
-    private static Expr proposition() throws ParseError {
-        if (match(PROP_NAME) && previous() instanceof PropositionName propName) {
-            propositionNames.add(propName.name);
-            return new Expr.Proposition(propName);
-        }
-        if (match(LEFT_PAREN)) {
-            Expr expr = term();
-            consume(RIGHT_PAREN, "Expected ')' after expression.");
-            if (match(LEFT_PAREN, NOT)) {
-                throw new ParseError("'" + previous().type.prettyName + "' not allowed after ')'.");
-            }
-            return new Expr.Grouping(expr);
+    private void checkAfterOperand(String message) throws ParseError {
+        if (match(LEFT_PAREN, NOT)) {
+            throw new ParseError("'" + previous().type.prettyName + message);
         }
-        throw new ParseError("Invalid syntax");
     }
 }
@@ -0,0 +1,247 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Turns {@link EvaluationProgram}s into hidden classes implementing {@link WordEvaluator}, whose single method
+ * evaluates the whole formula as straight-line bytecode. The JIT can then inline it and keep intermediate
+ * values in registers, instead of going through the program's operand stack.
+ * <p>
+ * The class files are written by hand: the generated method has no branches, so it needs no stack map frames,
+ * and only a handful of constant pool entries.
+ */
+public class BytecodeCompiler {
+    private BytecodeCompiler() {
+    }
+
+    /**
+     * Programs with more instructions than this are run by the {@link EvaluationProgram} itself.
+     * HotSpot doesn't JIT-compile methods longer than 8000 bytes of bytecode, so larger formulas wouldn't benefit.
+     */
+    public static final int DEFAULT_MAX_PROGRAM_SIZE = 2000;
+
+    private static final int MAX_CODE_LENGTH = 7999;
+    private static final int CACHE_SIZE = 256;
+
+    private static final String CLASS_NAME = "com/github/Leoo1011/truth_table_generator/GeneratedWordEvaluator";
+    private static final String INTERFACE_NAME = "com/github/Leoo1011/truth_table_generator/WordEvaluator";
+
+    private static final Map<EvaluationProgram, WordEvaluator> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<EvaluationProgram, WordEvaluator> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    // Cached for the programs whose bytecode would be too long, so it isn't generated again on every call.
+    private static final WordEvaluator TOO_LONG = slots -> {
+        throw new IllegalStateException("Not an evaluator.");
+    };
+
+    /**
+     * Same as {@link #compile(EvaluationProgram, int)}, with {@link #DEFAULT_MAX_PROGRAM_SIZE}.
+     */
+    public static WordEvaluator compile(final EvaluationProgram program) {
+        return compile(program, DEFAULT_MAX_PROGRAM_SIZE);
+    }
+
+    /**
+     * Generates (or fetches from the cache) a class that evaluates the program.
+     *
+     * @param program the formula, as compiled by the {@link FormulaCompiler}.
+     * @param maxProgramSize the number of instructions above which no class is generated.
+     * @return the generated evaluator, which is stateless and thread-safe; or, if the program is too big,
+     * an evaluator that runs the program (and that shouldn't be shared between threads).
+     */
+    public static WordEvaluator compile(final EvaluationProgram program, int maxProgramSize) {
+        Objects.requireNonNull(program);
+        // The limit is checked first, as the cached classes may have been generated under a larger one.
+        if (program.size() > maxProgramSize) {
+            return program.newEvaluator();
+        }
+        WordEvaluator cached = cache.get(program);
+        if (cached == TOO_LONG) {
+            return program.newEvaluator();
+        }
+        if (cached != null) {
+            return cached;
+        }
+        byte[] code = generateCode(program);
+        if (code == null) {
+            cache.put(program, TOO_LONG);
+            return program.newEvaluator();
+        }
+
+        WordEvaluator generated = defineEvaluator(
+                generateClass(code, program.maxStack * 2 + 2, 2 + program.numRegisters * 2));
+        cache.put(program, generated);
+        return generated;
+    }
+
+    private static WordEvaluator defineEvaluator(byte[] classFile) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (WordEvaluator) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Couldn't define the generated evaluator.", e);
+        }
+    }
+
+    /**
+     * @return the bytecode of {@code long evaluate(long[] slots)}, or null if it would be too long.
+     */
+    private static byte[] generateCode(final EvaluationProgram program) {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        for (int pc = 0; pc < program.size(); pc++) {
+            switch (program.opcodes[pc]) {
+                case EvaluationProgram.LOAD -> {
+                    int slot = program.operands[pc];
+                    code.write(0x2b);                                  // aload_1
+                    if (slot <= 5) {
+                        code.write(0x03 + slot);                       // iconst_<slot>
+                    } else if (slot <= Byte.MAX_VALUE) {
+                        code.write(0x10);                              // bipush
+                        code.write(slot);
+                    } else if (slot <= Short.MAX_VALUE) {
+                        code.write(0x11);                              // sipush
+                        code.write(slot >>> 8);
+                        code.write(slot);
+                    } else {
+                        return null;
+                    }
+                    code.write(0x2f);                                  // laload
+                }
+                case EvaluationProgram.NOT -> writeNot(code);
+                case EvaluationProgram.OR   -> code.write(0x81);       // lor
+                case EvaluationProgram.AND  -> code.write(0x7f);       // land
+                case EvaluationProgram.XOR  -> code.write(0x83);       // lxor
+                case EvaluationProgram.THEN -> {                       // ~left | right == ~(left & ~right)
+                    writeNot(code);
+                    code.write(0x7f);                                  // land
+                    writeNot(code);
+                }
+                case EvaluationProgram.IFF -> {
+                    code.write(0x83);                                  // lxor
+                    writeNot(code);
+                }
+                case EvaluationProgram.STORE -> {                      // registers are the locals after slots
+                    code.write(0x5c);                                  // dup2
+                    writeLocal(code, 0x37, 2 + program.operands[pc] * 2); // lstore
+                }
+                case EvaluationProgram.CONSTANT -> {
+                    code.write(0x09);                                  // lconst_0
+                    if (program.operands[pc] != 0) {
+                        writeNot(code);
+                    }
+                }
+                case EvaluationProgram.LOAD_REGISTER ->
+                    writeLocal(code, 0x16, 2 + program.operands[pc] * 2); // lload
+                default -> throw new IllegalStateException("Unexpected opcode: " + program.opcodes[pc]);
+            }
+            if (code.size() >= MAX_CODE_LENGTH) {
+                return null;
+            }
+        }
+        code.write(0xad);                                              // lreturn
+        return code.toByteArray();
+    }
+
+    private static void writeNot(ByteArrayOutputStream code) {
+        code.write(0x0a);                                              // lconst_1
+        code.write(0x75);                                              // lneg
+        code.write(0x83);                                              // lxor
+    }
+
+    private static void writeLocal(ByteArrayOutputStream code, int opcode, int local) {
+        if (local > 0xff) {
+            code.write(0xc4);                                          // wide
+            code.write(opcode);
+            code.write(local >>> 8);
+        } else {
+            code.write(opcode);
+        }
+        code.write(local);
+    }
+
+    private static byte[] generateClass(byte[] evaluateCode, int maxStack, int maxLocals) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);                  // minor version
+            out.writeShort(61);                 // major version (Java 17)
+
+            out.writeShort(14);                 // constant pool count (entries + 1)
+            writeUtf8(out, CLASS_NAME);         // #1
+            writeClass(out, 1);                 // #2
+            writeUtf8(out, "java/lang/Object"); // #3
+            writeClass(out, 3);                 // #4
+            writeUtf8(out, INTERFACE_NAME);     // #5
+            writeClass(out, 5);                 // #6
+            writeUtf8(out, "<init>");           // #7
+            writeUtf8(out, "()V");              // #8
+            out.writeByte(12);                  // #9 NameAndType <init>:()V
+            out.writeShort(7);
+            out.writeShort(8);
+            out.writeByte(10);                  // #10 Methodref Object.<init>:()V
+            out.writeShort(4);
+            out.writeShort(9);
+            writeUtf8(out, "evaluate");         // #11
+            writeUtf8(out, "([J)J");            // #12
+            writeUtf8(out, "Code");             // #13
+
+            out.writeShort(0x0031);             // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+            out.writeShort(2);                  // this class
+            out.writeShort(4);                  // super class
+            out.writeShort(1);                  // interfaces
+            out.writeShort(6);
+            out.writeShort(0);                  // fields
+
+            out.writeShort(2);                  // methods
+            byte[] constructorCode = {0x2a, (byte) 0xb7, 0x00, 0x0a, (byte) 0xb1}; // aload_0, invokespecial #10, return
+            writeMethod(out, 0x0001, 7, 8, constructorCode, 1, 1);
+            writeMethod(out, 0x0011, 11, 12, evaluateCode, maxStack, maxLocals);
+
+            out.writeShort(0);                  // class attributes
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+
+    private static void writeMethod(DataOutputStream out, int accessFlags, int nameIndex, int descriptorIndex,
+                                    byte[] code, int maxStack, int maxLocals) throws IOException {
+        out.writeShort(accessFlags);
+        out.writeShort(nameIndex);
+        out.writeShort(descriptorIndex);
+        out.writeShort(1);                      // attributes
+        out.writeShort(13);                     // "Code"
+        out.writeInt(12 + code.length);         // attribute length
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);                      // exception table
+        out.writeShort(0);                      // code attributes
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A formula in conjunctive normal form, as produced by the Tseitin transformation: every operator gets
+ * a new variable that is equivalent to it, so the clauses grow linearly with the ast instead of exponentially.
+ * <p>
+ * Literals are encoded as in DIMACS: variable v is the literal v, and its negation is -v. Variables 1 to
+ * {@link #getPropositionCount()} are the propositions, in order of appearance, and the rest are auxiliary.
+ * Every auxiliary variable is fully determined by the propositions (the equivalences are encoded in both
+ * directions), so the CNF has exactly one model per row in which the formula is true.
+ */
+public final class Cnf {
+    private final List<String> propositionNames;
+    private final List<int[]> clauses = new ArrayList<>();
+    private final Map<String, Integer> variables = new HashMap<>();
+    private final Map<Expr, Integer> literals = new IdentityHashMap<>();
+    private int variableCount;
+    private int trueLiteral = 0;
+
+    private Cnf(List<String> propositionNames) {
+        this.propositionNames = List.copyOf(propositionNames);
+        for (int i = 0; i < this.propositionNames.size(); i++) {
+            variables.put(this.propositionNames.get(i), i + 1);
+        }
+        variableCount = this.propositionNames.size();
+    }
+
+    /**
+     * Encodes the ast in CNF. Shared subtrees (see {@link BooleanLogicParser#parse()}) are only encoded once.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the propositions in the ast, which become variables 1, 2, and so on.
+     * @return the clauses, whose models are the rows in which the formula is true.
+     * @throws IllegalArgumentException if the ast contains a proposition that isn't in propositionNames.
+     */
+    public static Cnf encode(final Expr ast, final List<String> propositionNames) throws IllegalArgumentException {
+        Cnf cnf = new Cnf(propositionNames);
+        cnf.addClause(cnf.encode(Objects.requireNonNull(ast)));
+        return cnf;
+    }
+
+    /**
+     * Encodes the formula of a compiled formula in CNF.
+     * @see #encode(Expr, List)
+     */
+    public static Cnf encode(final CompiledFormula formula) {
+        return encode(formula.getAst(), formula.getPropositionNames());
+    }
+
+    /**
+     * @return the number of variables, propositions included.
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return the number of propositions, which are variables 1 to this number.
+     */
+    public int getPropositionCount() {
+        return propositionNames.size();
+    }
+
+    public List<String> getPropositionNames() {
+        return propositionNames;
+    }
+
+    public int getClauseCount() {
+        return clauses.size();
+    }
+
+    /**
+     * @param index the index of the clause, from 0 to {@link #getClauseCount()} (exclusive).
+     * @return a copy of the clause's literals.
+     */
+    public int[] getClause(int index) {
+        return clauses.get(index).clone();
+    }
+
+    /**
+     * @return the clauses, which shouldn't be modified.
+     */
+    List<int[]> clauses() {
+        return clauses;
+    }
+
+    /**
+     * @return the CNF in the DIMACS format read by most SAT solvers, with a comment per proposition.
+     */
+    public String toDimacs() {
+        StringBuilder dimacs = new StringBuilder();
+        for (int i = 0; i < propositionNames.size(); i++) {
+            dimacs.append("c ").append(i + 1).append(' ').append(propositionNames.get(i)).append('\n');
+        }
+        dimacs.append("p cnf ").append(variableCount).append(' ').append(clauses.size()).append('\n');
+        for (int[] clause : clauses) {
+            for (int literal : clause) {
+                dimacs.append(literal).append(' ');
+            }
+            dimacs.append("0\n");
+        }
+        return dimacs.toString();
+    }
+
+    /**
+     * Encodes the ast in post-order, keeping its own stack (as the {@link FormulaCompiler} does), so that long
+     * chains of operators don't overflow the thread's stack.
+     * @return the literal equivalent to the ast.
+     */
+    private int encode(final Expr ast) {
+        Expr[] nodes = new Expr[16];
+        int[] visited = new int[16]; // operands visited so far, or -1 if the node wasn't visited yet
+        int[] operandLiterals = new int[16];
+        int literalCount = 0;
+        int top = 0;
+        nodes[0] = ast;
+        visited[0] = -1;
+        while (top >= 0) {
+            Expr node = nodes[top];
+            if (visited[top] < 0) {
+                if (node instanceof Expr.Grouping grouping) {
+                    nodes[top] = grouping.expression;
+                    continue;
+                }
+                Integer literal = literals.get(node);
+                if (literal != null) {
+                    operandLiterals = push(operandLiterals, literalCount++, literal);
+                    top--;
+                    continue;
+                }
+                visited[top] = 0;
+            }
+
+            int operands = FormulaCompiler.operandCount(node);
+            if (visited[top] < operands) {
+                visited[top]++;
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    visited = Arrays.copyOf(visited, top * 2);
+                }
+                nodes[top] = FormulaCompiler.operand(node, visited[top - 1] - 1);
+                visited[top] = -1;
+                continue;
+            }
+
+            literalCount -= operands;
+            int[] args = Arrays.copyOfRange(operandLiterals, literalCount, literalCount + operands);
+            int literal = switch (node) {
+                case Expr.Proposition prop -> {
+                    Integer variable = variables.get(prop.propositionName.name);
+                    if (variable == null) {
+                        throw new IllegalArgumentException("Unknown proposition: " + prop.propositionName.name);
+                    }
+                    yield variable;
+                }
+                case Expr.Constant constant -> constant.value ? trueLiteral() : -trueLiteral();
+                case Expr.UnaryOperation ignored -> -args[0];
+                case Expr.BinaryOperation binaryOp -> operator(binaryOp.operator, args);
+                case Expr.NaryOperation naryOp -> operator(naryOp.operator, args);
+                default -> throw new IllegalStateException("Unexpected value: " + node);
+            };
+            literals.put(node, literal);
+            operandLiterals = push(operandLiterals, literalCount++, literal);
+            top--;
+        }
+        return operandLiterals[0];
+    }
+
+    private int operator(final Token operator, int[] args) {
+        return switch (operator.type) {
+            case AND -> and(args);
+            case OR -> or(args);
+            case THEN -> or(new int[]{-args[0], args[1]});
+            case XOR -> xor(args[0], args[1]);
+            case IFF -> -xor(args[0], args[1]); // a <-> b is !(a ^ b)
+            case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                throw new IllegalStateException("Unexpected operator type: '" + operator.type + "'");
+        };
+    }
+
+    // x <-> (a & b & ...): (!x | a), (!x | b), ..., (x | !a | !b | ...)
+    private int and(int[] args) {
+        int x = ++variableCount;
+        int[] clause = new int[args.length + 1];
+        clause[0] = x;
+        for (int i = 0; i < args.length; i++) {
+            addClause(-x, args[i]);
+            clause[i + 1] = -args[i];
+        }
+        addClause(clause);
+        return x;
+    }
+
+    // x <-> (a | b | ...): (x | !a), (x | !b), ..., (!x | a | b | ...)
+    private int or(int[] args) {
+        int x = ++variableCount;
+        int[] clause = new int[args.length + 1];
+        clause[0] = -x;
+        for (int i = 0; i < args.length; i++) {
+            addClause(x, -args[i]);
+            clause[i + 1] = args[i];
+        }
+        addClause(clause);
+        return x;
+    }
+
+    // x <-> (a ^ b): x is false when a and b are equal, and true when they differ.
+    private int xor(int a, int b) {
+        int x = ++variableCount;
+        addClause(-x, a, b);
+        addClause(-x, -a, -b);
+        addClause(x, -a, b);
+        addClause(x, a, -b);
+        return x;
+    }
+
+    private int trueLiteral() {
+        if (trueLiteral == 0) {
+            trueLiteral = ++variableCount;
+            addClause(trueLiteral);
+        }
+        return trueLiteral;
+    }
+
+    private void addClause(int... literals) {
+        clauses.add(literals);
+    }
+
+    private static int[] push(int[] stack, int size, int literal) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size] = literal;
+        return stack;
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe cache of {@link CompiledFormula}s, keyed by the text of the formula without spaces
+ * (which the lexer ignores anyway), and optionally of their result columns.
+ * <p>
+ * Lookups don't lock: a hit is a read from a {@link ConcurrentHashMap} and a write of the entry's access time.
+ * The cache is bounded by a number of entries and by an estimate of their size in bytes. When either bound
+ * is exceeded, the least recently used entries are evicted until the cache is 1/8 below both bounds, so that
+ * evictions happen in batches rather than on every miss.
+ */
+public final class CompileCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final boolean cacheResults;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Object evictionLock = new Object();
+
+    private static final class Entry {
+        final String key;
+        final CompiledFormula formula;
+        final long formulaBytes;
+        volatile long lastAccess;
+        volatile long[] values;
+        boolean isEvicted = false; // guarded by the entry
+
+        Entry(String key, CompiledFormula formula) {
+            this.key = key;
+            this.formula = formula;
+            this.formulaBytes = estimateBytes(formula);
+            this.lastAccess = System.nanoTime();
+        }
+
+        long bytes() {
+            long[] v = values;
+            return formulaBytes + (v == null ? 0 : valuesBytes(v));
+        }
+    }
+
+    /**
+     * @param maxEntries the most formulae to keep.
+     * @param maxBytes the most bytes the cached formulae (and results) should take, approximately.
+     * @param cacheResults whether to keep the result columns of the formulae, as computed by the
+     *                     {@link TruthTable}s created with this cache.
+     * @throws IllegalArgumentException if a bound isn't positive.
+     */
+    public CompileCache(int maxEntries, long maxBytes, boolean cacheResults) throws IllegalArgumentException {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("The bounds of the cache should be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.cacheResults = cacheResults;
+    }
+
+    /**
+     * Returns the cached compilation of the formula, compiling (and caching) it if it isn't cached.
+     * Formulae that only differ in spaces share an entry, so {@link CompiledFormula#getFormula()} may return
+     * the text with the spaces of the first one. Formulae estimated to take more than the cache's bound in bytes
+     * aren't cached, so they're compiled on every call.
+     *
+     * @param formula the boolean logic formula to compile.
+     * @return the compiled formula.
+     *
+     * @throws BooleanLogicLexer.LexError if the formula has invalid tokens.
+     * @throws BooleanLogicParser.ParseError if the formula doesn't match the grammar.
+     * @throws IllegalArgumentException if the formula is empty or blank.
+     */
+    public CompiledFormula compile(String formula)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        String key = key(Objects.requireNonNull(formula));
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            entry.lastAccess = System.nanoTime();
+            return entry.formula;
+        }
+        misses.increment();
+        // Compiled outside the map, so a slow formula doesn't block others. If two threads miss
+        // the same formula, both compile it, but only the first one is kept.
+        Entry compiled = new Entry(key, CompiledFormula.compile(formula));
+        if (compiled.formulaBytes > maxBytes) {
+            // Caching it would evict every other formula, and then itself.
+            return compiled.formula;
+        }
+        Entry existing = entries.putIfAbsent(key, compiled);
+        if (existing != null) {
+            return existing.formula;
+        }
+        bytes.addAndGet(compiled.formulaBytes);
+        evictIfNeeded();
+        return compiled.formula;
+    }
+
+    /**
+     * Returns the cached result column of a formula returned by {@link #compile(String)}, computing it
+     * (and caching it, if this cache keeps results) if it isn't cached.
+     *
+     * @param formula the compiled formula.
+     * @param evaluate computes the result column, in the format of {@link PackedTruthTable}.
+     * @return the result column, which may be shared, so it shouldn't be modified.
+     */
+    long[] values(CompiledFormula formula, Supplier<long[]> evaluate) {
+        Entry entry = cacheResults ? entries.get(key(formula.getFormula())) : null;
+        if (entry == null || entry.formula != formula) {
+            return evaluate.get();
+        }
+        long[] values = entry.values;
+        if (values != null) {
+            entry.lastAccess = System.nanoTime();
+            return values;
+        }
+        values = evaluate.get();
+        if (valuesBytes(values) > maxBytes) {
+            return values;
+        }
+        synchronized (entry) {
+            if (entry.isEvicted || entry.values != null) {
+                return values;
+            }
+            entry.values = values;
+            bytes.addAndGet(valuesBytes(values));
+        }
+        evictIfNeeded();
+        return values;
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries && bytes.get() <= maxBytes) {
+            return;
+        }
+        synchronized (evictionLock) {
+            if (entries.size() <= maxEntries && bytes.get() <= maxBytes) {
+                return; // another thread evicted in the meantime
+            }
+            int targetEntries = maxEntries - maxEntries / 8;
+            long targetBytes = maxBytes - maxBytes / 8;
+            List<Entry> byAge = new ArrayList<>(entries.values());
+            byAge.sort(Comparator.comparingLong(e -> e.lastAccess));
+            for (Entry entry : byAge) {
+                if (entries.size() <= targetEntries && bytes.get() <= targetBytes) {
+                    break;
+                }
+                if (entries.remove(entry.key, entry)) {
+                    synchronized (entry) {
+                        entry.isEvicted = true;
+                        bytes.addAndGet(-entry.bytes());
+                    }
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every entry. The counters aren't reset.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                if (entries.remove(mapEntry.getKey(), entry)) {
+                    synchronized (entry) {
+                        entry.isEvicted = true;
+                        bytes.addAndGet(-entry.bytes());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached formulae.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size of the cached formulae and results, in bytes.
+     */
+    public long getEstimatedBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return the number of calls to {@link #compile(String)} that found the formula in the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #compile(String)} that had to compile the formula.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries removed to keep the cache within its bounds.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CompileCache{ size = " + size() + ", bytes = " + getEstimatedBytes() + ", hits = " + getHitCount()
+                + ", misses = " + getMissCount() + ", evictions = " + getEvictionCount() + " }";
+    }
+
+    static String key(String formula) {
+        return formula.indexOf(' ') < 0 ? formula : formula.replace(" ", "");
+    }
+
+    /**
+     * A rough estimate of the memory taken by a compiled formula: its text, ast, names and program.
+     */
+    static long estimateBytes(CompiledFormula formula) {
+        long bytes = 128 + 2L * formula.getFormula().length();
+        bytes += 48L * formula.getNodeCount();
+        for (String name : formula.getPropositionNames()) {
+            bytes += 64 + 2L * name.length();
+        }
+        bytes += 5L * formula.getProgram().size();
+        return bytes;
+    }
+
+    private static long valuesBytes(long[] values) {
+        return 16 + 8L * values.length;
+    }
+}
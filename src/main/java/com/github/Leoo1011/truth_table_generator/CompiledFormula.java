@@ -0,0 +1,162 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A formula that went through the whole front end: lexing, parsing and compilation.
+ * Instances are immutable, so a single one can be shared between threads and evaluated concurrently.
+ */
+public final class CompiledFormula {
+    private final String formula;
+    private final Expr ast;
+    private final List<String> propositionNames;
+    private final EvaluationProgram program;
+    private final int nodeCount;
+    private final int deduplicatedNodeCount;
+    private final ExprOptimizer.Report optimizationReport;
+
+    private CompiledFormula(String formula, Expr ast, List<String> propositionNames,
+                            int nodeCount, int deduplicatedNodeCount, ExprOptimizer.Report optimizationReport) {
+        this.formula = formula;
+        this.ast = ast;
+        this.propositionNames = propositionNames;
+        this.nodeCount = nodeCount;
+        this.deduplicatedNodeCount = deduplicatedNodeCount;
+        this.optimizationReport = optimizationReport;
+        this.program = FormulaCompiler.compile(ast, propositionNames.toArray(new String[0]));
+    }
+
+    /**
+     * Lexes, parses and compiles a formula.
+     * @param formula the boolean logic formula to compile.
+     * @return the compiled formula.
+     *
+     * @throws BooleanLogicLexer.LexError if the formula has invalid tokens.
+     * @throws BooleanLogicParser.ParseError if the formula doesn't match the grammar.
+     * @throws IllegalArgumentException if the formula is empty or blank.
+     */
+    public static CompiledFormula compile(String formula)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        return compile(formula, null);
+    }
+
+    /**
+     * Lexes, parses, optimizes and compiles a formula.
+     * The propositions that the optimizer removes (as in "A^A") are still part of the formula.
+     *
+     * @param formula the boolean logic formula to compile.
+     * @param optimizer the optimizer to run on the ast before compiling it, or null not to optimize it.
+     * @return the compiled formula.
+     *
+     * @throws BooleanLogicLexer.LexError if the formula has invalid tokens.
+     * @throws BooleanLogicParser.ParseError if the formula doesn't match the grammar.
+     * @throws IllegalArgumentException if the formula is empty or blank.
+     */
+    public static CompiledFormula compile(String formula, ExprOptimizer optimizer)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        Objects.requireNonNull(formula);
+        if (formula.isBlank()) {
+            throw new IllegalArgumentException("'formula' shouldn't be empty or blank.");
+        }
+        Metrics.Span span = Metrics.start(Metrics.Phase.LEX, formula);
+        TokenBuffer tokens = BooleanLogicLexer.scan(formula);
+        span.end(-1, -1);
+
+        span = Metrics.start(Metrics.Phase.PARSE, formula);
+        BooleanLogicParser parser = new BooleanLogicParser(tokens);
+        Expr ast = parser.parse();
+        int nodeCount = parser.getNodeCount();
+        span.end(-1, nodeCount);
+
+        ExprOptimizer.Report report = null;
+        if (optimizer != null) {
+            span = Metrics.start(Metrics.Phase.OPTIMIZE, formula);
+            report = optimizer.optimize(ast);
+            ast = report.getAst();
+            span.end(-1, report.getNodeCountAfter());
+        }
+
+        span = Metrics.start(Metrics.Phase.COMPILE, formula);
+        CompiledFormula compiled = new CompiledFormula(formula, ast, List.copyOf(parser.getPropositionNames()),
+                nodeCount, parser.getDeduplicatedNodeCount(), report);
+        span.end(-1, report == null ? nodeCount : report.getNodeCountAfter());
+        return compiled;
+    }
+
+    /**
+     * @return the formula, as it was given to {@link #compile(String)}.
+     */
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the abstract syntax tree produced by the {@link BooleanLogicParser},
+     * as rewritten by the {@link ExprOptimizer} if there was one.
+     */
+    public Expr getAst() {
+        return ast;
+    }
+
+    /**
+     * @return the names of the propositions in the formula, in order of appearance.
+     * The i-th proposition is read from the i-th slot of the {@link #getProgram() program}.
+     */
+    public List<String> getPropositionNames() {
+        return propositionNames;
+    }
+
+    /**
+     * @return the formula, as compiled by the {@link FormulaCompiler}.
+     */
+    public EvaluationProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * @return the number of distinct nodes in the ast produced by the parser, before any optimization.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of subtrees the parser shared instead of duplicating,
+     * see {@link BooleanLogicParser#getDeduplicatedNodeCount()}.
+     */
+    public int getDeduplicatedNodeCount() {
+        return deduplicatedNodeCount;
+    }
+
+    /**
+     * @return the node counts before and after optimization, or null if the formula wasn't optimized.
+     */
+    public ExprOptimizer.Report getOptimizationReport() {
+        return optimizationReport;
+    }
+
+    /**
+     * Evaluates the formula for a single row.
+     *
+     * @param truthValues each proposition's truth value, in order of appearance.
+     * @return the value of the formula.
+     * @throws IllegalArgumentException if the number of truth values and propositions don't match.
+     */
+    public boolean evaluate(boolean... truthValues) throws IllegalArgumentException {
+        if (truthValues.length != propositionNames.size()) {
+            throw new IllegalArgumentException(
+                    "The number of truth values provided should be equal to the number of propositions.");
+        }
+        long[] slots = new long[truthValues.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = truthValues[i] ? -1L : 0L;
+        }
+        return program.evaluate(slots, program.newStack()) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return formula;
+    }
+}
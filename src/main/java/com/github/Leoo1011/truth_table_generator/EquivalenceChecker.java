@@ -0,0 +1,273 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Checks whether two formulae are equivalent (or one implies the other) without building their tables,
+ * and finds a counterexample when they aren't.
+ * <p>
+ * Both formulae are compiled over the union of their propositions, so a proposition that only appears in one
+ * of them can take any value. A check first evaluates them on a few words of random rows, which catches
+ * most differences in microseconds. If that finds nothing, formulae with few propositions are compared
+ * exhaustively, 64 rows at a time, stopping at the first row that differs; larger ones are handed to the
+ * SAT solver, as a formula that's only satisfiable where they differ.
+ * <p>
+ * Instances are immutable and can be shared between threads. The random rows come from the seed,
+ * so the same check always takes the same path.
+ */
+public final class EquivalenceChecker {
+    public static final int DEFAULT_SIMULATION_WORDS = 16;
+    public static final int DEFAULT_MAX_EXHAUSTIVE_PROPOSITIONS = 20;
+    public static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+    // Below this, generating a class costs more than it saves.
+    private static final int BYTECODE_MIN_WORDS = 1 << 12;
+
+    public enum Method {
+        SIMULATION, // random rows found a counterexample
+        EXHAUSTIVE, // every row was compared
+        SAT         // the SAT solver proved the property, or found a counterexample
+    }
+
+    public static final class Result {
+        private final boolean holds;
+        private final Method method;
+        private final List<String> propositionNames;
+        private final boolean[] counterexample;
+
+        private Result(Method method, List<String> propositionNames, boolean[] counterexample) {
+            this.holds = counterexample == null;
+            this.method = method;
+            this.propositionNames = propositionNames;
+            this.counterexample = counterexample;
+        }
+
+        /**
+         * @return whether the formulae are equivalent, or the first implies the second.
+         */
+        public boolean holds() {
+            return holds;
+        }
+
+        /**
+         * @return how the result was found.
+         */
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the propositions of both formulae: those of the first one, followed by those that only
+         * appear in the second one.
+         */
+        public List<String> getPropositionNames() {
+            return propositionNames;
+        }
+
+        /**
+         * @return an assignment in which the property doesn't hold, from the proposition names to their values,
+         * or an empty optional if it holds.
+         */
+        public Optional<Map<String, Boolean>> getCounterexample() {
+            if (holds) {
+                return Optional.empty();
+            }
+            Map<String, Boolean> assignment = new LinkedHashMap<>();
+            for (int i = 0; i < counterexample.length; i++) {
+                assignment.put(propositionNames.get(i), counterexample[i]);
+            }
+            return Optional.of(assignment);
+        }
+
+        /**
+         * @return the row of the counterexample in a table over {@link #getPropositionNames()} (the first
+         * proposition is the most significant bit), or -1 if the property holds.
+         * Exhaustive checks return the first row in which it doesn't hold.
+         * @throws IllegalStateException if there are more than 63 propositions.
+         */
+        public long getCounterexampleRow() throws IllegalStateException {
+            if (propositionNames.size() > 63) {
+                throw new IllegalStateException("Rows can't be indexed with more than 63 propositions.");
+            }
+            if (holds) {
+                return -1;
+            }
+            long row = 0;
+            for (boolean value : counterexample) {
+                row = row << 1 | (value ? 1 : 0);
+            }
+            return row;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{ holds = " + holds + ", method = " + method
+                    + (holds ? "" : ", counterexample = " + getCounterexample().orElseThrow()) + " }";
+        }
+    }
+
+    private final int simulationWords;
+    private final int maxExhaustivePropositions;
+    private final long seed;
+
+    /**
+     * Same as {@link #EquivalenceChecker(int, int, long)}, with {@link #DEFAULT_SIMULATION_WORDS},
+     * {@link #DEFAULT_MAX_EXHAUSTIVE_PROPOSITIONS} and {@link #DEFAULT_SEED}.
+     */
+    public EquivalenceChecker() {
+        this(DEFAULT_SIMULATION_WORDS, DEFAULT_MAX_EXHAUSTIVE_PROPOSITIONS, DEFAULT_SEED);
+    }
+
+    /**
+     * @param simulationWords the number of words of random rows to try before a complete check (0 not to).
+     * @param maxExhaustivePropositions the number of propositions above which the SAT solver is used
+     *                                  instead of comparing every row, up to {@link BitSlicedEvaluator#MAX_PROPOSITIONS}.
+     * @param seed the seed of the random rows.
+     * @throws IllegalArgumentException if a number is negative, or maxExhaustivePropositions is too big.
+     */
+    public EquivalenceChecker(int simulationWords, int maxExhaustivePropositions, long seed)
+            throws IllegalArgumentException {
+        if (simulationWords < 0) {
+            throw new IllegalArgumentException("'simulationWords' shouldn't be negative.");
+        }
+        if (maxExhaustivePropositions < 0 || maxExhaustivePropositions > BitSlicedEvaluator.MAX_PROPOSITIONS) {
+            throw new IllegalArgumentException("'maxExhaustivePropositions' should be between 0 and "
+                    + BitSlicedEvaluator.MAX_PROPOSITIONS + ".");
+        }
+        this.simulationWords = simulationWords;
+        this.maxExhaustivePropositions = maxExhaustivePropositions;
+        this.seed = seed;
+    }
+
+    /**
+     * @return whether the formulae have the same value in every row, with a counterexample if they don't.
+     */
+    public Result checkEquivalence(final CompiledFormula a, final CompiledFormula b) {
+        return check(a, b, false);
+    }
+
+    /**
+     * @return whether b is true in every row in which a is true, with a counterexample (a row in which a is true
+     * and b is false) if it isn't.
+     */
+    public Result checkImplication(final CompiledFormula a, final CompiledFormula b) {
+        return check(a, b, true);
+    }
+
+    private Result check(final CompiledFormula a, final CompiledFormula b, boolean isImplication) {
+        Set<String> union = new LinkedHashSet<>(a.getPropositionNames());
+        union.addAll(b.getPropositionNames());
+        List<String> names = List.copyOf(union);
+        int numProps = names.size();
+        String[] nameArray = names.toArray(new String[0]);
+
+        // With the same propositions in the same order, the compiled programs can be reused.
+        EvaluationProgram programA = a.getPropositionNames().equals(names)
+                ? a.getProgram() : FormulaCompiler.compile(a.getAst(), nameArray);
+        EvaluationProgram programB = b.getPropositionNames().equals(names)
+                ? b.getProgram() : FormulaCompiler.compile(b.getAst(), nameArray);
+
+        boolean isExhaustive = numProps <= maxExhaustivePropositions;
+        int words = isExhaustive ? BitSlicedEvaluator.wordCount(numProps) : Integer.MAX_VALUE;
+        if (words > simulationWords && simulationWords > 0) {
+            boolean[] counterexample = simulate(programA.newEvaluator(), programB.newEvaluator(), numProps,
+                    isImplication);
+            if (counterexample != null) {
+                return new Result(Method.SIMULATION, names, counterexample);
+            }
+        }
+        if (isExhaustive) {
+            WordEvaluator evaluatorA = words < BYTECODE_MIN_WORDS
+                    ? programA.newEvaluator() : BytecodeCompiler.compile(programA);
+            WordEvaluator evaluatorB = words < BYTECODE_MIN_WORDS
+                    ? programB.newEvaluator() : BytecodeCompiler.compile(programB);
+            return new Result(Method.EXHAUSTIVE, names,
+                    compareAll(evaluatorA, evaluatorB, numProps, words, isImplication));
+        }
+        return new Result(Method.SAT, names, solve(a.getAst(), b.getAst(), names, isImplication));
+    }
+
+    private boolean[] simulate(WordEvaluator a, WordEvaluator b, int numProps, boolean isImplication) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] slots = new long[numProps];
+        for (int w = 0; w < simulationWords; w++) {
+            for (int i = 0; i < numProps; i++) {
+                slots[i] = random.nextLong();
+            }
+            long difference = difference(a.evaluate(slots), b.evaluate(slots), isImplication);
+            if (difference != 0) {
+                int bit = Long.numberOfTrailingZeros(difference);
+                boolean[] counterexample = new boolean[numProps];
+                for (int i = 0; i < numProps; i++) {
+                    counterexample[i] = (slots[i] >>> bit & 1) != 0;
+                }
+                return counterexample;
+            }
+        }
+        return null;
+    }
+
+    private static boolean[] compareAll(WordEvaluator a, WordEvaluator b, int numProps, int words,
+                                        boolean isImplication) {
+        long[] slots = new long[numProps];
+        long lastMask = BitSlicedEvaluator.validRowsMask(numProps);
+        for (int w = 0; w < words; w++) {
+            for (int i = 0; i < numProps; i++) {
+                slots[i] = BitSlicedEvaluator.propositionWord(numProps - 1 - i, w);
+            }
+            long difference = difference(a.evaluate(slots), b.evaluate(slots), isImplication);
+            if (w == words - 1) {
+                difference &= lastMask;
+            }
+            if (difference != 0) {
+                long row = ((long) w << 6) + Long.numberOfTrailingZeros(difference);
+                boolean[] counterexample = new boolean[numProps];
+                for (int i = 0; i < numProps; i++) {
+                    counterexample[i] = (row >>> (numProps - 1 - i) & 1) != 0;
+                }
+                return counterexample;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes "a ^ b" (or "a & !b" for implications), which is only satisfiable where the property doesn't hold.
+     */
+    private static boolean[] solve(final Expr a, final Expr b, final List<String> names, boolean isImplication) {
+        Expr miter = isImplication
+                ? new Expr.BinaryOperation(a, new Connective(TokenType.AND), new Expr.UnaryOperation(b))
+                : new Expr.BinaryOperation(a, new Connective(TokenType.XOR), b);
+        Cnf cnf = Cnf.encode(miter, names);
+        SatSolver solver = new SatSolver();
+        solver.ensureVariables(cnf.getVariableCount());
+        boolean isConsistent = true;
+        for (int[] clause : cnf.clauses()) {
+            isConsistent = isConsistent && solver.addClause(clause);
+        }
+        if (!isConsistent || !solver.solve()) {
+            return null;
+        }
+        boolean[] counterexample = new boolean[names.size()];
+        for (int i = 0; i < counterexample.length; i++) {
+            counterexample[i] = solver.modelValue(i + 1);
+        }
+        return counterexample;
+    }
+
+    private static long difference(long a, long b, boolean isImplication) {
+        return isImplication ? a & ~b : a ^ b;
+    }
+
+    @Override
+    public String toString() {
+        return "EquivalenceChecker{ simulationWords = " + simulationWords + ", maxExhaustivePropositions = "
+                + maxExhaustivePropositions + ", seed = " + seed + " }";
+    }
+}
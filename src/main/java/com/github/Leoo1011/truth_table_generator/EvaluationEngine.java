@@ -0,0 +1,13 @@
+package com.github.Leoo1011.truth_table_generator;
+
+/**
+ * Enum to select how a {@link TruthTable} evaluates its formula.
+ */
+public enum EvaluationEngine {
+    INTERPRETER,    // BooleanLogicInterpreter, one row at a time
+    SHORT_CIRCUIT,  // ShortCircuitEvaluator, one row at a time, skipping operands that can't change the result
+    BIT_SLICED,     // BitSlicedEvaluator running the compiled program, 64 rows at a time
+    BYTECODE,       // BitSlicedEvaluator running a class generated by the BytecodeCompiler
+    INCREMENTAL,    // IncrementalEvaluator, rows in Gray code order, re-evaluating only what changes
+    BDD             // Bdd, filling the table from the formula's binary decision diagram
+}
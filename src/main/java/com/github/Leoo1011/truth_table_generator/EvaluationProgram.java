@@ -0,0 +1,128 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Arrays;
+
+/**
+ * A formula lowered by the {@link FormulaCompiler} into a flat postfix program for a stack machine.
+ * Each instruction is an opcode, plus an operand that is only used by {@link #LOAD} (the slot to push),
+ * {@link #STORE} and {@link #LOAD_REGISTER} (the register holding the value of a shared subtree)
+ * and {@link #CONSTANT} (1 to push true, 0 to push false).
+ * <p>
+ * Values are words of 64 independent truth values, so the same program evaluates a single row
+ * (slots holding 0 or -1) or 64 rows at once (slots holding bit-sliced columns, see {@link BitSlicedEvaluator}).
+ */
+public final class EvaluationProgram {
+    static final byte LOAD = 0;
+    static final byte NOT  = 1;
+    static final byte OR   = 2;
+    static final byte AND  = 3;
+    static final byte XOR  = 4;
+    static final byte THEN = 5;
+    static final byte IFF  = 6;
+    static final byte STORE = 7;         // copies the top of the stack to a register, without popping it
+    static final byte LOAD_REGISTER = 8;
+    static final byte CONSTANT = 9;
+
+    final byte[] opcodes;
+    final int[] operands;
+    final int maxStack;
+    final int numRegisters;
+    final int numSlots;
+
+    EvaluationProgram(byte[] opcodes, int[] operands, int maxStack, int numRegisters, int numSlots) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.maxStack = maxStack;
+        this.numRegisters = numRegisters;
+        this.numSlots = numSlots;
+    }
+
+    /**
+     * @return the number of slots (propositions) the program reads from.
+     */
+    public int getNumSlots() {
+        return numSlots;
+    }
+
+    /**
+     * @return the number of instructions in the program.
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * @return a stack big enough to run this program, to be reused across calls to {@link #evaluate(long[], long[])}.
+     * Registers are stored after the operand stack.
+     */
+    public long[] newStack() {
+        return new long[maxStack + numRegisters];
+    }
+
+    /**
+     * @return an evaluator that runs this program with its own stack, so it shouldn't be shared between threads.
+     */
+    public WordEvaluator newEvaluator() {
+        return new StackEvaluator(this);
+    }
+
+    private static class StackEvaluator implements WordEvaluator {
+        private final EvaluationProgram program;
+        private final long[] stack;
+
+        StackEvaluator(EvaluationProgram program) {
+            this.program = program;
+            this.stack = program.newStack();
+        }
+
+        @Override
+        public long evaluate(long[] slots) {
+            return program.evaluate(slots, stack);
+        }
+    }
+
+    /**
+     * Runs the program. Doesn't allocate, so it can be called once per row or word in a hot loop.
+     *
+     * @param slots the value of each proposition, indexed by its position in order of appearance.
+     * @param stack the operand stack, as returned by {@link #newStack()}.
+     * @return the value of the formula, with each bit computed from the same bit of every slot.
+     */
+    public long evaluate(final long[] slots, final long[] stack) {
+        int sp = 0;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case LOAD -> stack[sp++] = slots[operands[pc]];
+                case NOT  -> stack[sp - 1] = ~stack[sp - 1];
+                case OR   -> { sp--; stack[sp - 1] |= stack[sp]; }
+                case AND  -> { sp--; stack[sp - 1] &= stack[sp]; }
+                case XOR  -> { sp--; stack[sp - 1] ^= stack[sp]; }
+                case THEN -> { sp--; stack[sp - 1] = ~stack[sp - 1] | stack[sp]; }
+                case IFF  -> { sp--; stack[sp - 1] = ~(stack[sp - 1] ^ stack[sp]); }
+                case STORE -> stack[maxStack + operands[pc]] = stack[sp - 1];
+                case LOAD_REGISTER -> stack[sp++] = stack[maxStack + operands[pc]];
+                case CONSTANT -> stack[sp++] = -operands[pc]; // 0 or all ones
+                default -> throw new IllegalStateException("Unexpected opcode: " + opcodes[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Two programs are equal if they have the same instructions and read the same number of slots,
+     * i.e. if they compute the same formula.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EvaluationProgram other)) return false;
+        return numSlots == other.numSlots
+                && Arrays.equals(opcodes, other.opcodes)
+                && Arrays.equals(operands, other.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * numSlots + Arrays.hashCode(opcodes)) + Arrays.hashCode(operands);
+    }
+}
@@ -1,15 +1,40 @@
 package com.github.Leoo1011.truth_table_generator;
 
+import java.util.List;
+
 /**
  * Class to represent the ASTs generated by the {@link BooleanLogicParser},
  * each subclass corresponding to a non-terminal in the grammar.
+ * {@link Constant}s and {@link NaryOperation}s aren't produced by the parser, only by the {@link ExprOptimizer}.
+ * <p>
+ * Equality is structural, and hash codes are computed once, when the node is created. The parser uses this
+ * to share identical subtrees, so an ast may be a directed acyclic graph rather than a tree.
  */
 public abstract class Expr {
+    private final int hash;
+
+    Expr(int hash) {
+        this.hash = hash;
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+
     public static class UnaryOperation extends Expr {
         final Expr expression;
         public UnaryOperation(Expr expression) {
+            super(31 + expression.hashCode());
             this.expression = expression;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof UnaryOperation other
+                    && hashCode() == other.hashCode()
+                    && (expression == other.expression || expression.equals(other.expression));
+        }
     }
 
     public static class BinaryOperation extends Expr {
@@ -17,23 +42,88 @@ public abstract class Expr {
         final Token operator;
         final Expr right;
         public BinaryOperation(Expr left, Token operator, Expr right) {
+            super((31 * left.hashCode() + operator.type.ordinal()) * 31 + right.hashCode());
             this.left = left;
             this.operator = operator;
             this.right = right;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof BinaryOperation other
+                    && hashCode() == other.hashCode()
+                    && operator.type == other.operator.type
+                    && (left == other.left || left.equals(other.left))
+                    && (right == other.right || right.equals(other.right));
+        }
     }
 
     public static class Grouping extends Expr {
         final Expr expression;
         public Grouping(Expr expression) {
+            super(37 + expression.hashCode());
             this.expression = expression;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Grouping other
+                    && hashCode() == other.hashCode()
+                    && (expression == other.expression || expression.equals(other.expression));
+        }
+    }
+
+    /**
+     * A chain of the same associative operator (and or or): {@code A&B&C} is a single node with three operands.
+     */
+    public static class NaryOperation extends Expr {
+        final Token operator;
+        final List<Expr> operands;
+        public NaryOperation(Token operator, List<Expr> operands) {
+            super(31 * operator.type.ordinal() + operands.hashCode());
+            if (operator.type != TokenType.AND && operator.type != TokenType.OR) {
+                throw new IllegalArgumentException("Unexpected operator type: '" + operator.type + "'");
+            }
+            if (operands.size() < 2) {
+                throw new IllegalArgumentException("An operation needs at least two operands.");
+            }
+            this.operator = operator;
+            this.operands = List.copyOf(operands);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof NaryOperation other
+                    && hashCode() == other.hashCode()
+                    && operator.type == other.operator.type
+                    && operands.equals(other.operands);
+        }
+    }
+
+    public static class Constant extends Expr {
+        final boolean value;
+        public Constant(boolean value) {
+            super(Boolean.hashCode(value));
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Constant other && value == other.value;
+        }
     }
 
     public static class Proposition extends Expr {
         final PropositionName propositionName;
         public Proposition(PropositionName propositionName) {
+            super(propositionName.name.hashCode());
             this.propositionName = propositionName;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Proposition other
+                    && propositionName.name.equals(other.propositionName.name);
+        }
     }
 }
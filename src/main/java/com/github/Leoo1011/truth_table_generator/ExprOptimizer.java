@@ -0,0 +1,365 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.github.Leoo1011.truth_table_generator.TokenType.AND;
+
+/**
+ * Rewrites the ASTs produced by the {@link BooleanLogicParser} into smaller, equivalent ones,
+ * so the engines have fewer nodes to evaluate. Each kind of rewrite is a {@link Pass} that can be switched off.
+ * <p>
+ * The rewrites are applied bottom-up in a single traversal, and identical results are shared like the parser
+ * does, so the optimized ast is still a directed acyclic graph. Instances are immutable and thread-safe.
+ */
+public final class ExprOptimizer {
+    public enum Pass {
+        REMOVE_GROUPINGS, // (A) -> A
+        DOUBLE_NEGATION,  // !!A -> A
+        IDEMPOTENCE,      // A&A -> A, A|A -> A
+        ABSORPTION,       // A|(A&B) -> A, A&(A|B) -> A
+        CONSTANT_FOLDING, // A^A -> false, A<->A -> true, A|!A -> true, and folding of the constants produced
+        FLATTEN           // (A&B)&C -> A&B&C, as a single n-ary node
+    }
+
+    private final Set<Pass> passes;
+
+    /**
+     * @param passes the rewrites to apply.
+     */
+    public ExprOptimizer(final Set<Pass> passes) {
+        this.passes = EnumSet.noneOf(Pass.class);
+        this.passes.addAll(passes);
+    }
+
+    /**
+     * @return an optimizer that applies every {@link Pass}.
+     */
+    public static ExprOptimizer allPasses() {
+        return new ExprOptimizer(EnumSet.allOf(Pass.class));
+    }
+
+    public Set<Pass> getPasses() {
+        return Collections.unmodifiableSet(passes);
+    }
+
+    /**
+     * Optimizes an ast. The ast itself isn't modified.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @return the optimized ast, with the number of nodes before and after.
+     */
+    public Report optimize(final Expr ast) {
+        Objects.requireNonNull(ast);
+        Expr optimized = new Rewriter().rewrite(ast);
+        return new Report(optimized, countNodes(ast), countNodes(optimized));
+    }
+
+    /**
+     * @return the number of distinct nodes in the ast (a node shared by several parents is counted once).
+     */
+    public static int countNodes(final Expr ast) {
+        Set<Expr> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(ast);
+        while (!pending.isEmpty()) {
+            Expr node = pending.pop();
+            if (!visited.add(node)) {
+                continue;
+            }
+            switch (node) {
+                case Expr.BinaryOperation binaryOp -> {
+                    pending.push(binaryOp.left);
+                    pending.push(binaryOp.right);
+                }
+                case Expr.NaryOperation naryOp -> naryOp.operands.forEach(pending::push);
+                case Expr.UnaryOperation unaryOp -> pending.push(unaryOp.expression);
+                case Expr.Grouping grouping -> pending.push(grouping.expression);
+                case Expr.Proposition ignored -> {}
+                case Expr.Constant ignored -> {}
+                default -> throw new IllegalStateException("Unexpected value: " + node);
+            }
+        }
+        return visited.size();
+    }
+
+    public static class Report {
+        private final Expr ast;
+        private final int nodeCountBefore;
+        private final int nodeCountAfter;
+
+        Report(Expr ast, int nodeCountBefore, int nodeCountAfter) {
+            this.ast = ast;
+            this.nodeCountBefore = nodeCountBefore;
+            this.nodeCountAfter = nodeCountAfter;
+        }
+
+        /**
+         * @return the optimized ast.
+         */
+        public Expr getAst() {
+            return ast;
+        }
+
+        public int getNodeCountBefore() {
+            return nodeCountBefore;
+        }
+
+        public int getNodeCountAfter() {
+            return nodeCountAfter;
+        }
+
+        @Override
+        public String toString() {
+            return "Optimized " + nodeCountBefore + " nodes into " + nodeCountAfter;
+        }
+    }
+
+    private static Expr withoutGroupings(Expr ast) {
+        while (ast instanceof Expr.Grouping grouping) {
+            ast = grouping.expression;
+        }
+        return ast;
+    }
+
+    /**
+     * @return whether one of the (grouping-free) expressions is the negation of the other.
+     */
+    private static boolean areComplements(Expr a, Expr b) {
+        return a instanceof Expr.UnaryOperation notA && withoutGroupings(notA.expression).equals(b)
+                || b instanceof Expr.UnaryOperation notB && withoutGroupings(notB.expression).equals(a);
+    }
+
+    /**
+     * The state of a single call to {@link #optimize(Expr)}.
+     */
+    private class Rewriter {
+        private final Map<Expr, Expr> rewritten = new IdentityHashMap<>();
+        private final Map<Expr, Expr> nodes = new HashMap<>();
+
+        /**
+         * Rewrites the ast in post-order. The traversal keeps its own stacks, so that long chains of operators
+         * (which the parser turns into equally deep asts) don't overflow the thread's stack: each frame holds a node
+         * and the number of its operands rewritten so far, which are on top of the result stack.
+         */
+        Expr rewrite(final Expr ast) {
+            Expr[] nodes = new Expr[16];
+            int[] rewrittenOperands = new int[16];
+            Expr[] results = new Expr[16];
+            int top = 0;
+            int resultCount = 0;
+            nodes[0] = ast;
+            while (top >= 0) {
+                Expr node = nodes[top];
+                int done = rewrittenOperands[top];
+                Expr result = done == 0 ? rewritten.get(node) : null;
+                if (result == null) {
+                    int operandCount = node instanceof Expr.Grouping ? 1 : FormulaCompiler.operandCount(node);
+                    if (done < operandCount) {
+                        rewrittenOperands[top] = done + 1;
+                        if (++top == nodes.length) {
+                            nodes = Arrays.copyOf(nodes, top * 2);
+                            rewrittenOperands = Arrays.copyOf(rewrittenOperands, top * 2);
+                        }
+                        nodes[top] = node instanceof Expr.Grouping grouping
+                                ? grouping.expression : FormulaCompiler.operand(node, done);
+                        rewrittenOperands[top] = 0;
+                        continue;
+                    }
+                    resultCount -= operandCount;
+                    result = rewrite(node, results, resultCount);
+                    rewritten.put(node, result);
+                }
+                if (resultCount == results.length) {
+                    results = Arrays.copyOf(results, resultCount * 2);
+                }
+                results[resultCount++] = result;
+                top--;
+            }
+            return results[0];
+        }
+
+        /**
+         * @param operands the rewritten operands, from operands[from] on.
+         */
+        private Expr rewrite(final Expr ast, final Expr[] operands, int from) {
+            return switch (ast) {
+                case Expr.Grouping ignored -> passes.contains(Pass.REMOVE_GROUPINGS)
+                        ? operands[from] : intern(new Expr.Grouping(operands[from]));
+                case Expr.UnaryOperation ignored -> not(operands[from]);
+                case Expr.BinaryOperation binaryOp -> switch (binaryOp.operator.type) {
+                    case AND, OR -> associative(binaryOp.operator, List.of(operands[from], operands[from + 1]));
+                    case XOR, THEN, IFF -> binary(operands[from], binaryOp.operator, operands[from + 1]);
+                    case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                        throw new IllegalStateException("Unexpected operator type: '" + binaryOp.operator.type + "'");
+                };
+                case Expr.NaryOperation naryOp -> associative(naryOp.operator,
+                        List.of(Arrays.copyOfRange(operands, from, from + naryOp.operands.size())));
+                case Expr.Proposition ignored -> intern(ast);
+                case Expr.Constant ignored -> intern(ast);
+                default -> throw new IllegalStateException("Unexpected value: " + ast);
+            };
+        }
+
+        private Expr intern(Expr node) {
+            Expr existing = nodes.putIfAbsent(node, node);
+            return existing == null ? node : existing;
+        }
+
+        private Expr constant(boolean value) {
+            return intern(new Expr.Constant(value));
+        }
+
+        private Expr not(Expr expression) {
+            Expr inner = withoutGroupings(expression);
+            if (passes.contains(Pass.CONSTANT_FOLDING) && inner instanceof Expr.Constant constant) {
+                return constant(!constant.value);
+            }
+            if (passes.contains(Pass.DOUBLE_NEGATION) && inner instanceof Expr.UnaryOperation unaryOp) {
+                return unaryOp.expression;
+            }
+            return intern(new Expr.UnaryOperation(expression));
+        }
+
+        /**
+         * Rewrites the non-associative operations: xor, implication and equivalence.
+         */
+        private Expr binary(Expr left, Token operator, Expr right) {
+            if (passes.contains(Pass.CONSTANT_FOLDING)) {
+                Expr l = withoutGroupings(left);
+                Expr r = withoutGroupings(right);
+                boolean areEqual = l.equals(r);
+                boolean areComplements = areComplements(l, r);
+                switch (operator.type) {
+                    case XOR -> {
+                        if (areEqual) return constant(false);
+                        if (areComplements) return constant(true);
+                        if (l instanceof Expr.Constant constant) return constant.value ? not(right) : right;
+                        if (r instanceof Expr.Constant constant) return constant.value ? not(left) : left;
+                    }
+                    case IFF -> {
+                        if (areEqual) return constant(true);
+                        if (areComplements) return constant(false);
+                        if (l instanceof Expr.Constant constant) return constant.value ? right : not(right);
+                        if (r instanceof Expr.Constant constant) return constant.value ? left : not(left);
+                    }
+                    case THEN -> {
+                        if (areEqual) return constant(true);
+                        if (areComplements) return right; // A->!A == !A, and !A->A == A
+                        if (l instanceof Expr.Constant constant) return constant.value ? right : constant(true);
+                        if (r instanceof Expr.Constant constant) return constant.value ? constant(true) : not(left);
+                    }
+                    default -> throw new IllegalStateException("Unexpected operator type: '" + operator.type + "'");
+                }
+            }
+            return intern(new Expr.BinaryOperation(left, operator, right));
+        }
+
+        /**
+         * Rewrites a chain of ands or ors, given its operands in order.
+         */
+        private Expr associative(Token operator, List<Expr> operands) {
+            boolean isAnd = operator.type == AND;
+            List<Expr> flattened = operands;
+            if (passes.contains(Pass.FLATTEN)) {
+                flattened = new ArrayList<>();
+                for (Expr operand : operands) {
+                    flatten(operator.type, operand, flattened);
+                }
+            }
+
+            // The operands without their groupings, to compare them.
+            Map<Expr, Expr> distinct = new LinkedHashMap<>();
+            List<Expr> result = new ArrayList<>();
+            for (Expr operand : flattened) {
+                Expr bare = withoutGroupings(operand);
+                if (passes.contains(Pass.CONSTANT_FOLDING) && bare instanceof Expr.Constant constant) {
+                    if (constant.value != isAnd) {
+                        return constant(!isAnd); // A&false -> false, A|true -> true
+                    }
+                    continue;                    // A&true -> A, A|false -> A
+                }
+                if (passes.contains(Pass.IDEMPOTENCE) && distinct.containsKey(bare)) {
+                    continue;
+                }
+                distinct.putIfAbsent(bare, operand);
+                result.add(operand);
+            }
+
+            if (passes.contains(Pass.CONSTANT_FOLDING)) {
+                for (Expr bare : distinct.keySet()) {
+                    if (bare instanceof Expr.UnaryOperation unaryOp
+                            && distinct.containsKey(withoutGroupings(unaryOp.expression))) {
+                        return constant(!isAnd); // A&!A -> false, A|!A -> true
+                    }
+                }
+            }
+            if (passes.contains(Pass.ABSORPTION)) {
+                // Every operand that is removed has a smaller operand that absorbs it, so this always terminates
+                // in operands that are kept, even when they're removed all at once.
+                TokenType dual = isAnd ? TokenType.OR : AND;
+                result.removeIf(operand -> isAbsorbed(withoutGroupings(operand), dual, distinct.keySet()));
+            }
+
+            if (result.isEmpty()) {
+                return constant(isAnd);
+            }
+            if (result.size() == 1) {
+                return result.get(0);
+            }
+            if (result.size() == 2) {
+                return intern(new Expr.BinaryOperation(result.get(0), operator, result.get(1)));
+            }
+            return intern(new Expr.NaryOperation(operator, result));
+        }
+
+        private void flatten(TokenType type, Expr operand, List<Expr> result) {
+            Deque<Expr> pending = new ArrayDeque<>();
+            pending.push(operand);
+            while (!pending.isEmpty()) {
+                Expr next = pending.pop();
+                Expr bare = withoutGroupings(next);
+                if (bare instanceof Expr.BinaryOperation binaryOp && binaryOp.operator.type == type) {
+                    pending.push(binaryOp.right);
+                    pending.push(binaryOp.left);
+                } else if (bare instanceof Expr.NaryOperation naryOp && naryOp.operator.type == type) {
+                    for (int i = naryOp.operands.size() - 1; i >= 0; i--) {
+                        pending.push(naryOp.operands.get(i));
+                    }
+                } else {
+                    result.add(next);
+                }
+            }
+        }
+
+        /**
+         * @return whether the operand is an operation of the dual operator with one of its own operands
+         * among the siblings: A|(A&B) == A.
+         */
+        private boolean isAbsorbed(Expr operand, TokenType dual, Set<Expr> siblings) {
+            List<Expr> inner = switch (operand) {
+                case Expr.BinaryOperation binaryOp when binaryOp.operator.type == dual ->
+                    List.of(binaryOp.left, binaryOp.right);
+                case Expr.NaryOperation naryOp when naryOp.operator.type == dual -> naryOp.operands;
+                default -> List.of();
+            };
+            for (Expr expr : inner) {
+                if (siblings.contains(withoutGroupings(expr))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
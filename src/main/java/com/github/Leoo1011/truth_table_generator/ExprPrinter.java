@@ -15,6 +15,8 @@ public class ExprPrinter {
             case Expr.UnaryOperation unaryOp -> printExpr(unaryOp, out);
             case Expr.Grouping grouping -> printExpr(grouping, out);
             case Expr.BinaryOperation binaryOp -> printExpr(binaryOp, out);
+            case Expr.NaryOperation naryOp -> printExpr(naryOp, out);
+            case Expr.Constant constant -> out.print(constant.value);
             default -> {}
         }
     }
@@ -48,4 +50,14 @@ public class ExprPrinter {
         printExpr(binaryOperation.right, out);
         out.print(")");
     }
+
+    static void printExpr(Expr.NaryOperation naryOperation, PrintStream out) {
+        out.print("(");
+        printExpr(naryOperation.operator, out);
+        for (Expr operand : naryOperation.operands) {
+            out.print(" ");
+            printExpr(operand, out);
+        }
+        out.print(")");
+    }
 }
@@ -0,0 +1,191 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Lowers the ASTs produced by the {@link BooleanLogicParser} into {@link EvaluationProgram}s.
+ * Proposition names are resolved to slot indices at compile time and groupings disappear,
+ * so evaluating the program needs neither recursion nor hashing.
+ * <p>
+ * Subtrees shared by the parser (see {@link BooleanLogicParser#parse()}) are only computed once:
+ * the first occurrence stores its value in a register, and the others load it from there.
+ */
+public class FormulaCompiler {
+    private FormulaCompiler() {
+    }
+
+    private byte[] opcodes = new byte[16];
+    private int[] operands = new int[16];
+    private int size = 0;
+    private int depth = 0;
+    private int maxDepth = 0;
+    private Map<String, Integer> slots;
+    private final Map<Expr, Integer> parentCounts = new IdentityHashMap<>();
+    private final Map<Expr, Integer> registers = new IdentityHashMap<>();
+
+    /**
+     * Compiles the ast into a postfix program.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the propositions in the ast. The i-th name is read from the i-th slot.
+     * @return the compiled program.
+     * @throws IllegalArgumentException if the ast contains a proposition that isn't in propositionNames.
+     */
+    public static EvaluationProgram compile(final Expr ast, final String[] propositionNames)
+            throws IllegalArgumentException {
+        Objects.requireNonNull(ast);
+        FormulaCompiler compiler = new FormulaCompiler();
+        compiler.slots = new HashMap<>();
+        for (int i = 0; i < propositionNames.length; i++) {
+            compiler.slots.put(propositionNames[i], i);
+        }
+        compiler.countParents(ast);
+        compiler.emit(ast);
+        return new EvaluationProgram(Arrays.copyOf(compiler.opcodes, compiler.size),
+                Arrays.copyOf(compiler.operands, compiler.size), compiler.maxDepth, compiler.registers.size(),
+                propositionNames.length);
+    }
+
+    /**
+     * Counts the parents of every node, visiting shared nodes only once.
+     * Groupings are transparent: their parents count as parents of their expression.
+     */
+    private void countParents(final Expr ast) {
+        Deque<Expr> pending = new ArrayDeque<>();
+        pending.push(ast);
+        while (!pending.isEmpty()) {
+            Expr node = pending.pop();
+            if (node instanceof Expr.Grouping grouping) {
+                pending.push(grouping.expression);
+                continue;
+            }
+            if (parentCounts.merge(node, 1, Integer::sum) > 1) {
+                continue;
+            }
+            for (int i = 0; i < operandCount(node); i++) {
+                pending.push(operand(node, i));
+            }
+        }
+    }
+
+    /**
+     * Emits the instructions of the ast in post-order. The traversal keeps its own stack, so that long chains
+     * of operators (which the parser turns into equally deep asts) don't overflow the thread's stack.
+     * Each frame holds a node and the number of its operands emitted so far, or -1 if it wasn't visited yet.
+     */
+    private void emit(final Expr ast) {
+        Expr[] nodes = new Expr[16];
+        int[] emitted = new int[16];
+        int top = 0;
+        nodes[0] = ast;
+        emitted[0] = -1;
+        while (top >= 0) {
+            Expr node = nodes[top];
+            int done = emitted[top];
+            if (done < 0) {
+                if (node instanceof Expr.Grouping grouping) {
+                    nodes[top] = grouping.expression;
+                    continue;
+                }
+                Integer register = registers.get(node);
+                if (register != null) {
+                    emit(EvaluationProgram.LOAD_REGISTER, register, 1);
+                    top--;
+                    continue;
+                }
+                done = 0;
+            } else if (node instanceof Expr.NaryOperation naryOp && done >= 2) {
+                emit(opcode(naryOp.operator), 0, -1); // after every operand but the first
+            }
+
+            if (done < operandCount(node)) {
+                emitted[top] = done + 1;
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    emitted = Arrays.copyOf(emitted, top * 2);
+                }
+                nodes[top] = operand(node, done);
+                emitted[top] = -1;
+                continue;
+            }
+
+            switch (node) {
+                case Expr.BinaryOperation binaryOp -> emit(opcode(binaryOp.operator), 0, -1);
+                case Expr.NaryOperation ignored -> {}
+                case Expr.UnaryOperation ignored -> emit(EvaluationProgram.NOT, 0, 0);
+                case Expr.Constant constant -> emit(EvaluationProgram.CONSTANT, constant.value ? 1 : 0, 1);
+                case Expr.Proposition prop -> {
+                    Integer slot = slots.get(prop.propositionName.name);
+                    if (slot == null) {
+                        throw new IllegalArgumentException("Unknown proposition: " + prop.propositionName.name);
+                    }
+                    emit(EvaluationProgram.LOAD, slot, 1);
+                }
+                default -> throw new IllegalStateException("Unexpected value: " + node);
+            }
+            // Propositions and constants are as cheap to load as a register.
+            if (parentCounts.get(node) > 1 && operandCount(node) > 0) {
+                int register = registers.size();
+                registers.put(node, register);
+                emit(EvaluationProgram.STORE, register, 0);
+            }
+            top--;
+        }
+    }
+
+    /**
+     * @return the number of operands of a node that isn't a grouping.
+     */
+    static int operandCount(final Expr node) {
+        return switch (node) {
+            case Expr.BinaryOperation ignored -> 2;
+            case Expr.NaryOperation naryOp -> naryOp.operands.size();
+            case Expr.UnaryOperation ignored -> 1;
+            case Expr.Proposition ignored -> 0;
+            case Expr.Constant ignored -> 0;
+            default -> throw new IllegalStateException("Unexpected value: " + node);
+        };
+    }
+
+    /**
+     * @return the i-th operand of a node that isn't a grouping.
+     */
+    static Expr operand(final Expr node, int i) {
+        return switch (node) {
+            case Expr.BinaryOperation binaryOp -> i == 0 ? binaryOp.left : binaryOp.right;
+            case Expr.NaryOperation naryOp -> naryOp.operands.get(i);
+            case Expr.UnaryOperation unaryOp -> unaryOp.expression;
+            default -> throw new IllegalStateException("Unexpected value: " + node);
+        };
+    }
+
+    private static byte opcode(final Token operator) {
+        return switch (operator.type) {
+            case OR   -> EvaluationProgram.OR;
+            case AND  -> EvaluationProgram.AND;
+            case XOR  -> EvaluationProgram.XOR;
+            case THEN -> EvaluationProgram.THEN;
+            case IFF  -> EvaluationProgram.IFF;
+            case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                throw new IllegalStateException("Unexpected operator type: '" + operator.type + "'");
+        };
+    }
+
+    private void emit(byte opcode, int operand, int stackEffect) {
+        if (size == opcodes.length) {
+            opcodes = Arrays.copyOf(opcodes, size * 2);
+            operands = Arrays.copyOf(operands, size * 2);
+        }
+        opcodes[size] = opcode;
+        operands[size] = operand;
+        size++;
+        depth += stackEffect;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+}
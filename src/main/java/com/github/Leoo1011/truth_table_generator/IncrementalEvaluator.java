@@ -0,0 +1,301 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Evaluator that caches the value of every node of the ast, so that when a single proposition changes,
+ * only the nodes above it are evaluated again. Propagation stops at nodes whose value doesn't change.
+ * <p>
+ * Stepping through the rows in Gray code order changes exactly one proposition per row, which makes this
+ * evaluator a good fit for it: see {@link #evaluate(CompiledFormula)}.
+ * Instances aren't thread-safe.
+ */
+public class IncrementalEvaluator {
+    private static final byte PROP = 0;
+    private static final byte NOT  = 1;
+    private static final byte OR   = 2;
+    private static final byte AND  = 3;
+    private static final byte XOR  = 4;
+    private static final byte THEN = 5;
+    private static final byte IFF  = 6;
+    private static final byte CONSTANT = 7; // its value is stored in lefts, as 0 or 1
+
+    // Nodes are numbered in post-order, so every node comes after its children.
+    private byte[] kinds = new byte[16];
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int size = 0;
+    private final boolean[] values;
+
+    // Parents of node i are parents[parentStart[i]] to parents[parentStart[i + 1] - 1].
+    private final int[] parentStart;
+    private final int[] parents;
+
+    private final int[] slotNodes;
+    private final int root;
+
+    // Min-heap of the nodes to evaluate again, and whether each node is in it.
+    private final int[] dirty;
+    private int dirtySize = 0;
+    private final boolean[] isDirty;
+
+    /**
+     * Builds the evaluator, with every proposition set to false.
+     *
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the propositions in the ast, in order of appearance.
+     */
+    public IncrementalEvaluator(final Expr ast, final List<String> propositionNames) {
+        Objects.requireNonNull(ast);
+        slotNodes = new int[propositionNames.size()];
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < slotNodes.length; i++) {
+            slots.put(propositionNames.get(i), i);
+            slotNodes[i] = add(PROP, -1, -1); // a single node per proposition, however many times it appears
+        }
+        root = build(ast, slots, new IdentityHashMap<>());
+
+        int[] parentCounts = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            if (kinds[node] != CONSTANT && lefts[node] >= 0) parentCounts[lefts[node]]++;
+            if (rights[node] >= 0) parentCounts[rights[node]]++;
+        }
+        parentStart = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            parentStart[node + 1] = parentStart[node] + parentCounts[node];
+        }
+        parents = new int[parentStart[size]];
+        int[] next = Arrays.copyOf(parentStart, size);
+        for (int node = 0; node < size; node++) {
+            if (kinds[node] != CONSTANT && lefts[node] >= 0) parents[next[lefts[node]]++] = node;
+            if (rights[node] >= 0) parents[next[rights[node]]++] = node;
+        }
+
+        values = new boolean[size];
+        for (int node = 0; node < size; node++) {
+            values[node] = compute(node);
+        }
+        dirty = new int[size];
+        isDirty = new boolean[size];
+    }
+
+    /**
+     * @param formula the formula to evaluate, with every proposition set to false.
+     */
+    public IncrementalEvaluator(final CompiledFormula formula) {
+        this(formula.getAst(), formula.getPropositionNames());
+    }
+
+    /**
+     * Adds the nodes of the ast in post-order. Subtrees shared by the parser become a single node, with several
+     * parents. The traversal keeps its own stacks, so that long chains of operators (which the parser turns into
+     * equally deep asts) don't overflow the thread's stack: each frame holds an ast node and the number of its
+     * operands built so far, whose nodes are on top of the result stack.
+     */
+    private int build(final Expr ast, final Map<String, Integer> slots, final Map<Expr, Integer> built) {
+        Expr[] nodes = new Expr[16];
+        int[] builtOperands = new int[16];
+        int[] results = new int[16];
+        int top = 0;
+        int resultCount = 0;
+        nodes[0] = ast;
+        while (top >= 0) {
+            Expr expr = nodes[top];
+            if (expr instanceof Expr.Grouping grouping) {
+                nodes[top] = grouping.expression;
+                continue;
+            }
+            int done = builtOperands[top];
+            Integer node = done == 0 ? built.get(expr) : null;
+            if (node == null) {
+                int operandCount = FormulaCompiler.operandCount(expr);
+                if (done < operandCount) {
+                    builtOperands[top] = done + 1;
+                    if (++top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, top * 2);
+                        builtOperands = Arrays.copyOf(builtOperands, top * 2);
+                    }
+                    nodes[top] = FormulaCompiler.operand(expr, done);
+                    builtOperands[top] = 0;
+                    continue;
+                }
+                resultCount -= operandCount;
+                node = build(expr, slots, results, resultCount);
+                built.put(expr, node);
+            }
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = node;
+            top--;
+        }
+        return results[0];
+    }
+
+    /**
+     * @param operandNodes the nodes of the operands, from operandNodes[from] on.
+     */
+    private int build(final Expr ast, final Map<String, Integer> slots, final int[] operandNodes, int from) {
+        return switch (ast) {
+            case Expr.BinaryOperation binaryOp -> {
+                byte kind = switch (binaryOp.operator.type) {
+                    case OR   -> OR;
+                    case AND  -> AND;
+                    case XOR  -> XOR;
+                    case THEN -> THEN;
+                    case IFF  -> IFF;
+                    case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                        throw new IllegalStateException("Unexpected operator type: '" + binaryOp.operator.type + "'");
+                };
+                yield add(kind, operandNodes[from], operandNodes[from + 1]);
+            }
+            case Expr.NaryOperation naryOp -> {
+                byte kind = naryOp.operator.type == TokenType.AND ? AND : OR;
+                int chain = operandNodes[from];
+                for (int i = 1; i < naryOp.operands.size(); i++) {
+                    chain = add(kind, chain, operandNodes[from + i]);
+                }
+                yield chain;
+            }
+            case Expr.Constant constant -> add(CONSTANT, constant.value ? 1 : 0, -1);
+            case Expr.UnaryOperation ignored -> add(NOT, operandNodes[from], -1);
+            case Expr.Proposition prop -> {
+                Integer slot = slots.get(prop.propositionName.name);
+                if (slot == null) {
+                    throw new IllegalArgumentException("Unknown proposition: " + prop.propositionName.name);
+                }
+                yield slotNodes[slot];
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + ast);
+        };
+    }
+
+    private int add(byte kind, int left, int right) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            lefts = Arrays.copyOf(lefts, size * 2);
+            rights = Arrays.copyOf(rights, size * 2);
+        }
+        kinds[size] = kind;
+        lefts[size] = left;
+        rights[size] = right;
+        return size++;
+    }
+
+    private boolean compute(int node) {
+        return switch (kinds[node]) {
+            case PROP -> values[node];
+            case NOT  -> !values[lefts[node]];
+            case OR   -> values[lefts[node]] | values[rights[node]];
+            case AND  -> values[lefts[node]] & values[rights[node]];
+            case XOR  -> values[lefts[node]] ^ values[rights[node]];
+            case THEN -> !values[lefts[node]] | values[rights[node]];
+            case IFF  -> values[lefts[node]] == values[rights[node]];
+            case CONSTANT -> lefts[node] == 1;
+            default -> throw new IllegalStateException("Unexpected node kind: " + kinds[node]);
+        };
+    }
+
+    /**
+     * @return the value of the formula for the current values of the propositions.
+     */
+    public boolean getValue() {
+        return values[root];
+    }
+
+    /**
+     * @param slot the index of a proposition, in order of appearance.
+     * @return its current value.
+     */
+    public boolean getInput(int slot) {
+        return values[slotNodes[slot]];
+    }
+
+    /**
+     * Negates a proposition and updates the nodes that depend on it.
+     *
+     * @param slot the index of the proposition, in order of appearance.
+     * @return the new value of the formula.
+     */
+    public boolean flip(int slot) {
+        int leaf = slotNodes[slot];
+        values[leaf] = !values[leaf];
+        markParentsDirty(leaf);
+        while (dirtySize > 0) {
+            int node = popDirty();
+            boolean value = compute(node);
+            if (value != values[node]) {
+                values[node] = value;
+                markParentsDirty(node);
+            }
+        }
+        return values[root];
+    }
+
+    private void markParentsDirty(int node) {
+        for (int i = parentStart[node]; i < parentStart[node + 1]; i++) {
+            int parent = parents[i];
+            if (!isDirty[parent]) {
+                isDirty[parent] = true;
+                pushDirty(parent);
+            }
+        }
+    }
+
+    // Nodes are popped in increasing order, so a node is only evaluated after all its dirty children.
+    private void pushDirty(int node) {
+        int i = dirtySize++;
+        while (i > 0 && dirty[(i - 1) >>> 1] > node) {
+            dirty[i] = dirty[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        dirty[i] = node;
+    }
+
+    private int popDirty() {
+        int top = dirty[0];
+        int last = dirty[--dirtySize];
+        int i = 0;
+        while (2 * i + 1 < dirtySize) {
+            int child = 2 * i + 1;
+            if (child + 1 < dirtySize && dirty[child + 1] < dirty[child]) child++;
+            if (dirty[child] >= last) break;
+            dirty[i] = dirty[child];
+            i = child;
+        }
+        dirty[i] = last;
+        isDirty[top] = false;
+        return top;
+    }
+
+    /**
+     * Evaluates the formula for every row of its truth table, visiting the rows in Gray code order
+     * (so a single proposition changes from one row to the next), but storing them in binary order.
+     *
+     * @param formula the formula to evaluate.
+     * @return the result column, in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
+     */
+    public static long[] evaluate(final CompiledFormula formula) {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(formula);
+        int numProps = formula.getPropositionNames().size();
+        long[] result = new long[BitSlicedEvaluator.wordCount(numProps)];
+        long rows = 1L << numProps;
+
+        boolean value = evaluator.getValue(); // row 0: every proposition is false
+        result[0] |= value ? 1 : 0;
+        for (long i = 1; i < rows; i++) {
+            int bit = Long.numberOfTrailingZeros(i); // the bit that changes between gray(i - 1) and gray(i)
+            value = evaluator.flip(numProps - 1 - bit);
+            long row = i ^ (i >>> 1);
+            if (value) {
+                result[(int) (row >>> 6)] |= 1L << row;
+            }
+        }
+        return result;
+    }
+}
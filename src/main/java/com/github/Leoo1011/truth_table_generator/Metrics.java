@@ -0,0 +1,220 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Timings of the phases of the generation of truth tables, reported to {@link Listener}s and as JDK Flight Recorder
+ * events ({@link PhaseEvent}), along with the rows and ast nodes the phase went through and the bytes it allocated.
+ * <p>
+ * When there are no listeners and the event isn't being recorded, starting a phase returns a shared span that
+ * does nothing, so the cost is a couple of checks per phase (not per row).
+ * Phases that run in parallel are reported once per chunk, by the thread that ran the chunk.
+ */
+public final class Metrics {
+    private Metrics() {
+    }
+
+    public enum Phase {
+        LEX,                // BooleanLogicLexer, while compiling a formula
+        PARSE,              // BooleanLogicParser, while compiling a formula
+        OPTIMIZE,           // ExprOptimizer, if the formula is compiled with one
+        COMPILE,            // FormulaCompiler
+        EVALUATE,           // the result column, with the table's EvaluationEngine
+        PERMUTATIONS,       // the propositions' cells of TruthTable.getTable()
+        INTERPRETED_VALUES, // the formula's cells of TruthTable.getTable()
+        OUTPUT              // TableWriter, including TruthTable.printTable()
+    }
+
+    /**
+     * Receives the measurements of every phase, on the thread that ran it, right after it ends.
+     * Listeners should be fast and thread-safe: phases may run concurrently.
+     */
+    public interface Listener {
+        void onPhase(Measurement measurement);
+    }
+
+    public static final class Measurement {
+        private final Phase phase;
+        private final String formula;
+        private final long durationNanos;
+        private final long rows;
+        private final int nodeCount;
+        private final long allocatedBytes;
+
+        Measurement(Phase phase, String formula, long durationNanos, long rows, int nodeCount, long allocatedBytes) {
+            this.phase = phase;
+            this.formula = formula;
+            this.durationNanos = durationNanos;
+            this.rows = rows;
+            this.nodeCount = nodeCount;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return the formula, or the formulae separated by "; " for a {@link TruthTableBatch}.
+         */
+        public String getFormula() {
+            return formula;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return the number of rows the phase went through, or -1 if it doesn't work on rows.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return the rows per second, or -1 if the phase doesn't work on rows.
+         */
+        public double getRowsPerSecond() {
+            return rows < 0 ? -1 : rows * 1e9 / Math.max(durationNanos, 1);
+        }
+
+        /**
+         * @return the number of distinct nodes in the ast, or -1 if it isn't known to the phase.
+         */
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * @return the bytes allocated by the thread that ran the phase (not by the threads it waited for),
+         * or -1 if the JVM doesn't measure them.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Measurement{ phase = " + phase + ", nanos = " + durationNanos + ", rows = " + rows
+                    + ", nodes = " + nodeCount + ", allocated = " + allocatedBytes + " }";
+        }
+    }
+
+    /**
+     * A phase in progress, ended by {@link #end(long, int)}. Phases that throw are simply never ended.
+     */
+    static final class Span {
+        private static final Span DISABLED = new Span(null, null, null);
+        private static final int MAX_EVENT_FORMULA_LENGTH = 256;
+
+        private final Phase phase;
+        private final String formula;
+        private final PhaseEvent event;
+        private final long startNanos;
+        private final long startAllocated;
+
+        private Span(Phase phase, String formula, PhaseEvent event) {
+            this.phase = phase;
+            this.formula = formula;
+            this.event = event;
+            this.startAllocated = event == null ? -1 : allocatedBytes();
+            this.startNanos = event == null ? 0 : System.nanoTime();
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        /**
+         * @param rows the number of rows the phase went through, or -1 if it doesn't work on rows.
+         * @param nodeCount the number of distinct nodes in the ast, or -1 if it isn't known to the phase.
+         */
+        void end(long rows, int nodeCount) {
+            if (this == DISABLED) {
+                return;
+            }
+            event.end();
+            long durationNanos = System.nanoTime() - startNanos;
+            long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.formula = formula.length() <= MAX_EVENT_FORMULA_LENGTH
+                        ? formula : formula.substring(0, MAX_EVENT_FORMULA_LENGTH);
+                event.rows = rows;
+                event.nodeCount = nodeCount;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+            if (hasListeners) {
+                Measurement measurement = new Measurement(phase, formula, durationNanos, rows, nodeCount, allocated);
+                for (Listener listener : listeners) {
+                    listener.onPhase(measurement);
+                }
+            }
+        }
+    }
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static volatile boolean hasListeners = false;
+
+    public static void addListener(Listener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+        hasListeners = true;
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+        hasListeners = !listeners.isEmpty();
+    }
+
+    /**
+     * @return whether phases are being measured: there are listeners, or the {@link PhaseEvent} is being recorded.
+     */
+    public static boolean isEnabled() {
+        return hasListeners || new PhaseEvent().isEnabled();
+    }
+
+    /**
+     * Starts measuring a phase, if there are listeners or the {@link PhaseEvent} is being recorded.
+     */
+    static Span start(Phase phase, String formula) {
+        PhaseEvent event = new PhaseEvent();
+        if (!hasListeners && !event.isEnabled()) {
+            return Span.DISABLED;
+        }
+        return new Span(phase, formula, event);
+    }
+
+    /**
+     * Same as {@link #start(Phase, String)}, for several formulae. They're only joined (separated by "; ")
+     * if the phase is measured.
+     */
+    static Span start(Phase phase, List<String> formulae) {
+        PhaseEvent event = new PhaseEvent();
+        if (!hasListeners && !event.isEnabled()) {
+            return Span.DISABLED;
+        }
+        return new Span(phase, String.join("; ", formulae), event);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = Allocations.THREADS;
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    // Loaded the first time a phase is measured, so java.management isn't initialized otherwise.
+    private static final class Allocations {
+        static final com.sun.management.ThreadMXBean THREADS = threads();
+
+        private static com.sun.management.ThreadMXBean threads() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+            return null;
+        }
+    }
+}
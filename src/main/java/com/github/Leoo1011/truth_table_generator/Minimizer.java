@@ -0,0 +1,778 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Two-level logic minimization: finds a small sum of products (an OR of ANDs of propositions and their negations)
+ * that has the same truth table as a formula, so that it's cheaper to evaluate and easier to read.
+ * <p>
+ * Tables with up to {@link #MAX_EXACT_PROPOSITIONS} propositions are minimized exactly: the prime implicants are
+ * generated with the Quine–McCluskey method, and the smallest cover (in products, then literals) is found by
+ * branch and bound. Larger tables go through an Espresso-style loop instead: every true row is expanded into
+ * a prime implicant, redundant ones are dropped, and the cover is reduced and expanded again while it shrinks.
+ * <p>
+ * Products are kept as a pair of bitmasks over the bits of the row index, and sets of rows as bitmaps in the format
+ * of {@link PackedTruthTable}, so checking whether a product only covers true rows takes a word per 64 rows.
+ */
+public final class Minimizer {
+    /**
+     * The number of propositions up to which {@link #minimize(PackedTruthTable)} uses {@link Method#EXACT}, and
+     * above which {@link Method#EXACT} isn't supported: there can be up to 3^n / n prime implicants.
+     */
+    public static final int MAX_EXACT_PROPOSITIONS = 12;
+
+    // The branch and bound search returns the best cover found so far after this many nodes.
+    private static final int MAX_SEARCH_NODES = 1 << 16;
+    private static final int MAX_HEURISTIC_ITERATIONS = 8;
+
+    public enum Method {
+        EXACT,    // Quine–McCluskey, then a minimum cover
+        HEURISTIC // Espresso-style expand, irredundant and reduce
+    }
+
+    public static final class Result {
+        private final List<String> propositionNames;
+        private final List<Cube> cubes;
+        private final Method method;
+        private final boolean isMinimal;
+        private final Expr ast;
+
+        private Result(List<String> propositionNames, List<Cube> cubes, Method method, boolean isMinimal) {
+            int numProps = propositionNames.size();
+            this.propositionNames = propositionNames;
+            this.cubes = cubes.stream()
+                    .sorted(Comparator.comparing((Cube cube) -> cube.toString(numProps)).reversed())
+                    .toList();
+            this.method = method;
+            this.isMinimal = isMinimal;
+            this.ast = toAst();
+        }
+
+        /**
+         * @return the sum of products, whose propositions are those of the table (some of which may be missing).
+         * A table that's always false (or true) gives a {@link Expr.Constant}.
+         */
+        public Expr getAst() {
+            return ast;
+        }
+
+        public List<String> getPropositionNames() {
+            return propositionNames;
+        }
+
+        /**
+         * @return the products, with a character per proposition: '1' if it's in the product, '0' if its negation
+         * is, and '-' if it isn't.
+         */
+        public List<String> getCubes() {
+            return cubes.stream().map(cube -> cube.toString(propositionNames.size())).toList();
+        }
+
+        public int getCubeCount() {
+            return cubes.size();
+        }
+
+        /**
+         * @return the number of propositions and negations in the products.
+         */
+        public int getLiteralCount() {
+            int count = 0;
+            for (Cube cube : cubes) {
+                count += Long.bitCount(cube.fixed);
+            }
+            return count;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * @return whether no sum of products has fewer products (or as many, but fewer literals).
+         * Only exact minimizations that didn't run out of search nodes are known to be minimal.
+         */
+        public boolean isMinimal() {
+            return isMinimal;
+        }
+
+        /**
+         * @return the sum of products as a formula that the {@link BooleanLogicParser} accepts, such as
+         * "(A & !B) | C". The grammar has no constants, so constant functions are written with their first
+         * proposition: "A & !A" for false, and "A | !A" for true.
+         * @throws IllegalStateException if the function is constant and has no propositions to write it with.
+         */
+        public String toFormula() throws IllegalStateException {
+            boolean isTrue = cubes.stream().anyMatch(cube -> cube.fixed == 0);
+            if (cubes.isEmpty() || isTrue) {
+                if (propositionNames.isEmpty()) {
+                    throw new IllegalStateException("A constant without propositions can't be written as a formula.");
+                }
+                String name = propositionNames.get(0);
+                return name + (isTrue ? " | !" : " & !") + name;
+            }
+            int numProps = propositionNames.size();
+            StringBuilder formula = new StringBuilder();
+            for (Cube cube : cubes) {
+                if (!formula.isEmpty()) {
+                    formula.append(" | ");
+                }
+                int literals = Long.bitCount(cube.fixed);
+                boolean isParenthesized = literals > 1 && cubes.size() > 1;
+                formula.append(isParenthesized ? "(" : "");
+                String separator = "";
+                for (int i = 0; i < numProps; i++) {
+                    long bit = 1L << (numProps - 1 - i);
+                    if ((cube.fixed & bit) != 0) {
+                        formula.append(separator).append((cube.value & bit) != 0 ? "" : "!")
+                                .append(propositionNames.get(i));
+                        separator = " & ";
+                    }
+                }
+                formula.append(isParenthesized ? ")" : "");
+            }
+            return formula.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "Result{ formula = " + toFormula() + ", method = " + method + ", minimal = " + isMinimal + " }";
+        }
+
+        private Expr toAst() {
+            if (cubes.isEmpty()) {
+                return new Expr.Constant(false);
+            }
+            int numProps = propositionNames.size();
+            Expr[] propositions = new Expr[numProps];
+            Expr[] negations = new Expr[numProps];
+            List<Expr> products = new ArrayList<>();
+            for (Cube cube : cubes) {
+                List<Expr> literals = new ArrayList<>();
+                for (int i = 0; i < numProps; i++) {
+                    long bit = 1L << (numProps - 1 - i);
+                    if ((cube.fixed & bit) == 0) {
+                        continue;
+                    }
+                    if (propositions[i] == null) {
+                        propositions[i] = new Expr.Proposition(new PropositionName(propositionNames.get(i)));
+                    }
+                    if ((cube.value & bit) != 0) {
+                        literals.add(propositions[i]);
+                    } else {
+                        if (negations[i] == null) {
+                            negations[i] = new Expr.UnaryOperation(propositions[i]);
+                        }
+                        literals.add(negations[i]);
+                    }
+                }
+                if (literals.isEmpty()) {
+                    return new Expr.Constant(true);
+                }
+                products.add(literals.size() == 1
+                        ? literals.getFirst() : new Expr.NaryOperation(new Connective(TokenType.AND), literals));
+            }
+            return products.size() == 1
+                    ? products.getFirst() : new Expr.NaryOperation(new Connective(TokenType.OR), products);
+        }
+    }
+
+    private Minimizer() {
+    }
+
+    /**
+     * Minimizes the table exactly if it has up to {@link #MAX_EXACT_PROPOSITIONS} propositions,
+     * and heuristically otherwise.
+     */
+    public static Result minimize(final PackedTruthTable table) {
+        return minimize(table,
+                table.getPropositionNames().size() <= MAX_EXACT_PROPOSITIONS ? Method.EXACT : Method.HEURISTIC);
+    }
+
+    /**
+     * @param table the truth table of the formula, such as {@link TruthTable#getResult()}.
+     * @param method the minimization method.
+     * @return a sum of products that's true in the same rows as the table.
+     * @throws IllegalArgumentException if the method is {@link Method#EXACT} and the table has more than
+     * {@link #MAX_EXACT_PROPOSITIONS} propositions.
+     */
+    public static Result minimize(final PackedTruthTable table, Method method) throws IllegalArgumentException {
+        List<String> names = table.getPropositionNames();
+        int numProps = names.size();
+        if (method == Method.EXACT && numProps > MAX_EXACT_PROPOSITIONS) {
+            throw new IllegalArgumentException(
+                    "Exact minimization supports at most " + MAX_EXACT_PROPOSITIONS + " propositions, not " + numProps + ".");
+        }
+        long[] onSet = table.words();
+        long trueCount = table.countTrue();
+        if (trueCount == 0) {
+            return new Result(names, List.of(), method, true);
+        }
+        if (trueCount == table.getRowCount()) {
+            return new Result(names, List.of(new Cube(0, 0)), method, true);
+        }
+        if (method == Method.EXACT) {
+            return new Exact(onSet, numProps).minimize(names);
+        }
+        return new Result(names, new Heuristic(onSet, numProps).minimize(), Method.HEURISTIC, false);
+    }
+
+    /**
+     * A product: the bits of the row index set in {@code fixed} must have the values they have in {@code value}
+     * (the first proposition is the most significant bit). The rest can take any value.
+     */
+    private record Cube(long fixed, long value) {
+        Cube freed(long bit) {
+            return new Cube(fixed & ~bit, value & ~bit);
+        }
+
+        Cube flipped(long bit) {
+            return new Cube(fixed, value ^ bit);
+        }
+
+        Cube intersection(Cube other) {
+            if (((value ^ other.value) & fixed & other.fixed) != 0) {
+                return null;
+            }
+            return new Cube(fixed | other.fixed, value | other.value);
+        }
+
+        String toString(int numProps) {
+            char[] chars = new char[numProps];
+            for (int i = 0; i < numProps; i++) {
+                long bit = 1L << (numProps - 1 - i);
+                chars[i] = (fixed & bit) == 0 ? '-' : (value & bit) != 0 ? '1' : '0';
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * Compares covers by their number of products, and then by their number of literals.
+     */
+    private static boolean isCheaper(int cubes, int literals, int otherCubes, int otherLiterals) {
+        return cubes < otherCubes || cubes == otherCubes && literals < otherLiterals;
+    }
+
+    private static int literalCount(List<Cube> cubes) {
+        int count = 0;
+        for (Cube cube : cubes) {
+            count += Long.bitCount(cube.fixed);
+        }
+        return count;
+    }
+
+    /**
+     * Quine–McCluskey: implicants are merged in pairs that differ in a single bit until none can be merged, and
+     * the ones that were never merged are the prime implicants. Then, the essential ones are taken, and the rest
+     * of the true rows are covered by branch and bound.
+     */
+    private static final class Exact {
+        private final long[] onSet;
+        private final int numProps;
+
+        private int[] minterms; // the true rows
+        private List<Cube> primes;
+        private long[][] coverage; // per prime, the indices of the minterms it covers
+        private int[][] coveringPrimes; // per minterm, the primes that cover it
+
+        private int[] chosen;
+        private int[] best;
+        private int bestCount;
+        private int bestLiterals;
+        private int nodes = 0;
+
+        Exact(long[] onSet, int numProps) {
+            this.onSet = onSet;
+            this.numProps = numProps;
+        }
+
+        Result minimize(List<String> names) {
+            int[] rows = new int[(int) countTrue()];
+            int count = 0;
+            for (int w = 0; w < onSet.length; w++) {
+                for (long word = onSet[w]; word != 0; word &= word - 1) {
+                    rows[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            minterms = rows;
+            primes = primeImplicants();
+            buildChart();
+
+            int mintermWords = (minterms.length + 63) >>> 6;
+            long[] uncovered = new long[mintermWords];
+            for (int m = 0; m < minterms.length; m++) {
+                uncovered[m >>> 6] |= 1L << m;
+            }
+            chosen = new int[primes.size()];
+            int chosenCount = 0;
+            int literals = 0;
+
+            // Essential primes: the only ones that cover some minterm.
+            for (int m = 0; m < minterms.length; m++) {
+                if (coveringPrimes[m].length == 1 && (uncovered[m >>> 6] & 1L << m) != 0) {
+                    int p = coveringPrimes[m][0];
+                    chosen[chosenCount++] = p;
+                    literals += Long.bitCount(primes.get(p).fixed);
+                    andNot(uncovered, coverage[p]);
+                }
+            }
+
+            greedyCover(uncovered.clone(), chosenCount, literals);
+            search(uncovered, chosenCount, literals);
+
+            List<Cube> cover = new ArrayList<>();
+            for (int i = 0; i < bestCount; i++) {
+                cover.add(primes.get(best[i]));
+            }
+            return new Result(names, cover, Method.EXACT, nodes <= MAX_SEARCH_NODES);
+        }
+
+        private long countTrue() {
+            long count = 0;
+            for (long word : onSet) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        private List<Cube> primeImplicants() {
+            long all = (1L << numProps) - 1;
+            // Implicants as fixed << 32 | value.
+            Set<Long> current = new HashSet<>();
+            for (int row : minterms) {
+                current.add(all << 32 | row);
+            }
+            List<Cube> result = new ArrayList<>();
+            while (!current.isEmpty()) {
+                Set<Long> next = new HashSet<>();
+                Set<Long> merged = new HashSet<>();
+                for (long implicant : current) {
+                    long fixed = implicant >>> 32;
+                    long value = implicant & 0xFFFFFFFFL;
+                    for (long bits = fixed & ~value; bits != 0; bits &= bits - 1) {
+                        long bit = bits & -bits;
+                        if (current.contains(implicant | bit)) {
+                            next.add((fixed & ~bit) << 32 | value);
+                            merged.add(implicant);
+                            merged.add(implicant | bit);
+                        }
+                    }
+                }
+                for (long implicant : current) {
+                    if (!merged.contains(implicant)) {
+                        result.add(new Cube(implicant >>> 32, implicant & 0xFFFFFFFFL));
+                    }
+                }
+                current = next;
+            }
+            // Fewer literals first, so that the search tries bigger products first.
+            result.sort(Comparator.comparingInt((Cube cube) -> Long.bitCount(cube.fixed))
+                    .thenComparingLong(Cube::fixed).thenComparingLong(Cube::value));
+            return result;
+        }
+
+        private void buildChart() {
+            int[] indices = new int[1 << numProps];
+            for (int m = 0; m < minterms.length; m++) {
+                indices[minterms[m]] = m;
+            }
+            int mintermWords = (minterms.length + 63) >>> 6;
+            coverage = new long[primes.size()][mintermWords];
+            int[] counts = new int[minterms.length];
+            long all = (1L << numProps) - 1;
+            for (int p = 0; p < primes.size(); p++) {
+                Cube prime = primes.get(p);
+                long free = all & ~prime.fixed;
+                long subset = 0;
+                do {
+                    int m = indices[(int) (prime.value | subset)];
+                    coverage[p][m >>> 6] |= 1L << m;
+                    counts[m]++;
+                    subset = (subset - free) & free;
+                } while (subset != 0);
+            }
+            coveringPrimes = new int[minterms.length][];
+            for (int m = 0; m < minterms.length; m++) {
+                coveringPrimes[m] = new int[counts[m]];
+                counts[m] = 0;
+            }
+            for (int p = 0; p < primes.size(); p++) {
+                for (int w = 0; w < mintermWords; w++) {
+                    for (long word = coverage[p][w]; word != 0; word &= word - 1) {
+                        int m = (w << 6) + Long.numberOfTrailingZeros(word);
+                        coveringPrimes[m][counts[m]++] = p;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Completes the chosen primes with the one that covers the most minterms left, until they're all covered.
+         * The result is the first bound of the search.
+         */
+        private void greedyCover(long[] uncovered, int chosenCount, int literals) {
+            int[] cover = Arrays.copyOf(chosen, primes.size());
+            int count = chosenCount;
+            while (!isEmpty(uncovered)) {
+                int bestPrime = -1;
+                int bestGain = 0;
+                for (int p = 0; p < primes.size(); p++) {
+                    int gain = 0;
+                    for (int w = 0; w < uncovered.length; w++) {
+                        gain += Long.bitCount(coverage[p][w] & uncovered[w]);
+                    }
+                    if (gain > bestGain) {
+                        bestPrime = p;
+                        bestGain = gain;
+                    }
+                }
+                cover[count++] = bestPrime;
+                literals += Long.bitCount(primes.get(bestPrime).fixed);
+                andNot(uncovered, coverage[bestPrime]);
+            }
+            best = cover;
+            bestCount = count;
+            bestLiterals = literals;
+        }
+
+        private void search(long[] uncovered, int chosenCount, int literals) {
+            if (++nodes > MAX_SEARCH_NODES) {
+                return;
+            }
+            if (isEmpty(uncovered)) {
+                if (isCheaper(chosenCount, literals, bestCount, bestLiterals)) {
+                    best = Arrays.copyOf(chosen, chosenCount);
+                    bestCount = chosenCount;
+                    bestLiterals = literals;
+                }
+                return;
+            }
+            if (chosenCount + lowerBound(uncovered) > bestCount) {
+                return;
+            }
+
+            // Branch on the minterm with the fewest primes to choose from.
+            int branchMinterm = -1;
+            for (int w = 0; w < uncovered.length; w++) {
+                for (long word = uncovered[w]; word != 0; word &= word - 1) {
+                    int m = (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (branchMinterm < 0 || coveringPrimes[m].length < coveringPrimes[branchMinterm].length) {
+                        branchMinterm = m;
+                    }
+                }
+            }
+            for (int p : coveringPrimes[branchMinterm]) {
+                long[] left = uncovered.clone();
+                andNot(left, coverage[p]);
+                chosen[chosenCount] = p;
+                search(left, chosenCount + 1, literals + Long.bitCount(primes.get(p).fixed));
+            }
+        }
+
+        /**
+         * @return the size of a set of uncovered minterms no two of which share a prime, as each needs its own.
+         */
+        private int lowerBound(long[] uncovered) {
+            boolean[] used = new boolean[primes.size()];
+            int bound = 0;
+            for (int w = 0; w < uncovered.length; w++) {
+                minterms:
+                for (long word = uncovered[w]; word != 0; word &= word - 1) {
+                    int m = (w << 6) + Long.numberOfTrailingZeros(word);
+                    for (int p : coveringPrimes[m]) {
+                        if (used[p]) {
+                            continue minterms;
+                        }
+                    }
+                    for (int p : coveringPrimes[m]) {
+                        used[p] = true;
+                    }
+                    bound++;
+                }
+            }
+            return bound;
+        }
+
+        private static void andNot(long[] bits, long[] removed) {
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] &= ~removed[w];
+            }
+        }
+
+        private static boolean isEmpty(long[] bits) {
+            for (long word : bits) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * An Espresso-style loop over the table's bitmap, which is used as the on-set (the rows that must be covered)
+     * and, through its complement, the off-set (the rows that mustn't be).
+     */
+    private static final class Heuristic {
+        private final long[] onSet;
+        private final int numProps;
+        private final long highBits; // the bits of the row index that select a word
+        private final long[] lowPatterns; // per low bit of the row index, the positions in a word where it's set
+        private final long[] scratch;
+
+        private interface WordVisitor {
+            /**
+             * @return whether to keep visiting words.
+             */
+            boolean visit(int word, long mask);
+        }
+
+        Heuristic(long[] onSet, int numProps) {
+            this.onSet = onSet;
+            this.numProps = numProps;
+            this.highBits = numProps > 6 ? (1L << (numProps - 6)) - 1 : 0;
+            this.lowPatterns = new long[Math.min(numProps, 6)];
+            for (int j = 0; j < lowPatterns.length; j++) {
+                lowPatterns[j] = BitSlicedEvaluator.propositionWord(j, 0);
+            }
+            this.scratch = new long[onSet.length];
+        }
+
+        List<Cube> minimize() {
+            // Expand every row that isn't covered yet into a prime implicant.
+            long[] covered = new long[onSet.length];
+            long all = (1L << numProps) - 1;
+            List<Cube> cover = new ArrayList<>();
+            for (int w = 0; w < onSet.length; w++) {
+                for (long left = onSet[w] & ~covered[w]; left != 0; left = onSet[w] & ~covered[w]) {
+                    long row = ((long) w << 6) + Long.numberOfTrailingZeros(left);
+                    Cube prime = expand(new Cube(all, row), 0);
+                    cover.add(prime);
+                    forEachWord(prime, (word, mask) -> {
+                        covered[word] |= mask;
+                        return true;
+                    });
+                }
+            }
+            cover = irredundant(cover);
+
+            for (int iteration = 1; iteration <= MAX_HEURISTIC_ITERATIONS; iteration++) {
+                List<Cube> expanded = new ArrayList<>();
+                for (Cube cube : reduce(cover)) {
+                    expanded.add(expand(cube, iteration));
+                }
+                List<Cube> candidate = irredundant(expanded);
+                if (!isCheaper(candidate.size(), literalCount(candidate), cover.size(), literalCount(cover))) {
+                    break;
+                }
+                cover = candidate;
+            }
+            return cover;
+        }
+
+        /**
+         * Frees the fixed bits of the cube one at a time, as long as it only covers true rows. A bit that can't be
+         * freed can't be freed later either (the cube only grows), so the result is a prime implicant.
+         * @param offset the bit to start with, so that different iterations reach different primes.
+         */
+        private Cube expand(Cube cube, int offset) {
+            for (int k = 0; k < numProps; k++) {
+                long bit = 1L << ((k + offset) % numProps);
+                if ((cube.fixed & bit) != 0 && isTrue(cube.flipped(bit))) {
+                    cube = cube.freed(bit);
+                }
+            }
+            return cube;
+        }
+
+        /**
+         * Shrinks every cube to the smallest one that covers the rows that no other cube covers, in order
+         * (so later cubes see the reduced earlier ones), and drops the cubes that have none.
+         */
+        private List<Cube> reduce(List<Cube> cover) {
+            List<Cube> cubes = new ArrayList<>(cover);
+            List<Cube> reduced = new ArrayList<>();
+            for (int i = 0; i < cubes.size(); i++) {
+                Cube cube = cubes.get(i);
+                coverOthers(cubes, i);
+                long[] and = {-1};
+                long[] or = {0};
+                boolean[] hasUniqueRows = {false};
+                forEachWord(cube, (word, mask) -> {
+                    long unique = mask & ~scratch[word];
+                    if (unique != 0) {
+                        hasUniqueRows[0] = true;
+                        long high = (long) word << 6;
+                        and[0] &= high | lowBitsOfAll(unique);
+                        or[0] |= high | lowBitsOfAny(unique);
+                    }
+                    return true;
+                });
+                forEachWord(cube, (word, mask) -> {
+                    scratch[word] = 0;
+                    return true;
+                });
+                if (!hasUniqueRows[0]) {
+                    cubes.set(i, null);
+                    continue;
+                }
+                // The bits that are the same in every unique row.
+                long all = (1L << numProps) - 1;
+                long fixed = ~(and[0] ^ or[0]) & all;
+                Cube shrunk = new Cube(fixed, and[0] & fixed);
+                cubes.set(i, shrunk);
+                reduced.add(shrunk);
+            }
+            return reduced;
+        }
+
+        /**
+         * Keeps the cubes that cover a row no other cube covers, and then greedily the ones that cover the most rows
+         * that aren't covered yet.
+         */
+        private List<Cube> irredundant(List<Cube> cubes) {
+            List<Cube> result = new ArrayList<>();
+            List<Cube> candidates = new ArrayList<>();
+            long[] covered = new long[onSet.length];
+            for (int i = 0; i < cubes.size(); i++) {
+                Cube cube = cubes.get(i);
+                coverOthers(cubes, i);
+                boolean[] isEssential = {false};
+                forEachWord(cube, (word, mask) -> {
+                    isEssential[0] = (mask & ~scratch[word]) != 0;
+                    return !isEssential[0];
+                });
+                forEachWord(cube, (word, mask) -> {
+                    scratch[word] = 0;
+                    return true;
+                });
+                if (isEssential[0]) {
+                    result.add(cube);
+                    forEachWord(cube, (word, mask) -> {
+                        covered[word] |= mask;
+                        return true;
+                    });
+                } else {
+                    candidates.add(cube);
+                }
+            }
+
+            // Lazy greedy: gains only decrease, so a cube whose updated gain is still the best can be taken.
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+            for (int i = 0; i < candidates.size(); i++) {
+                queue.add(new long[]{Long.MAX_VALUE, i});
+            }
+            while (!queue.isEmpty()) {
+                long[] entry = queue.poll();
+                Cube cube = candidates.get((int) entry[1]);
+                long gain = uncoveredCount(cube, covered);
+                if (gain == 0) {
+                    continue;
+                }
+                if (!queue.isEmpty() && gain < queue.peek()[0]) {
+                    entry[0] = gain;
+                    queue.add(entry);
+                    continue;
+                }
+                result.add(cube);
+                forEachWord(cube, (word, mask) -> {
+                    covered[word] |= mask;
+                    return true;
+                });
+            }
+            return result;
+        }
+
+        /**
+         * Sets, in the scratch bitmap, the rows of the cube at the index that other cubes cover.
+         */
+        private void coverOthers(List<Cube> cubes, int index) {
+            Cube cube = cubes.get(index);
+            for (int j = 0; j < cubes.size(); j++) {
+                Cube other = cubes.get(j);
+                Cube intersection = j == index || other == null ? null : cube.intersection(other);
+                if (intersection != null) {
+                    forEachWord(intersection, (word, mask) -> {
+                        scratch[word] |= mask;
+                        return true;
+                    });
+                }
+            }
+        }
+
+        private long uncoveredCount(Cube cube, long[] covered) {
+            long[] count = {0};
+            forEachWord(cube, (word, mask) -> {
+                count[0] += Long.bitCount(mask & ~covered[word]);
+                return true;
+            });
+            return count[0];
+        }
+
+        /**
+         * @return whether every row of the cube is true.
+         */
+        private boolean isTrue(Cube cube) {
+            boolean[] isTrue = {true};
+            forEachWord(cube, (word, mask) -> {
+                isTrue[0] = (onSet[word] & mask) == mask;
+                return isTrue[0];
+            });
+            return isTrue[0];
+        }
+
+        /**
+         * Visits the words that hold rows of the cube, with the mask of those rows in each of them.
+         */
+        private void forEachWord(Cube cube, WordVisitor visitor) {
+            long mask = BitSlicedEvaluator.validRowsMask(numProps);
+            for (int j = 0; j < lowPatterns.length; j++) {
+                long bit = 1L << j;
+                if ((cube.fixed & bit) != 0) {
+                    mask &= (cube.value & bit) != 0 ? lowPatterns[j] : ~lowPatterns[j];
+                }
+            }
+            long free = highBits & ~(cube.fixed >>> 6);
+            long base = cube.value >>> 6;
+            long subset = 0;
+            do {
+                if (!visitor.visit((int) (base | subset), mask)) {
+                    return;
+                }
+                subset = (subset - free) & free;
+            } while (subset != 0);
+        }
+
+        /**
+         * @return the low 6 bits that are set in the index of every row in the word's mask (which isn't empty).
+         */
+        private long lowBitsOfAll(long rows) {
+            long bits = 0;
+            for (int j = 0; j < lowPatterns.length; j++) {
+                if ((rows & ~lowPatterns[j]) == 0) {
+                    bits |= 1L << j;
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * @return the low 6 bits that are set in the index of some row in the word's mask.
+         */
+        private long lowBitsOfAny(long rows) {
+            long bits = 0;
+            for (int j = 0; j < lowPatterns.length; j++) {
+                if ((rows & lowPatterns[j]) != 0) {
+                    bits |= 1L << j;
+                }
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Exact model counting (#SAT): the number of rows of a truth table in which the formula is true, without
+ * enumerating them, so it works with far more propositions than a table (or a long) could hold.
+ * <p>
+ * The counter branches on the propositions of a {@link Cnf} and propagates units like a DPLL solver, but after
+ * every branch it splits the clauses that are left into components that share no unassigned variable. Those are
+ * counted independently and multiplied, and their counts are cached by the component's variables and clauses,
+ * which identify the sub-formula regardless of how it was reached.
+ * The Tseitin variables are fully determined by the propositions, so the models of the CNF are exactly
+ * the rows of the table in which the formula is true.
+ * <p>
+ * The recursion is as deep as the number of propositions, and the cache is kept until the counter is dropped.
+ * Instances aren't thread-safe.
+ */
+public final class ModelCounter {
+    private static final byte UNASSIGNED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+
+    private final Cnf cnf;
+    private final int[][] clauses;
+    private final int[][] occurrences; // per variable, the clauses it appears in
+    private final byte[] values; // per variable: variables start at 1, as in DIMACS
+    private final int[] trail;
+    private int trailSize = 0;
+    private int propagated = 0;
+
+    // Scratch space of component splitting: entries are only valid if their stamp is the current one.
+    private final int[] parents;
+    private final int[] groups;
+    private final int[] stamps;
+    private int stamp = 0;
+
+    private final Map<ComponentKey, BigInteger> cache = new HashMap<>();
+    private BigInteger count = null;
+    private long decisions = 0;
+    private long cacheHits = 0;
+
+    public ModelCounter(final Cnf cnf) {
+        this.cnf = Objects.requireNonNull(cnf);
+        int numVars = cnf.getVariableCount();
+        this.clauses = cnf.clauses().toArray(new int[0][]);
+        int[] occurrenceCounts = new int[numVars + 1];
+        for (int[] clause : clauses) {
+            for (int literal : clause) {
+                occurrenceCounts[Math.abs(literal)]++;
+            }
+        }
+        this.occurrences = new int[numVars + 1][];
+        for (int v = 0; v <= numVars; v++) {
+            occurrences[v] = new int[occurrenceCounts[v]];
+            occurrenceCounts[v] = 0;
+        }
+        for (int c = 0; c < clauses.length; c++) {
+            for (int literal : clauses[c]) {
+                int variable = Math.abs(literal);
+                occurrences[variable][occurrenceCounts[variable]++] = c;
+            }
+        }
+        this.values = new byte[numVars + 1];
+        this.trail = new int[numVars];
+        this.parents = new int[numVars + 1];
+        this.groups = new int[numVars + 1];
+        this.stamps = new int[numVars + 1];
+    }
+
+    public ModelCounter(final CompiledFormula formula) {
+        this(Cnf.encode(formula));
+    }
+
+    /**
+     * @return the number of rows of the formula's truth table in which it's true.
+     */
+    public static BigInteger countTrue(final CompiledFormula formula) {
+        return new ModelCounter(formula).count();
+    }
+
+    public Cnf getCnf() {
+        return cnf;
+    }
+
+    /**
+     * Counts the models the first time it's called, and returns the same count afterwards.
+     * @return the number of assignments of the propositions that satisfy the formula.
+     */
+    public BigInteger count() {
+        if (count == null) {
+            count = countAll();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of branches taken so far.
+     */
+    public long getDecisionCount() {
+        return decisions;
+    }
+
+    /**
+     * @return the number of components whose count was found in the cache.
+     */
+    public long getCacheHitCount() {
+        return cacheHits;
+    }
+
+    /**
+     * @return the number of components in the cache.
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    private BigInteger countAll() {
+        for (int[] clause : clauses) {
+            if (clause.length == 0) {
+                return BigInteger.ZERO;
+            }
+            if (clause.length == 1 && !assign(clause[0])) {
+                return BigInteger.ZERO;
+            }
+        }
+        if (!propagate()) {
+            return BigInteger.ZERO;
+        }
+        int[] allClauses = new int[clauses.length];
+        Arrays.setAll(allClauses, c -> c);
+        int[] allVariables = new int[cnf.getVariableCount()];
+        Arrays.setAll(allVariables, v -> v + 1);
+        return countRemaining(allClauses, allVariables);
+    }
+
+    /**
+     * Splits the clauses that aren't satisfied yet into components, and multiplies their counts.
+     * @param clauseIds the clauses that may be left, in increasing order.
+     * @param variables the variables that may be left, in increasing order. Those that are unassigned but in no
+     *                  clause that's left can take either value.
+     */
+    private BigInteger countRemaining(final int[] clauseIds, final int[] variables) {
+        stamp++;
+        int liveCount = 0;
+        int[] live = new int[clauseIds.length];
+        for (int c : clauseIds) {
+            int[] clause = clauses[c];
+            if (isSatisfied(clause)) {
+                continue;
+            }
+            live[liveCount++] = c;
+            int first = 0;
+            for (int literal : clause) {
+                int variable = Math.abs(literal);
+                if (values[variable] != UNASSIGNED) {
+                    continue;
+                }
+                if (stamps[variable] != stamp) {
+                    stamps[variable] = stamp;
+                    parents[variable] = variable;
+                    groups[variable] = -1;
+                }
+                if (first == 0) {
+                    first = variable;
+                } else {
+                    union(first, variable);
+                }
+            }
+        }
+
+        // Number the components, and count their variables and clauses.
+        int componentCount = 0;
+        int freeCount = 0;
+        int[] variableCounts = new int[4];
+        int[] clauseCounts = new int[4];
+        for (int variable : variables) {
+            if (values[variable] != UNASSIGNED) {
+                continue;
+            }
+            if (stamps[variable] != stamp) {
+                freeCount++;
+                continue;
+            }
+            int root = find(variable);
+            if (groups[root] < 0) {
+                if (componentCount == variableCounts.length) {
+                    variableCounts = Arrays.copyOf(variableCounts, componentCount * 2);
+                    clauseCounts = Arrays.copyOf(clauseCounts, componentCount * 2);
+                }
+                groups[root] = componentCount++;
+            }
+            variableCounts[groups[root]]++;
+        }
+        int[] groupOfClause = new int[liveCount];
+        for (int i = 0; i < liveCount; i++) {
+            for (int literal : clauses[live[i]]) {
+                if (values[Math.abs(literal)] == UNASSIGNED) {
+                    groupOfClause[i] = groups[find(Math.abs(literal))];
+                    break;
+                }
+            }
+            clauseCounts[groupOfClause[i]]++;
+        }
+
+        int[][] componentVariables = new int[componentCount][];
+        int[][] componentClauses = new int[componentCount][];
+        for (int g = 0; g < componentCount; g++) {
+            componentVariables[g] = new int[variableCounts[g]];
+            componentClauses[g] = new int[clauseCounts[g]];
+            variableCounts[g] = 0;
+            clauseCounts[g] = 0;
+        }
+        for (int variable : variables) {
+            if (values[variable] == UNASSIGNED && stamps[variable] == stamp) {
+                int g = groups[find(variable)];
+                componentVariables[g][variableCounts[g]++] = variable;
+            }
+        }
+        for (int i = 0; i < liveCount; i++) {
+            int g = groupOfClause[i];
+            componentClauses[g][clauseCounts[g]++] = live[i];
+        }
+
+        // The scratch arrays are reused by the recursive calls, so they're done with before counting.
+        BigInteger result = BigInteger.ONE.shiftLeft(freeCount);
+        for (int g = 0; g < componentCount; g++) {
+            BigInteger factor = countComponent(componentVariables[g], componentClauses[g]);
+            if (factor.signum() == 0) {
+                return BigInteger.ZERO;
+            }
+            result = result.multiply(factor);
+        }
+        return result;
+    }
+
+    private BigInteger countComponent(final int[] variables, final int[] clauseIds) {
+        ComponentKey key = new ComponentKey(variables, clauseIds);
+        BigInteger cached = cache.get(key);
+        if (cached != null) {
+            cacheHits++;
+            return cached;
+        }
+
+        int variable = pickBranchVariable(variables);
+        BigInteger result = BigInteger.ZERO;
+        for (int literal : new int[]{variable, -variable}) {
+            decisions++;
+            int mark = trailSize;
+            if (assign(literal) && propagate()) {
+                result = result.add(countRemaining(clauseIds, variables));
+            }
+            undo(mark);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * @return the proposition that appears in the most clauses, or the first variable if there's none
+     * (which doesn't happen with Tseitin's encoding, as propositions determine the rest).
+     */
+    private int pickBranchVariable(final int[] variables) {
+        int best = variables[0];
+        int bestOccurrences = -1;
+        for (int variable : variables) {
+            if (variable > cnf.getPropositionCount()) {
+                break;
+            }
+            if (occurrences[variable].length > bestOccurrences) {
+                best = variable;
+                bestOccurrences = occurrences[variable].length;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return false if the literal is already false.
+     */
+    private boolean assign(int literal) {
+        int variable = Math.abs(literal);
+        byte value = literal > 0 ? TRUE : FALSE;
+        if (values[variable] != UNASSIGNED) {
+            return values[variable] == value;
+        }
+        values[variable] = value;
+        trail[trailSize++] = variable;
+        return true;
+    }
+
+    /**
+     * Assigns the last literal of every clause whose other literals are false.
+     * @return false if a clause has all its literals false.
+     */
+    private boolean propagate() {
+        while (propagated < trailSize) {
+            int variable = trail[propagated++];
+            for (int c : occurrences[variable]) {
+                int[] clause = clauses[c];
+                int unassigned = 0;
+                int last = 0;
+                boolean isSatisfied = false;
+                for (int literal : clause) {
+                    byte value = value(literal);
+                    if (value == TRUE) {
+                        isSatisfied = true;
+                        break;
+                    }
+                    if (value == UNASSIGNED) {
+                        unassigned++;
+                        last = literal;
+                    }
+                }
+                if (isSatisfied || unassigned > 1) {
+                    continue;
+                }
+                if (unassigned == 0) {
+                    propagated = trailSize;
+                    return false;
+                }
+                assign(last);
+            }
+        }
+        return true;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            values[trail[--trailSize]] = UNASSIGNED;
+        }
+        propagated = mark;
+    }
+
+    private byte value(int literal) {
+        byte value = values[Math.abs(literal)];
+        return literal > 0 ? value : (byte) -value;
+    }
+
+    private boolean isSatisfied(final int[] clause) {
+        for (int literal : clause) {
+            if (value(literal) == TRUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int find(int variable) {
+        while (parents[variable] != variable) {
+            parents[variable] = parents[parents[variable]];
+            variable = parents[variable];
+        }
+        return variable;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parents[rootB] = rootA;
+        }
+    }
+
+    /**
+     * A component is identified by its unassigned variables and its unsatisfied clauses: the literals of those
+     * clauses that aren't in the component are all false, so the sub-formula is the same however it's reached.
+     */
+    private static final class ComponentKey {
+        private final int[] ids;
+        private final int hash;
+
+        ComponentKey(final int[] variables, final int[] clauseIds) {
+            ids = new int[variables.length + clauseIds.length + 1];
+            ids[0] = variables.length;
+            System.arraycopy(variables, 0, ids, 1, variables.length);
+            System.arraycopy(clauseIds, 0, ids, variables.length + 1, clauseIds.length);
+            hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ComponentKey other && hash == other.hash && Arrays.equals(ids, other.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
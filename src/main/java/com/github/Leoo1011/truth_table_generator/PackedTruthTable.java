@@ -0,0 +1,150 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.LongStream;
+
+/**
+ * Compact truth table: only the formula's column is stored, as a bitmap with one bit per row
+ * (in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}).
+ * The propositions' columns are derived from the row index, and the strings representing truth values
+ * are only used when the table is rendered.
+ */
+public final class PackedTruthTable {
+    private final String formula;
+    private final List<String> propositionNames;
+    private final long[] values;
+    private final String truth;
+    private final String falsity;
+
+    /**
+     * @param formula the formula of the table.
+     * @param propositionNames the propositions in the formula, in order of appearance.
+     * @param values the result column, as returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
+     *               It's not copied, so it shouldn't be modified afterwards.
+     * @param truth the string used to represent true values.
+     * @param falsity the string used to represent false values.
+     *
+     * @throws IllegalArgumentException if the number of words doesn't match the number of propositions.
+     */
+    PackedTruthTable(String formula, List<String> propositionNames, long[] values, String truth, String falsity)
+            throws IllegalArgumentException {
+        this.formula = Objects.requireNonNull(formula);
+        this.propositionNames = List.copyOf(propositionNames);
+        this.values = Objects.requireNonNull(values);
+        this.truth = truth;
+        this.falsity = falsity;
+        if (values.length != BitSlicedEvaluator.wordCount(propositionNames.size())) {
+            throw new IllegalArgumentException("The number of words doesn't match the number of propositions.");
+        }
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the names of the propositions, in order of appearance. The first one is the most significant
+     * bit of the row index.
+     */
+    public List<String> getPropositionNames() {
+        return propositionNames;
+    }
+
+    /**
+     * @return the number of rows, not counting the headers: 2 to the number of propositions.
+     */
+    public long getRowCount() {
+        return 1L << propositionNames.size();
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @return the value of the formula in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row doesn't exist.
+     */
+    public boolean valueAt(long row) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        return (values[(int) (row >>> 6)] & (1L << row)) != 0;
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @param proposition the index of the proposition, in order of appearance.
+     * @return the value of the proposition in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row or the proposition don't exist.
+     */
+    public boolean inputAt(long row, int proposition) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        int numProps = propositionNames.size();
+        Objects.checkIndex(proposition, numProps);
+        return ((row >>> (numProps - 1 - proposition)) & 1) != 0;
+    }
+
+    /**
+     * @return the number of rows in which the formula is true.
+     */
+    public long countTrue() {
+        long count = 0;
+        for (long word : values) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @param value the value of the formula to look for.
+     * @return the indices of the rows in which the formula has the given value, in increasing order.
+     */
+    public LongStream rowsWhere(boolean value) {
+        long rowCount = getRowCount();
+        return LongStream.range(0, values.length).flatMap(w -> {
+            long word = value ? values[(int) w] : ~values[(int) w];
+            if (rowCount < 64) {
+                word &= BitSlicedEvaluator.validRowsMask(propositionNames.size());
+            }
+            long[] rows = new long[Long.bitCount(word)];
+            for (int i = 0; word != 0; i++, word &= word - 1) {
+                rows[i] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            return LongStream.of(rows);
+        });
+    }
+
+    /**
+     * @return the bitmap of the formula's column. Not copied, so it shouldn't be modified.
+     */
+    long[] words() {
+        return values;
+    }
+
+    /**
+     * @param value a truth value.
+     * @return the string representing it in this table.
+     */
+    public String render(boolean value) {
+        return value ? truth : falsity;
+    }
+
+    /**
+     * Renders the table, in the same format as {@link TruthTable#printTable()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (String name : propositionNames) {
+            result.append(name).append(' ');
+        }
+        result.append(formula).append(" \n");
+        int numProps = propositionNames.size();
+        for (long row = 0; row < getRowCount(); row++) {
+            for (int i = 0; i < numProps; i++) {
+                result.append(render(inputAt(row, i))).append(' ');
+            }
+            result.append(render(valueAt(row))).append(" \n");
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,225 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Parallel version of the {@link BitSlicedEvaluator}: the words of the result column are split into chunks,
+ * which are evaluated concurrently on a {@link ForkJoinPool} or any other {@link Executor}.
+ * <p>
+ * Chunks are whole multiples of a 64-byte cache line (8 words) and hold several lines each,
+ * so two tasks only ever write to neighbouring words at the boundary between their chunks.
+ */
+public class ParallelEvaluator {
+    private ParallelEvaluator() {
+    }
+
+    static final int WORDS_PER_CACHE_LINE = 8;
+
+    /**
+     * Each worker gets about this many chunks, so that faster workers can steal from slower ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Action run once per chunk, on the range of words [fromWord, toWord).
+     */
+    @FunctionalInterface
+    interface ChunkAction {
+        void run(int fromWord, int toWord);
+    }
+
+    /**
+     * Statistics of a parallel evaluation, to see how well it scales.
+     */
+    public static class Report {
+        private final long[] values;
+        private final int numProps;
+        private final int chunks;
+        private final int threads;
+        private final long elapsedNanos;
+        private final long busyNanos;
+
+        Report(long[] values, int numProps, int chunks, int threads, long elapsedNanos, long busyNanos) {
+            this.values = values;
+            this.numProps = numProps;
+            this.chunks = chunks;
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.busyNanos = busyNanos;
+        }
+
+        /**
+         * @return the result column, in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
+         */
+        public long[] getValues() {
+            return values;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        /**
+         * @return the number of distinct threads that evaluated at least one chunk.
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return the time spent evaluating chunks, summed over all threads.
+         */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        /**
+         * @return busy time divided by elapsed time: how many threads were working, on average.
+         * Close to {@link #getThreads()} when the evaluation scales well.
+         */
+        public double getEffectiveParallelism() {
+            return elapsedNanos == 0 ? 0 : (double) busyNanos / elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (1L << numProps) * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows in %d chunks on %d threads: %.3f ms, %.0f rows/s, effective parallelism %.2f",
+                    1L << numProps, chunks, threads, elapsedNanos / 1e6, getRowsPerSecond(), getEffectiveParallelism());
+        }
+    }
+
+    /**
+     * Evaluates the program for every row of its truth table, on the given executor.
+     *
+     * @param program the formula, as compiled by the {@link FormulaCompiler}.
+     * @param executor where chunks are evaluated, such as {@link ForkJoinPool#commonPool()}.
+     * @return the result column and statistics about the evaluation.
+     */
+    public static Report evaluate(final EvaluationProgram program, final Executor executor) {
+        return evaluate(program::newEvaluator, program.getNumSlots(), executor, defaultChunkWords(
+                BitSlicedEvaluator.wordCount(program.getNumSlots()), executor));
+    }
+
+    /**
+     * Evaluates a formula for every row of its truth table, on the given executor.
+     *
+     * @param evaluators supplies the evaluator of each chunk. It's called once per chunk, so evaluators
+     *                   that aren't thread-safe, like {@link EvaluationProgram#newEvaluator()}, can be used.
+     * @param numProps the number of propositions the evaluators read.
+     * @param executor where chunks are evaluated, such as {@link ForkJoinPool#commonPool()}.
+     * @param chunkWords the number of words per chunk, rounded up to a multiple of a cache line.
+     * @return the result column and statistics about the evaluation.
+     */
+    public static Report evaluate(final Supplier<WordEvaluator> evaluators, int numProps,
+                                  final Executor executor, int chunkWords) {
+        Objects.requireNonNull(evaluators);
+        long[] result = new long[BitSlicedEvaluator.wordCount(numProps)];
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        LongAdder busyNanos = new LongAdder();
+
+        long start = System.nanoTime();
+        int chunks = forEachChunk(result.length, chunkWords, executor, (fromWord, toWord) -> {
+            long chunkStart = System.nanoTime();
+            threads.add(Thread.currentThread());
+            WordEvaluator evaluator = evaluators.get();
+            long[] propWords = new long[numProps];
+            for (int w = fromWord; w < toWord; w++) {
+                for (int i = 0; i < numProps; i++) {
+                    propWords[i] = BitSlicedEvaluator.propositionWord(numProps - 1 - i, w);
+                }
+                result[w] = evaluator.evaluate(propWords);
+            }
+            busyNanos.add(System.nanoTime() - chunkStart);
+        });
+        long elapsed = System.nanoTime() - start;
+
+        result[result.length - 1] &= BitSlicedEvaluator.validRowsMask(numProps);
+        return new Report(result, numProps, chunks, threads.size(), elapsed, busyNanos.sum());
+    }
+
+    /**
+     * Chooses a chunk size that gives every thread of the executor a few chunks.
+     */
+    static int defaultChunkWords(int words, final Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return Math.max(WORDS_PER_CACHE_LINE, words / (parallelism * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Splits [0, words) into chunks and runs the action on each, waiting for all of them to finish.
+     *
+     * @return the number of chunks.
+     */
+    static int forEachChunk(int words, int chunkWords, final Executor executor, final ChunkAction action) {
+        Objects.requireNonNull(executor);
+        int roundedChunkWords = Math.max(WORDS_PER_CACHE_LINE,
+                (chunkWords + WORDS_PER_CACHE_LINE - 1) / WORDS_PER_CACHE_LINE * WORDS_PER_CACHE_LINE);
+        int chunks = (words + roundedChunkWords - 1) / roundedChunkWords;
+
+        if (chunks == 1) {
+            action.run(0, words);
+        } else if (executor instanceof ForkJoinPool pool) {
+            pool.invoke(new ChunkTask(0, chunks, roundedChunkWords, words, action));
+        } else {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+            for (int c = 0; c < chunks; c++) {
+                int fromWord = c * roundedChunkWords;
+                int toWord = Math.min(words, fromWord + roundedChunkWords);
+                futures[c] = CompletableFuture.runAsync(() -> action.run(fromWord, toWord), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits a range of chunks in halves until a single chunk is left.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromChunk;
+        private final int toChunk;
+        private final int chunkWords;
+        private final int words;
+        // Tasks only live for the duration of a run, and are never serialized.
+        private final transient ChunkAction action;
+
+        ChunkTask(int fromChunk, int toChunk, int chunkWords, int words, ChunkAction action) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.chunkWords = chunkWords;
+            this.words = words;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                action.run(fromChunk * chunkWords, Math.min(words, toChunk * chunkWords));
+                return;
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunkTask(fromChunk, middle, chunkWords, words, action),
+                    new ChunkTask(middle, toChunk, chunkWords, words, action));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JDK Flight Recorder event of a {@link Metrics.Phase}, committed on the thread that ran the phase.
+ * Enable it with {@code -XX:StartFlightRecording} (it's enabled by default) or a {@link jdk.jfr.Recording}.
+ */
+@Name(PhaseEvent.NAME)
+@Label("Truth Table Phase")
+@Category("Truth Table Generator")
+@Description("A phase of the generation of a truth table: lexing, parsing, evaluation, output...")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    static final String NAME = "com.github.Leoo1011.truth_table_generator.Phase";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Formula")
+    @Description("The formula, truncated to its first 256 characters.")
+    String formula;
+
+    @Label("Rows")
+    @Description("The number of rows the phase went through, or -1 if it doesn't work on rows.")
+    long rows;
+
+    @Label("AST Nodes")
+    @Description("The number of distinct nodes in the ast, or -1 if it isn't known to the phase.")
+    int nodeCount;
+
+    @Label("Allocated")
+    @Description("The bytes allocated by the thread during the phase, or -1 if the JVM doesn't measure them.")
+    @DataAmount
+    long allocatedBytes;
+}
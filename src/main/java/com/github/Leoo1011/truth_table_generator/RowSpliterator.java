@@ -0,0 +1,124 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lazily computes the rows of a truth table, 64 at a time: when it reaches a new word of the result column,
+ * it evaluates the formula for that word only. A single {@link TruthTableRow} is reused for every row.
+ * <p>
+ * Row indices are unsigned, so tables with up to 63 propositions (2^63 rows) can be traversed.
+ * Splits always happen at word boundaries.
+ */
+class RowSpliterator implements Spliterator<TruthTableRow> {
+    /**
+     * Ranges smaller than this aren't split any further.
+     */
+    private static final long MIN_SPLIT_ROWS = 1 << 12;
+
+    static final int MAX_PROPOSITIONS = 63;
+
+    private final Supplier<WordEvaluator> evaluators;
+    private final int numProps;
+    private long from;
+    private final long to;
+
+    private WordEvaluator evaluator;
+    private long[] propWords;
+    private TruthTableRow row;
+    private long cachedWordIndex = -1;
+    private long cachedWord;
+
+    /**
+     * @param evaluators supplies one evaluator per spliterator, so splits can run on different threads.
+     * @param numProps the number of propositions the evaluators read.
+     * @param from the first row (inclusive).
+     * @param to the last row (exclusive, unsigned).
+     */
+    RowSpliterator(Supplier<WordEvaluator> evaluators, int numProps, long from, long to)
+            throws IllegalArgumentException {
+        if (numProps > MAX_PROPOSITIONS) {
+            throw new IllegalArgumentException(
+                    "Too many propositions: " + numProps + " (at most " + MAX_PROPOSITIONS + " are supported).");
+        }
+        this.evaluators = Objects.requireNonNull(evaluators);
+        this.numProps = numProps;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return a spliterator over every row of a table with the given number of propositions.
+     */
+    static RowSpliterator allRows(Supplier<WordEvaluator> evaluators, int numProps) {
+        return new RowSpliterator(evaluators, numProps, 0, 1L << numProps);
+    }
+
+    private boolean evaluate(long index) {
+        long wordIndex = index >>> 6;
+        if (wordIndex != cachedWordIndex) {
+            if (evaluator == null) {
+                evaluator = evaluators.get();
+                propWords = new long[numProps];
+                row = new TruthTableRow(numProps);
+            }
+            for (int i = 0; i < numProps; i++) {
+                propWords[i] = BitSlicedEvaluator.propositionWord(numProps - 1 - i, wordIndex);
+            }
+            cachedWord = evaluator.evaluate(propWords);
+            cachedWordIndex = wordIndex;
+        }
+        return (cachedWord & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super TruthTableRow> action) {
+        if (Long.compareUnsigned(from, to) >= 0) {
+            return false;
+        }
+        boolean value = evaluate(from);
+        row.set(from, value);
+        from++;
+        action.accept(row);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super TruthTableRow> action) {
+        while (Long.compareUnsigned(from, to) < 0) {
+            boolean value = evaluate(from);
+            row.set(from, value);
+            from++;
+            action.accept(row);
+        }
+    }
+
+    @Override
+    public Spliterator<TruthTableRow> trySplit() {
+        long remaining = to - from; // unsigned
+        if (Long.compareUnsigned(remaining, MIN_SPLIT_ROWS) < 0) {
+            return null;
+        }
+        long middle = (from + (remaining >>> 1)) & ~63L;
+        if (Long.compareUnsigned(middle, from) <= 0) {
+            return null;
+        }
+        RowSpliterator prefix = new RowSpliterator(evaluators, numProps, from, middle);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long remaining = to - from;
+        return remaining < 0 ? Long.MAX_VALUE : remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL | IMMUTABLE;
+        return numProps < MAX_PROPOSITIONS ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+}
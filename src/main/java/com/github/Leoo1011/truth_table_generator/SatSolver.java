@@ -0,0 +1,607 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Arrays;
+
+/**
+ * A conflict-driven clause learning (CDCL) SAT solver, in the style of MiniSat: two watched literals per clause,
+ * first-UIP learning with clause minimization, VSIDS branching with phase saving, Luby restarts and
+ * periodic deletion of the least active learnt clauses.
+ * <p>
+ * Clauses are given with DIMACS literals (see {@link Cnf}), and can be added between calls to {@link #solve()},
+ * e.g. to block the last model. Internally, variable v (0-based) is the literal 2v, and its negation is 2v + 1.
+ */
+final class SatSolver {
+    private static final int RESTART_BASE = 100;
+    private static final double VAR_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+    private static final double RESCALE_LIMIT = 1e100;
+
+    private static final byte UNASSIGNED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+
+    // Per variable
+    private int numVars = 0;
+    private byte[] values = new byte[16];
+    private int[] levels = new int[16];
+    private int[] reasons = new int[16]; // the clause that implied the value, or -1 for decisions
+    private boolean[] isNegativePhase = new boolean[16];
+    private boolean[] seen = new boolean[16];
+    private double[] activities = new double[16];
+    private int[] heap = new int[16]; // max-heap of variables by activity
+    private int[] heapIndices = new int[16]; // -1 if the variable isn't in the heap
+    private int heapSize = 0;
+
+    // Per literal: the clauses in which the literal is one of the first two
+    private IntList[] watches = new IntList[32];
+
+    // Clauses of at least 2 literals; deleted ones are null, and their indices are reused
+    private int[][] clauses = new int[16][];
+    private boolean[] isLearnt = new boolean[16];
+    private double[] clauseActivities = new double[16];
+    private int clauseCount = 0;
+    private int originalClauseCount = 0;
+    private int learntCount = 0;
+    private final IntList freeClauses = new IntList();
+
+    private int[] trail = new int[16];
+    private int trailSize = 0;
+    private int propagated = 0;
+    private final IntList levelStarts = new IntList();
+
+    private boolean isUnsatisfiable = false;
+    private double varIncrement = 1;
+    private double clauseIncrement = 1;
+    private double maxLearnts = 0;
+    private boolean[] model = null;
+
+    private long conflicts = 0;
+    private long decisions = 0;
+    private long propagations = 0;
+
+    /**
+     * Adds a clause, which must hold in every model found by later calls to {@link #solve()}.
+     * @param literals the DIMACS literals of the clause. Variables are created as needed.
+     * @return false if the clauses are now known to be unsatisfiable.
+     */
+    boolean addClause(int... literals) {
+        int[] clause = new int[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            int variable = Math.abs(literals[i]) - 1;
+            if (literals[i] == 0) {
+                throw new IllegalArgumentException("0 isn't a literal.");
+            }
+            ensureVariables(variable + 1);
+            clause[i] = 2 * variable + (literals[i] < 0 ? 1 : 0);
+        }
+        if (isUnsatisfiable) {
+            return false;
+        }
+
+        // Sort, skip duplicates and literals false at level 0, and drop tautologies and satisfied clauses.
+        Arrays.sort(clause);
+        int size = 0;
+        for (int i = 0; i < clause.length; i++) {
+            int literal = clause[i];
+            if (value(literal) == TRUE || i > 0 && literal == (clause[i - 1] ^ 1)) {
+                return true;
+            }
+            if (value(literal) != FALSE && (i == 0 || literal != clause[i - 1])) {
+                clause[size++] = literal;
+            }
+        }
+        if (size == 0) {
+            isUnsatisfiable = true;
+            return false;
+        }
+        if (size == 1) {
+            enqueue(clause[0], -1);
+            if (propagate() >= 0) {
+                isUnsatisfiable = true;
+            }
+            return !isUnsatisfiable;
+        }
+        storeClause(Arrays.copyOf(clause, size), false);
+        originalClauseCount++;
+        return true;
+    }
+
+    /**
+     * Makes sure there are at least the given number of variables, even if they aren't in any clause.
+     */
+    void ensureVariables(int count) {
+        while (numVars < count) {
+            int variable = numVars++;
+            if (variable == values.length) {
+                int capacity = variable * 2;
+                values = Arrays.copyOf(values, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                reasons = Arrays.copyOf(reasons, capacity);
+                isNegativePhase = Arrays.copyOf(isNegativePhase, capacity);
+                seen = Arrays.copyOf(seen, capacity);
+                activities = Arrays.copyOf(activities, capacity);
+                heap = Arrays.copyOf(heap, capacity);
+                heapIndices = Arrays.copyOf(heapIndices, capacity);
+                trail = Arrays.copyOf(trail, capacity);
+                watches = Arrays.copyOf(watches, capacity * 2);
+            }
+            isNegativePhase[variable] = true;
+            heapIndices[variable] = -1;
+            watches[2 * variable] = new IntList();
+            watches[2 * variable + 1] = new IntList();
+            heapInsert(variable);
+        }
+    }
+
+    /**
+     * Looks for a model of the clauses added so far.
+     * @return whether there's one, which is then available through {@link #modelValue(int)}.
+     */
+    boolean solve() {
+        model = null;
+        if (isUnsatisfiable) {
+            return false;
+        }
+        if (propagate() >= 0) {
+            isUnsatisfiable = true;
+            return false;
+        }
+        maxLearnts = Math.max(maxLearnts, Math.max(originalClauseCount / 3.0, 1000));
+        for (int restarts = 0; ; restarts++) {
+            int status = search(luby(restarts) * RESTART_BASE);
+            if (status == 0) {
+                continue;
+            }
+            if (status > 0) {
+                model = new boolean[numVars];
+                for (int v = 0; v < numVars; v++) {
+                    model[v] = values[v] == TRUE;
+                }
+            } else {
+                isUnsatisfiable = true;
+            }
+            cancelUntil(0);
+            return status > 0;
+        }
+    }
+
+    /**
+     * @param variable a DIMACS variable, from 1 to the number of variables.
+     * @return its value in the model found by the last call to {@link #solve()}.
+     * @throws IllegalStateException if the last call to {@link #solve()} didn't find a model.
+     */
+    boolean modelValue(int variable) throws IllegalStateException {
+        if (model == null) {
+            throw new IllegalStateException("There's no model.");
+        }
+        return model[variable - 1];
+    }
+
+    int getVariableCount() {
+        return numVars;
+    }
+
+    long getConflictCount() {
+        return conflicts;
+    }
+
+    long getDecisionCount() {
+        return decisions;
+    }
+
+    long getPropagationCount() {
+        return propagations;
+    }
+
+    /**
+     * Runs until a model is found (1), the clauses are proven unsatisfiable (-1), or the given number of conflicts
+     * is reached (0), in which case it restarts from level 0.
+     */
+    private int search(long conflictLimit) {
+        long conflictsLeft = conflictLimit;
+        IntList learnt = new IntList();
+        while (true) {
+            int conflict = propagate();
+            if (conflict >= 0) {
+                conflicts++;
+                conflictsLeft--;
+                if (levelStarts.size() == 0) {
+                    return -1;
+                }
+                learnt.clear();
+                int backtrackLevel = analyze(conflict, learnt);
+                cancelUntil(backtrackLevel);
+                if (learnt.size() == 1) {
+                    enqueue(learnt.get(0), -1);
+                } else {
+                    int clause = storeClause(learnt.toArray(), true);
+                    bumpClause(clause);
+                    enqueue(learnt.get(0), clause);
+                }
+                varIncrement /= VAR_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+            } else {
+                if (conflictsLeft <= 0) {
+                    cancelUntil(0);
+                    return 0;
+                }
+                if (learntCount - trailSize >= maxLearnts) {
+                    reduceLearnts();
+                }
+                int decision = pickBranchLiteral();
+                if (decision < 0) {
+                    return 1;
+                }
+                decisions++;
+                levelStarts.add(trailSize);
+                enqueue(decision, -1);
+            }
+        }
+    }
+
+    /**
+     * Propagates the assignments in the trail that weren't propagated yet.
+     * @return the index of a clause whose literals are all false, or -1 if there's no conflict.
+     */
+    private int propagate() {
+        while (propagated < trailSize) {
+            int falseLiteral = trail[propagated++] ^ 1;
+            propagations++;
+            IntList watchers = watches[falseLiteral];
+            int[] watching = watchers.elements;
+            int size = watchers.size;
+            int kept = 0;
+            int i = 0;
+            watchers:
+            while (i < size) {
+                int index = watching[i++];
+                int[] clause = clauses[index];
+                // Make sure the false literal is the second one.
+                if (clause[0] == falseLiteral) {
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (value(clause[0]) == TRUE) {
+                    watching[kept++] = index;
+                    continue;
+                }
+                for (int k = 2; k < clause.length; k++) {
+                    if (value(clause[k]) != FALSE) {
+                        clause[1] = clause[k];
+                        clause[k] = falseLiteral;
+                        watches[clause[1]].add(index);
+                        continue watchers;
+                    }
+                }
+                watching[kept++] = index;
+                if (value(clause[0]) == FALSE) {
+                    while (i < size) {
+                        watching[kept++] = watching[i++];
+                    }
+                    watchers.size = kept;
+                    propagated = trailSize;
+                    return index;
+                }
+                enqueue(clause[0], index);
+            }
+            watchers.size = kept;
+        }
+        return -1;
+    }
+
+    /**
+     * First-UIP conflict analysis: resolves the conflicting clause with the reasons of the literals assigned
+     * at the current level, until a single one is left.
+     * @param learnt where the learnt clause is stored. Its first literal is the one it asserts, and its second
+     *               one has the highest level among the rest.
+     * @return the level to backtrack to.
+     */
+    private int analyze(int conflict, IntList learnt) {
+        int currentLevel = levelStarts.size();
+        learnt.add(-1); // the asserting literal, once found
+        int pending = 0;
+        int literal = -1;
+        int index = trailSize - 1;
+        int clauseIndex = conflict;
+        do {
+            if (isLearnt[clauseIndex]) {
+                bumpClause(clauseIndex);
+            }
+            int[] clause = clauses[clauseIndex];
+            for (int k = literal < 0 ? 0 : 1; k < clause.length; k++) {
+                int q = clause[k];
+                int variable = q >>> 1;
+                if (!seen[variable] && levels[variable] > 0) {
+                    bumpVariable(variable);
+                    seen[variable] = true;
+                    if (levels[variable] >= currentLevel) {
+                        pending++;
+                    } else {
+                        learnt.add(q);
+                    }
+                }
+            }
+            while (!seen[trail[index] >>> 1]) {
+                index--;
+            }
+            literal = trail[index--];
+            clauseIndex = reasons[literal >>> 1];
+            seen[literal >>> 1] = false;
+            pending--;
+        } while (pending > 0);
+        learnt.set(0, literal ^ 1);
+
+        // Drop the literals implied by the others: those whose reason only has literals of the clause (or level 0).
+        int[] analyzed = learnt.toArray();
+        int size = 1;
+        for (int i = 1; i < analyzed.length; i++) {
+            int reason = reasons[analyzed[i] >>> 1];
+            if (reason < 0 || !isImpliedBySeen(clauses[reason])) {
+                learnt.set(size++, analyzed[i]);
+            }
+        }
+        learnt.size = size;
+        for (int i = 1; i < analyzed.length; i++) {
+            seen[analyzed[i] >>> 1] = false;
+        }
+
+        if (size == 1) {
+            return 0;
+        }
+        int highest = 1;
+        for (int i = 2; i < size; i++) {
+            if (levels[learnt.get(i) >>> 1] > levels[learnt.get(highest) >>> 1]) {
+                highest = i;
+            }
+        }
+        int swapped = learnt.get(1);
+        learnt.set(1, learnt.get(highest));
+        learnt.set(highest, swapped);
+        return levels[learnt.get(1) >>> 1];
+    }
+
+    private boolean isImpliedBySeen(int[] reason) {
+        for (int k = 1; k < reason.length; k++) {
+            int variable = reason[k] >>> 1;
+            if (!seen[variable] && levels[variable] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int pickBranchLiteral() {
+        while (heapSize > 0) {
+            int variable = heapRemoveMax();
+            if (values[variable] == UNASSIGNED) {
+                return 2 * variable + (isNegativePhase[variable] ? 1 : 0);
+            }
+        }
+        return -1;
+    }
+
+    private void enqueue(int literal, int reason) {
+        int variable = literal >>> 1;
+        values[variable] = (literal & 1) == 0 ? TRUE : FALSE;
+        levels[variable] = levelStarts.size();
+        reasons[variable] = reason;
+        trail[trailSize++] = literal;
+    }
+
+    private void cancelUntil(int level) {
+        if (levelStarts.size() <= level) {
+            return;
+        }
+        int start = levelStarts.get(level);
+        for (int i = trailSize - 1; i >= start; i--) {
+            int variable = trail[i] >>> 1;
+            values[variable] = UNASSIGNED;
+            reasons[variable] = -1;
+            isNegativePhase[variable] = (trail[i] & 1) == 1;
+            if (heapIndices[variable] < 0) {
+                heapInsert(variable);
+            }
+        }
+        trailSize = start;
+        propagated = start;
+        levelStarts.size = level;
+    }
+
+    private byte value(int literal) {
+        byte value = values[literal >>> 1];
+        return (literal & 1) == 0 ? value : (byte) -value;
+    }
+
+    private int storeClause(int[] literals, boolean learnt) {
+        int index;
+        if (freeClauses.size() > 0) {
+            index = freeClauses.removeLast();
+        } else {
+            index = clauseCount++;
+            if (index == clauses.length) {
+                clauses = Arrays.copyOf(clauses, index * 2);
+                isLearnt = Arrays.copyOf(isLearnt, index * 2);
+                clauseActivities = Arrays.copyOf(clauseActivities, index * 2);
+            }
+        }
+        clauses[index] = literals;
+        isLearnt[index] = learnt;
+        clauseActivities[index] = 0;
+        if (learnt) {
+            learntCount++;
+        }
+        watches[literals[0]].add(index);
+        watches[literals[1]].add(index);
+        return index;
+    }
+
+    /**
+     * Deletes the less active half of the learnt clauses, except binary ones and those that are reasons
+     * for the current assignment.
+     */
+    private void reduceLearnts() {
+        IntList candidates = new IntList();
+        for (int i = 0; i < clauseCount; i++) {
+            int[] clause = clauses[i];
+            if (clause != null && isLearnt[i] && clause.length > 2
+                    && !(reasons[clause[0] >>> 1] == i && value(clause[0]) == TRUE)) {
+                candidates.add(i);
+            }
+        }
+        Integer[] sorted = new Integer[candidates.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = candidates.get(i);
+        }
+        Arrays.sort(sorted, (a, b) -> Double.compare(clauseActivities[a], clauseActivities[b]));
+        for (int i = 0; i < sorted.length / 2; i++) {
+            clauses[sorted[i]] = null;
+            learntCount--;
+        }
+        // Watchers are removed right away, so that the indices can be reused.
+        for (int literal = 0; literal < 2 * numVars; literal++) {
+            IntList watchers = watches[literal];
+            int kept = 0;
+            for (int i = 0; i < watchers.size; i++) {
+                if (clauses[watchers.elements[i]] != null) {
+                    watchers.elements[kept++] = watchers.elements[i];
+                }
+            }
+            watchers.size = kept;
+        }
+        for (int i = 0; i < sorted.length / 2; i++) {
+            freeClauses.add(sorted[i]);
+        }
+        maxLearnts *= 1.1;
+    }
+
+    private void bumpVariable(int variable) {
+        activities[variable] += varIncrement;
+        if (activities[variable] > RESCALE_LIMIT) {
+            for (int v = 0; v < numVars; v++) {
+                activities[v] /= RESCALE_LIMIT;
+            }
+            varIncrement /= RESCALE_LIMIT;
+        }
+        if (heapIndices[variable] >= 0) {
+            heapUp(heapIndices[variable]);
+        }
+    }
+
+    private void bumpClause(int clause) {
+        clauseActivities[clause] += clauseIncrement;
+        if (clauseActivities[clause] > RESCALE_LIMIT) {
+            for (int i = 0; i < clauseCount; i++) {
+                clauseActivities[i] /= RESCALE_LIMIT;
+            }
+            clauseIncrement /= RESCALE_LIMIT;
+        }
+    }
+
+    /**
+     * The Luby sequence (1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...), which spaces the restarts.
+     */
+    static long luby(int index) {
+        int size = 1;
+        int sequence = 0;
+        while (size < index + 1) {
+            sequence++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != index) {
+            size = (size - 1) >> 1;
+            sequence--;
+            index %= size;
+        }
+        return 1L << sequence;
+    }
+
+    private void heapInsert(int variable) {
+        heapIndices[variable] = heapSize;
+        heap[heapSize] = variable;
+        heapUp(heapSize++);
+    }
+
+    private int heapRemoveMax() {
+        int max = heap[0];
+        heapIndices[max] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndices[last] = 0;
+            heapDown(0);
+        }
+        return max;
+    }
+
+    private void heapUp(int position) {
+        int variable = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >> 1;
+            if (activities[heap[parent]] >= activities[variable]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapIndices[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = variable;
+        heapIndices[variable] = position;
+    }
+
+    private void heapDown(int position) {
+        int variable = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && activities[heap[child + 1]] > activities[heap[child]]) {
+                child++;
+            }
+            if (activities[heap[child]] <= activities[variable]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapIndices[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = variable;
+        heapIndices[variable] = position;
+    }
+
+    private static final class IntList {
+        int[] elements = new int[4];
+        int size = 0;
+
+        void add(int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        int get(int index) {
+            return elements[index];
+        }
+
+        void set(int index, int element) {
+            elements[index] = element;
+        }
+
+        int removeLast() {
+            return elements[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+}
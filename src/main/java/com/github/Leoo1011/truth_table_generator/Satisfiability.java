@@ -0,0 +1,287 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Satisfiability queries that don't build the truth table: the formula is encoded in CNF ({@link Cnf}) and
+ * handed to a CDCL SAT solver, so finding a model (or proving there's none) usually takes a tiny fraction
+ * of the 2^n rows, and works with far more propositions than a table could hold. Enumerating every model is a
+ * different matter: formulae with many of them are enumerated from their table instead.
+ * <p>
+ * Every query uses its own solver, so instances are immutable and can be shared between threads.
+ */
+public final class Satisfiability {
+    // Asking the solver for a model takes about as long as evaluating this many words of the table.
+    private static final int SCAN_WORDS_PER_MODEL = 1 << 12;
+    // Below this, generating a class costs more than it saves.
+    private static final int BYTECODE_MIN_WORDS = 1 << 12;
+
+    private final CompiledFormula formula;
+    private final Cnf cnf;
+
+    public Satisfiability(final CompiledFormula formula) {
+        this.formula = Objects.requireNonNull(formula);
+        this.cnf = Cnf.encode(formula);
+    }
+
+    /**
+     * Lexes, parses and compiles a formula, and encodes it in CNF.
+     * @see CompiledFormula#compile(String)
+     */
+    public static Satisfiability of(String formula)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        return new Satisfiability(CompiledFormula.compile(formula));
+    }
+
+    public CompiledFormula getFormula() {
+        return formula;
+    }
+
+    public Cnf getCnf() {
+        return cnf;
+    }
+
+    public List<String> getPropositionNames() {
+        return cnf.getPropositionNames();
+    }
+
+    /**
+     * @return whether the formula is true in at least one row of its truth table.
+     */
+    public boolean isSatisfiable() {
+        return newSolver().solve();
+    }
+
+    /**
+     * @return an assignment in which the formula is true, from the proposition names (in order of appearance)
+     * to their values, or an empty optional if the formula is unsatisfiable.
+     */
+    public Optional<Map<String, Boolean>> findModel() {
+        SatSolver solver = newSolver();
+        return solver.solve() ? Optional.of(toMap(model(solver))) : Optional.empty();
+    }
+
+    /**
+     * Lazily enumerates the assignments in which the formula is true, without repeating any.
+     * The order is unspecified, and each model is a new map, which the caller can modify.
+     * <p>
+     * With up to {@link BitSlicedEvaluator#MAX_PROPOSITIONS} propositions, this is as fast as
+     * {@link #satisfyingRows()}. With more, each model takes a call to the solver, which is only practical for
+     * formulae with few models (or when only a few are needed).
+     *
+     * @return the models, as in {@link #findModel()}.
+     */
+    public Stream<Map<String, Boolean>> models() {
+        if (cnf.getPropositionCount() <= BitSlicedEvaluator.MAX_PROPOSITIONS) {
+            return satisfyingRows().mapToObj(row -> toMap(toModel(row)));
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new SolverModels(),
+                Spliterator.DISTINCT | Spliterator.NONNULL), false).map(this::toMap);
+    }
+
+    /**
+     * Lazily enumerates the rows of the truth table in which the formula is true, as {@link PackedTruthTable#rowsWhere}
+     * with true does, without repeating any. The rows aren't in increasing order.
+     * <p>
+     * The solver finds the first ones, without evaluating the other rows, which is fastest when there are few.
+     * Each one is blocked by a new clause before looking for the next one, so the solver gets slower as they add up:
+     * once it has found one per 4096 words (262144 rows) of the table, the table is scanned for the
+     * rest, 64 rows at a time. Enumerating every row of a formula with many models thus takes about as long as
+     * building its table, and tables of up to 17 propositions are scanned right away. With more than
+     * {@link BitSlicedEvaluator#MAX_PROPOSITIONS} propositions there's no table to scan, so every row takes a call
+     * to the solver.
+     *
+     * @return the indices of the rows: the first proposition is the most significant bit.
+     * @throws IllegalStateException if there are more than 63 propositions, so row indices don't fit in a long.
+     */
+    public LongStream satisfyingRows() throws IllegalStateException {
+        int numProps = cnf.getPropositionCount();
+        if (numProps > 63) {
+            throw new IllegalStateException("Rows can't be indexed with more than 63 propositions.");
+        }
+        if (numProps > BitSlicedEvaluator.MAX_PROPOSITIONS) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new SolverModels(),
+                    Spliterator.DISTINCT | Spliterator.NONNULL), false).mapToLong(Satisfiability::toRow);
+        }
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(new SatisfyingRows(),
+                Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public String toString() {
+        return "Satisfiability{ formula = " + formula.getFormula() + ", variables = " + cnf.getVariableCount()
+                + ", clauses = " + cnf.getClauseCount() + " }";
+    }
+
+    private SatSolver newSolver() {
+        SatSolver solver = new SatSolver();
+        solver.ensureVariables(cnf.getVariableCount());
+        for (int[] clause : cnf.clauses()) {
+            if (!solver.addClause(clause)) {
+                break;
+            }
+        }
+        return solver;
+    }
+
+    /**
+     * Asks the solver for one model after another, blocking each one with a new clause before looking for the next.
+     */
+    private final class SolverModels implements Iterator<boolean[]> {
+        private SatSolver solver = null;
+        private boolean[] next = null;
+        private boolean isExhausted = false;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !isExhausted) {
+                if (solver == null) {
+                    solver = newSolver();
+                }
+                if (solver.solve()) {
+                    next = model(solver);
+                    // The auxiliary variables are determined by the propositions, so blocking these is enough.
+                    int[] blocking = new int[next.length];
+                    for (int i = 0; i < next.length; i++) {
+                        blocking[i] = next[i] ? -(i + 1) : i + 1;
+                    }
+                    isExhausted = !solver.addClause(blocking);
+                } else {
+                    isExhausted = true;
+                    solver = null;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public boolean[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            boolean[] model = next;
+            next = null;
+            return model;
+        }
+    }
+
+    /**
+     * Returns the rows the solver finds, until it has found one per {@link #SCAN_WORDS_PER_MODEL} words of the
+     * table, then scans the table for the rest, skipping the rows it already returned.
+     */
+    private final class SatisfyingRows implements PrimitiveIterator.OfLong {
+        private final int numProps = cnf.getPropositionCount();
+        private final int words = BitSlicedEvaluator.wordCount(numProps);
+        private final long solverLimit = words / SCAN_WORDS_PER_MODEL;
+        private final Set<Long> solved = new HashSet<>();
+        private final SolverModels models = new SolverModels();
+        private boolean isScanning = solverLimit == 0;
+        private WordEvaluator evaluator = null;
+        private long[] slots = null;
+        private long[] skipped = null; // the rows the solver found, in increasing order
+        private int skipIndex = 0;
+        private int word = 0;
+        private long pending = 0; // the rows of the last scanned word that weren't returned yet
+        private long next = -1;
+
+        @Override
+        public boolean hasNext() {
+            if (next >= 0) {
+                return true;
+            }
+            if (!isScanning) {
+                if (!models.hasNext()) {
+                    return false;
+                }
+                if (solved.size() < solverLimit) {
+                    next = toRow(models.next());
+                    solved.add(next);
+                    return true;
+                }
+                isScanning = true;
+            }
+            if (evaluator == null) {
+                EvaluationProgram program = formula.getProgram();
+                evaluator = words < BYTECODE_MIN_WORDS ? program.newEvaluator() : BytecodeCompiler.compile(program);
+                slots = new long[numProps];
+                skipped = solved.stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            while (pending == 0) {
+                if (word == words) {
+                    return false;
+                }
+                for (int i = 0; i < numProps; i++) {
+                    slots[i] = BitSlicedEvaluator.propositionWord(numProps - 1 - i, word);
+                }
+                pending = evaluator.evaluate(slots);
+                if (word == words - 1) {
+                    pending &= BitSlicedEvaluator.validRowsMask(numProps);
+                }
+                for (; skipIndex < skipped.length && skipped[skipIndex] >>> 6 == word; skipIndex++) {
+                    pending &= ~(1L << skipped[skipIndex]);
+                }
+                word++;
+            }
+            next = ((long) (word - 1) << 6) + Long.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long row = next;
+            next = -1;
+            return row;
+        }
+    }
+
+    private static long toRow(boolean[] model) {
+        long row = 0;
+        for (boolean value : model) {
+            row = row << 1 | (value ? 1 : 0);
+        }
+        return row;
+    }
+
+    private boolean[] toModel(long row) {
+        boolean[] model = new boolean[cnf.getPropositionCount()];
+        for (int i = 0; i < model.length; i++) {
+            model[i] = (row >>> (model.length - 1 - i) & 1) != 0;
+        }
+        return model;
+    }
+
+    private boolean[] model(SatSolver solver) {
+        boolean[] model = new boolean[cnf.getPropositionCount()];
+        for (int i = 0; i < model.length; i++) {
+            model[i] = solver.modelValue(i + 1);
+        }
+        return model;
+    }
+
+    private Map<String, Boolean> toMap(boolean[] model) {
+        Map<String, Boolean> map = new LinkedHashMap<>();
+        List<String> names = cnf.getPropositionNames();
+        for (int i = 0; i < model.length; i++) {
+            map.put(names.get(i), model[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,332 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Row evaluator that stops evaluating an operation as soon as one operand decides its value:
+ * a false operand for and, a true one for or, a false antecedent or true consequent for an implication.
+ * <p>
+ * The operands of and and or are reordered at construction, cheapest first (by number of nodes), so
+ * that small operands get the chance to decide the result before big ones are evaluated. Implications
+ * are evaluated as !A|B, so they're reordered too. Subtrees shared by the parser are evaluated at most
+ * once per row. Instances aren't thread-safe.
+ */
+public class ShortCircuitEvaluator {
+    private static final byte PROP     = 0; // its slot is stored in data
+    private static final byte CONSTANT = 1; // its value is stored in data, as 0 or 1
+    private static final byte NOT      = 2;
+    private static final byte OR       = 3;
+    private static final byte AND      = 4;
+    private static final byte XOR      = 5;
+    private static final byte IFF      = 6;
+
+    // The operands of node i are operands[operandStart[i]] to operands[operandStart[i + 1] - 1].
+    private byte[] kinds = new byte[16];
+    private int[] data = new int[16];
+    private int[] costs = new int[16];
+    private int[] operandStart = new int[17];
+    private int[] operands = new int[16];
+    private int size = 0;
+    private final int root;
+    private final int numProps;
+
+    // Values of the shared nodes, valid while their stamp matches the current row's.
+    private final boolean[] isShared;
+    private final boolean[] cached;
+    private final int[] stamps;
+    private int stamp = 0;
+
+    private long evaluatedNodes = 0;
+
+    // The stack of evaluate(int, long), kept between rows. The first values are those of xors and equivalences.
+    private int[] frameNodes = new int[16];
+    private int[] framePositions = new int[16];
+    private boolean[] frameFirstValues = new boolean[16];
+
+    /**
+     * @param ast the abstract syntax tree, as produced by the {@link BooleanLogicParser}.
+     * @param propositionNames the propositions in the ast, in order of appearance.
+     */
+    public ShortCircuitEvaluator(final Expr ast, final List<String> propositionNames) {
+        Objects.requireNonNull(ast);
+        numProps = propositionNames.size();
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < numProps; i++) {
+            slots.put(propositionNames.get(i), i);
+        }
+        Map<Expr, Integer> built = new IdentityHashMap<>();
+        root = build(ast, slots, built);
+
+        int[] parentCounts = new int[size];
+        for (int i = 0; i < operandStart[size]; i++) {
+            parentCounts[operands[i]]++;
+        }
+        isShared = new boolean[size];
+        for (int node = 0; node < size; node++) {
+            isShared[node] = parentCounts[node] > 1 && kinds[node] != PROP && kinds[node] != CONSTANT;
+        }
+        cached = new boolean[size];
+        stamps = new int[size];
+    }
+
+    /**
+     * @param formula the formula to evaluate.
+     */
+    public ShortCircuitEvaluator(final CompiledFormula formula) {
+        this(formula.getAst(), formula.getPropositionNames());
+    }
+
+    /**
+     * Adds the nodes of the ast in post-order. The traversal keeps its own stacks, so that long chains of operators
+     * (which the parser turns into equally deep asts) don't overflow the thread's stack: each frame holds an ast
+     * node and the number of its operands built so far, whose nodes are on top of the result stack.
+     */
+    private int build(final Expr ast, final Map<String, Integer> slots, final Map<Expr, Integer> built) {
+        Expr[] nodes = new Expr[16];
+        int[] builtOperands = new int[16];
+        int[] results = new int[16];
+        int top = 0;
+        int resultCount = 0;
+        nodes[0] = ast;
+        while (top >= 0) {
+            Expr expr = nodes[top];
+            if (expr instanceof Expr.Grouping grouping) {
+                nodes[top] = grouping.expression;
+                continue;
+            }
+            int done = builtOperands[top];
+            Integer node = done == 0 ? built.get(expr) : null;
+            if (node == null) {
+                int operandCount = FormulaCompiler.operandCount(expr);
+                if (done < operandCount) {
+                    builtOperands[top] = done + 1;
+                    if (++top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, top * 2);
+                        builtOperands = Arrays.copyOf(builtOperands, top * 2);
+                    }
+                    nodes[top] = FormulaCompiler.operand(expr, done);
+                    builtOperands[top] = 0;
+                    continue;
+                }
+                resultCount -= operandCount;
+                node = build(expr, slots, results, resultCount);
+                built.put(expr, node);
+            }
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = node;
+            top--;
+        }
+        return results[0];
+    }
+
+    /**
+     * @param operandNodes the nodes of the operands, from operandNodes[from] on.
+     */
+    private int build(final Expr ast, final Map<String, Integer> slots, final int[] operandNodes, int from) {
+        return switch (ast) {
+            case Expr.BinaryOperation binaryOp -> {
+                int left = operandNodes[from];
+                int right = operandNodes[from + 1];
+                yield switch (binaryOp.operator.type) {
+                    case OR   -> add(OR, 0, left, right);
+                    case AND  -> add(AND, 0, left, right);
+                    case XOR  -> add(XOR, 0, left, right);
+                    case THEN -> add(OR, 0, add(NOT, 0, left), right);
+                    case IFF  -> add(IFF, 0, left, right);
+                    case NOT, PROP_NAME, LEFT_PAREN, RIGHT_PAREN, EOL ->
+                        throw new IllegalStateException("Unexpected operator type: '" + binaryOp.operator.type + "'");
+                };
+            }
+            case Expr.NaryOperation naryOp -> add(naryOp.operator.type == TokenType.AND ? AND : OR, 0,
+                    Arrays.copyOfRange(operandNodes, from, from + naryOp.operands.size()));
+            case Expr.UnaryOperation ignored -> add(NOT, 0, operandNodes[from]);
+            case Expr.Constant constant -> add(CONSTANT, constant.value ? 1 : 0);
+            case Expr.Proposition prop -> {
+                Integer slot = slots.get(prop.propositionName.name);
+                if (slot == null) {
+                    throw new IllegalArgumentException("Unknown proposition: " + prop.propositionName.name);
+                }
+                yield add(PROP, slot);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + ast);
+        };
+    }
+
+    private int add(byte kind, int value, int... nodeOperands) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            data = Arrays.copyOf(data, size * 2);
+            costs = Arrays.copyOf(costs, size * 2);
+            operandStart = Arrays.copyOf(operandStart, size * 2 + 1);
+        }
+        int start = operandStart[size];
+        if (start + nodeOperands.length > operands.length) {
+            operands = Arrays.copyOf(operands, Math.max(operands.length * 2, start + nodeOperands.length));
+        }
+        if (kind == AND || kind == OR) {
+            // Cheapest first. Insertion sort: chains are short, and it keeps equal costs in order of appearance.
+            for (int i = 1; i < nodeOperands.length; i++) {
+                int operand = nodeOperands[i];
+                int j = i - 1;
+                for (; j >= 0 && costs[nodeOperands[j]] > costs[operand]; j--) {
+                    nodeOperands[j + 1] = nodeOperands[j];
+                }
+                nodeOperands[j + 1] = operand;
+            }
+        }
+        long cost = 1;
+        for (int operand : nodeOperands) {
+            cost += costs[operand];
+        }
+        System.arraycopy(nodeOperands, 0, operands, start, nodeOperands.length);
+        kinds[size] = kind;
+        data[size] = value;
+        costs[size] = (int) Math.min(cost, Integer.MAX_VALUE);
+        operandStart[size + 1] = start + nodeOperands.length;
+        return size++;
+    }
+
+    /**
+     * @param row the index of a row of the truth table: the first proposition is its most significant bit.
+     * @return the value of the formula in that row.
+     */
+    public boolean evaluate(long row) {
+        if (++stamp == 0) { // wrapped around: every stamp could be mistaken for the current one
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        return evaluate(root, row);
+    }
+
+    /**
+     * @param truthValues each proposition's truth value, in order of appearance.
+     * @return the value of the formula.
+     * @throws IllegalArgumentException if the number of truth values and propositions don't match,
+     * or if there are more than 63 propositions.
+     */
+    public boolean evaluate(boolean... truthValues) throws IllegalArgumentException {
+        if (truthValues.length != numProps) {
+            throw new IllegalArgumentException(
+                    "The number of truth values provided should be equal to the number of propositions.");
+        }
+        if (numProps >= Long.SIZE) {
+            throw new IllegalArgumentException("Formulae with more than 63 propositions aren't supported.");
+        }
+        long row = 0;
+        for (boolean value : truthValues) {
+            row = (row << 1) | (value ? 1 : 0);
+        }
+        return evaluate(row);
+    }
+
+    /**
+     * Evaluates a node with its own stack, like {@link #build}. Each frame holds a node and the position (in
+     * {@link #operands}) of the operand being evaluated, or -1 if it wasn't visited yet; the value of the last
+     * node evaluated is passed up to its parent's frame.
+     */
+    private boolean evaluate(int root, long row) {
+        int top = push(-1, root);
+        boolean value = false;
+        while (top >= 0) {
+            int node = frameNodes[top];
+            int position = framePositions[top];
+            if (position < 0) {
+                if (isShared[node] && stamps[node] == stamp) {
+                    value = cached[node];
+                    top--;
+                    continue;
+                }
+                evaluatedNodes++;
+                switch (kinds[node]) {
+                    case PROP     -> value = ((row >>> (numProps - 1 - data[node])) & 1) != 0;
+                    case CONSTANT -> value = data[node] != 0;
+                    default -> {
+                        framePositions[top] = operandStart[node];
+                        top = push(top, operands[operandStart[node]]);
+                        continue;
+                    }
+                }
+            } else {
+                // 'value' is the value of the operand at 'position'.
+                int next = position + 1;
+                switch (kinds[node]) {
+                    case NOT -> value = !value;
+                    case AND, OR -> {
+                        // Evaluates the operands in order until one of them has the deciding value. Either way,
+                        // the value of the operation is the last one evaluated.
+                        if (value != (kinds[node] == OR) && next < operandStart[node + 1]) {
+                            framePositions[top] = next;
+                            top = push(top, operands[next]);
+                            continue;
+                        }
+                    }
+                    case XOR, IFF -> {
+                        if (position == operandStart[node]) {
+                            frameFirstValues[top] = value;
+                            framePositions[top] = next;
+                            top = push(top, operands[next]);
+                            continue;
+                        }
+                        value = kinds[node] == XOR ? frameFirstValues[top] ^ value : frameFirstValues[top] == value;
+                    }
+                    default -> throw new IllegalStateException("Unexpected node kind: " + kinds[node]);
+                }
+            }
+            if (isShared[node]) {
+                stamps[node] = stamp;
+                cached[node] = value;
+            }
+            top--;
+        }
+        return value;
+    }
+
+    /**
+     * Pushes a frame for a node that wasn't visited yet.
+     * @return the index of the new frame.
+     */
+    private int push(int top, int node) {
+        if (++top == frameNodes.length) {
+            frameNodes = Arrays.copyOf(frameNodes, top * 2);
+            framePositions = Arrays.copyOf(framePositions, top * 2);
+            frameFirstValues = Arrays.copyOf(frameFirstValues, top * 2);
+        }
+        frameNodes[top] = node;
+        framePositions[top] = -1;
+        return top;
+    }
+
+    /**
+     * @return the number of nodes evaluated since this evaluator was created. Nodes that were skipped
+     * or whose value was reused from earlier in the same row aren't counted.
+     */
+    public long getEvaluatedNodeCount() {
+        return evaluatedNodes;
+    }
+
+    /**
+     * Evaluates the formula for every row of its truth table.
+     *
+     * @param formula the formula to evaluate.
+     * @return the result column, in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
+     */
+    public static long[] evaluate(final CompiledFormula formula) {
+        ShortCircuitEvaluator evaluator = new ShortCircuitEvaluator(formula);
+        int numProps = formula.getPropositionNames().size();
+        long[] result = new long[BitSlicedEvaluator.wordCount(numProps)];
+        long rows = 1L << numProps;
+        for (long row = 0; row < rows; row++) {
+            if (evaluator.evaluate(row)) {
+                result[(int) (row >>> 6)] |= 1L << row;
+            }
+        }
+        return result;
+    }
+}
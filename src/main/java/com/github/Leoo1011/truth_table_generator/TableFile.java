@@ -0,0 +1,382 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * A truth table stored in a compact binary file, read through memory-mapped buffers: the result column
+ * isn't loaded into the heap, and rows are looked up directly in the file.
+ * <p>
+ * The file holds, in little-endian order:
+ * <ul>
+ *     <li>a fixed header: the magic number "TTBL", the version, the flags, the number of propositions, the number
+ *     of words per checksum chunk (0 if there are no checksums) and the number of rows;</li>
+ *     <li>the formula, the strings representing true and false values, and the propositions' names in order of
+ *     appearance, each as its length in bytes followed by its UTF-8 encoding;</li>
+ *     <li>padding up to a multiple of 8 bytes, then the result column, in the format of {@link PackedTruthTable};</li>
+ *     <li>optionally, a CRC-32C per chunk of the column.</li>
+ * </ul>
+ * Instances are immutable, so they can be read from several threads at once.
+ */
+public final class TableFile {
+    private static final int MAGIC = 'T' | 'T' << 8 | 'B' << 16 | 'L' << 24;
+    private static final short VERSION = 1;
+    private static final short HAS_CHECKSUMS = 1;
+    private static final int FIXED_HEADER_BYTES = 24;
+
+    /**
+     * The number of words covered by each checksum: 64 KiB of the column.
+     */
+    static final int CHECKSUM_CHUNK_WORDS = 1 << 13;
+    // A MappedByteBuffer is indexed by an int, so the column is mapped in segments of 1 GiB.
+    private static final int SEGMENT_WORDS_SHIFT = 27;
+
+    private final String formula;
+    private final List<String> propositionNames;
+    private final String truth;
+    private final String falsity;
+    private final int wordCount;
+    private final MappedByteBuffer[] segments;
+    private final MappedByteBuffer checksums; // null if the file has none
+    private final int chunkWords;
+
+    public static class FormatException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public FormatException(String message) {
+            super(message);
+        }
+    }
+
+    private TableFile(String formula, List<String> propositionNames, String truth, String falsity,
+                      MappedByteBuffer[] segments, MappedByteBuffer checksums, int chunkWords) {
+        this.formula = formula;
+        this.propositionNames = propositionNames;
+        this.truth = truth;
+        this.falsity = falsity;
+        this.wordCount = BitSlicedEvaluator.wordCount(propositionNames.size());
+        this.segments = segments;
+        this.checksums = checksums;
+        this.chunkWords = chunkWords;
+    }
+
+    /**
+     * Writes a table to a file, with checksums, creating it if it doesn't exist and replacing its contents otherwise.
+     * @param table the table to write.
+     * @param path the file.
+     *
+     * @throws IOException if the file can't be opened or written.
+     */
+    public static void write(PackedTruthTable table, Path path) throws IOException {
+        write(table, path, true);
+    }
+
+    /**
+     * Writes a table to a file, creating it if it doesn't exist and replacing its contents otherwise.
+     * @param table the table to write.
+     * @param path the file.
+     * @param withChecksums whether to store a checksum per chunk of the column, to be checked by {@link #verify()}.
+     *
+     * @throws IOException if the file can't be opened or written.
+     */
+    public static void write(PackedTruthTable table, Path path, boolean withChecksums) throws IOException {
+        List<String> names = table.getPropositionNames();
+        List<byte[]> strings = new ArrayList<>(names.size() + 3);
+        strings.add(table.getFormula().getBytes(StandardCharsets.UTF_8));
+        strings.add(table.render(true).getBytes(StandardCharsets.UTF_8));
+        strings.add(table.render(false).getBytes(StandardCharsets.UTF_8));
+        for (String name : names) {
+            strings.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+        long headerBytes = FIXED_HEADER_BYTES;
+        for (byte[] string : strings) {
+            headerBytes += 4 + string.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Math.toIntExact(align(headerBytes))).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort(withChecksums ? HAS_CHECKSUMS : 0)
+                .putInt(names.size())
+                .putInt(withChecksums ? CHECKSUM_CHUNK_WORDS : 0)
+                .putLong(table.getRowCount());
+        for (byte[] string : strings) {
+            header.putInt(string.length).put(string);
+        }
+        header.position(header.capacity()).flip(); // the padding is already zeroed
+
+        long[] words = table.words();
+        int chunks = (words.length + CHECKSUM_CHUNK_WORDS - 1) / CHECKSUM_CHUNK_WORDS;
+        ByteBuffer checksums = ByteBuffer.allocate(withChecksums ? 4 * chunks : 0).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer chunk = ByteBuffer.allocateDirect(8 * Math.min(words.length, CHECKSUM_CHUNK_WORDS))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (int from = 0; from < words.length; from += CHECKSUM_CHUNK_WORDS) {
+                int to = Math.min(words.length, from + CHECKSUM_CHUNK_WORDS);
+                chunk.clear();
+                chunk.asLongBuffer().put(words, from, to - from);
+                chunk.limit(8 * (to - from));
+                if (withChecksums) {
+                    crc.reset();
+                    crc.update(chunk.duplicate());
+                    checksums.putInt((int) crc.getValue());
+                }
+                writeFully(channel, chunk);
+            }
+            writeFully(channel, checksums.flip());
+        }
+    }
+
+    /**
+     * Opens a file written by {@link #write(PackedTruthTable, Path, boolean)}, mapping its column into memory.
+     * The file is closed once it's mapped, and the mapping stays valid until the instance is garbage collected.
+     * The contents are trusted: call {@link #verify()} to check them against their checksums.
+     *
+     * @param path the file.
+     * @return the table in the file.
+     *
+     * @throws FormatException if the file isn't a table file, or it's truncated.
+     * @throws IOException if the file can't be opened or read.
+     */
+    public static TableFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = read(channel, 0, FIXED_HEADER_BYTES, size);
+            if (header.getInt() != MAGIC) {
+                throw new FormatException("Not a truth table file.");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new FormatException("Unsupported version: " + version + ".");
+            }
+            boolean hasChecksums = (header.getShort() & HAS_CHECKSUMS) != 0;
+            int numProps = header.getInt();
+            int chunkWords = header.getInt();
+            long rowCount = header.getLong();
+            if (numProps < 0 || numProps > BitSlicedEvaluator.MAX_PROPOSITIONS || rowCount != 1L << numProps) {
+                throw new FormatException("Invalid number of propositions: " + numProps + ".");
+            }
+            if (hasChecksums && chunkWords <= 0) {
+                throw new FormatException("Invalid checksum chunk size: " + chunkWords + ".");
+            }
+
+            long position = FIXED_HEADER_BYTES;
+            String[] strings = new String[numProps + 3];
+            for (int i = 0; i < strings.length; i++) {
+                int length = read(channel, position, 4, size).getInt();
+                if (length < 0) {
+                    throw new FormatException("Invalid string length: " + length + ".");
+                }
+                strings[i] = StandardCharsets.UTF_8.decode(read(channel, position + 4, length, size)).toString();
+                position += 4 + length;
+            }
+
+            long dataOffset = align(position);
+            int wordCount = BitSlicedEvaluator.wordCount(numProps);
+            int chunks = hasChecksums ? (wordCount + chunkWords - 1) / chunkWords : 0;
+            long checksumOffset = dataOffset + 8L * wordCount;
+            if (size != checksumOffset + 4L * chunks) {
+                throw new FormatException("Expected " + (checksumOffset + 4L * chunks) + " bytes, but the file has "
+                        + size + ".");
+            }
+            int segmentCount = ((wordCount - 1) >>> SEGMENT_WORDS_SHIFT) + 1;
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                long fromWord = (long) s << SEGMENT_WORDS_SHIFT;
+                long toWord = Math.min(wordCount, fromWord + (1L << SEGMENT_WORDS_SHIFT));
+                segments[s] = map(channel, dataOffset + 8 * fromWord, 8 * (toWord - fromWord));
+            }
+            MappedByteBuffer checksums = hasChecksums ? map(channel, checksumOffset, 4L * chunks) : null;
+            List<String> names = List.of(strings).subList(3, strings.length);
+            return new TableFile(strings[0], names, strings[1], strings[2], segments, checksums, chunkWords);
+        }
+    }
+
+    /**
+     * Checks the column against the checksums stored in the file, reading all of it.
+     *
+     * @throws FormatException if a chunk of the column doesn't match its checksum.
+     */
+    public void verify() throws FormatException {
+        if (checksums == null) {
+            return;
+        }
+        CRC32C crc = new CRC32C();
+        for (int chunk = 0; (long) chunk * chunkWords < wordCount; chunk++) {
+            int from = chunk * chunkWords;
+            int to = (int) Math.min(wordCount, (long) from + chunkWords);
+            crc.reset();
+            // A chunk may straddle two segments.
+            for (int word = from; word < to; ) {
+                int s = word >>> SEGMENT_WORDS_SHIFT;
+                int segmentEnd = (int) Math.min(to, (long) (s + 1) << SEGMENT_WORDS_SHIFT);
+                crc.update(segments[s].slice(offsetInSegment(word), 8 * (segmentEnd - word)));
+                word = segmentEnd;
+            }
+            if ((int) crc.getValue() != checksums.getInt(4 * chunk)) {
+                throw new FormatException("Checksum mismatch in rows " + ((long) from << 6) + " to "
+                        + (((long) to << 6) - 1) + ".");
+            }
+        }
+    }
+
+    /**
+     * @return whether the file has checksums, so that {@link #verify()} can detect corruption.
+     */
+    public boolean hasChecksums() {
+        return checksums != null;
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the names of the propositions, in order of appearance. The first one is the most significant
+     * bit of the row index.
+     */
+    public List<String> getPropositionNames() {
+        return propositionNames;
+    }
+
+    /**
+     * @return the number of rows, not counting the headers: 2 to the number of propositions.
+     */
+    public long getRowCount() {
+        return 1L << propositionNames.size();
+    }
+
+    /**
+     * @param value a truth value.
+     * @return the string representing it in this table.
+     */
+    public String render(boolean value) {
+        return value ? truth : falsity;
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @return the value of the formula in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row doesn't exist.
+     */
+    public boolean valueAt(long row) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        return (word((int) (row >>> 6)) & (1L << row)) != 0;
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @param proposition the index of the proposition, in order of appearance.
+     * @return the value of the proposition in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row or the proposition don't exist.
+     */
+    public boolean inputAt(long row, int proposition) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        int numProps = propositionNames.size();
+        Objects.checkIndex(proposition, numProps);
+        return ((row >>> (numProps - 1 - proposition)) & 1) != 0;
+    }
+
+    /**
+     * @return the number of rows in which the formula is true.
+     */
+    public long countTrue() {
+        return countTrue(0, getRowCount());
+    }
+
+    /**
+     * @param fromRow the first row to count (inclusive).
+     * @param toRow the last row to count (exclusive).
+     * @return the number of rows in the range in which the formula is true.
+     *
+     * @throws IndexOutOfBoundsException if the range isn't within the table.
+     */
+    public long countTrue(long fromRow, long toRow) throws IndexOutOfBoundsException {
+        Objects.checkFromToIndex(fromRow, toRow, getRowCount());
+        if (fromRow == toRow) {
+            return 0;
+        }
+        int fromWord = (int) (fromRow >>> 6);
+        int lastWord = (int) ((toRow - 1) >>> 6);
+        long firstMask = -1L << fromRow;
+        long lastMask = -1L >>> (63 - ((toRow - 1) & 63));
+        if (fromWord == lastWord) {
+            return Long.bitCount(word(fromWord) & firstMask & lastMask);
+        }
+        long count = Long.bitCount(word(fromWord) & firstMask) + Long.bitCount(word(lastWord) & lastMask);
+        for (int w = fromWord + 1; w < lastWord; w++) {
+            count += Long.bitCount(word(w));
+        }
+        return count;
+    }
+
+    /**
+     * Loads the whole column into the heap.
+     * @return the table, as if it had just been evaluated.
+     */
+    public PackedTruthTable toPackedTruthTable() {
+        long[] words = new long[wordCount];
+        for (int s = 0; s < segments.length; s++) {
+            MappedByteBuffer segment = segments[s];
+            segment.asLongBuffer().get(0, words, s << SEGMENT_WORDS_SHIFT, segment.capacity() / 8);
+        }
+        return new PackedTruthTable(formula, propositionNames, words, truth, falsity);
+    }
+
+    @Override
+    public String toString() {
+        return "TableFile{ formula = " + formula + ", propositions = " + propositionNames.size()
+                + ", checksums = " + hasChecksums() + " }";
+    }
+
+    private long word(int index) {
+        return segments[index >>> SEGMENT_WORDS_SHIFT].getLong(offsetInSegment(index));
+    }
+
+    private static int offsetInSegment(int word) {
+        return 8 * (word & ((1 << SEGMENT_WORDS_SHIFT) - 1));
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & -8L;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length, long size) throws IOException {
+        if (position + length > size) {
+            throw new FormatException("The file is truncated.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new FormatException("The file is truncated.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
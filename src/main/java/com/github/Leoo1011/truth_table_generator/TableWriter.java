@@ -0,0 +1,282 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes truth tables to channels and files, straight from their packed result columns.
+ * <p>
+ * The rows are never materialized as Strings: the cells are encoded to bytes once per column (a header,
+ * a true and a false cell, each followed by its separator), and every row is a sequence of copies of those
+ * into a direct {@link ByteBuffer}, which is written to the channel whenever it fills up.
+ * The buffer is allocated on first use and reused by later writes, so a writer isn't thread-safe.
+ */
+public final class TableWriter {
+    public enum Format {
+        /**
+         * Every cell followed by a space, as printed by {@link TruthTable#printTable()}.
+         */
+        PLAIN,
+        /**
+         * Comma-separated values (RFC 4180). Cells with commas, quotes or line breaks are quoted.
+         */
+        CSV,
+        /**
+         * Tab-separated values. Tabs and line breaks in cells are replaced by spaces.
+         */
+        TSV,
+        /**
+         * Cells separated by a space and padded to the width of their column.
+         */
+        TEXT,
+        /**
+         * A GitHub-flavored Markdown table, with padded cells. '|' is escaped in cells.
+         */
+        MARKDOWN
+    }
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final Format format;
+    private final Charset charset;
+    private final String lineSeparator;
+    private final int bufferSize;
+    private ByteBuffer buffer = null;
+
+    /**
+     * A writer that encodes the tables in UTF-8, with "\r\n" at the end of each line for {@link Format#CSV}
+     * (as RFC 4180 requires) and '\n' for the other formats.
+     * @param format the format of the tables.
+     */
+    public TableWriter(Format format) {
+        this(format, StandardCharsets.UTF_8, format == Format.CSV ? "\r\n" : "\n", DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param format the format of the tables.
+     * @param charset the encoding of the tables.
+     * @param lineSeparator what's written at the end of each line.
+     * @param bufferSize the size of the buffer, in bytes: how much is written to the channel at a time.
+     *
+     * @throws IllegalArgumentException if the size of the buffer isn't positive.
+     */
+    public TableWriter(Format format, Charset charset, String lineSeparator, int bufferSize)
+            throws IllegalArgumentException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The size of the buffer should be positive.");
+        }
+        this.format = Objects.requireNonNull(format);
+        this.charset = Objects.requireNonNull(charset);
+        this.lineSeparator = Objects.requireNonNull(lineSeparator);
+        this.bufferSize = bufferSize;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes a table: a header with the propositions and the formula, then a row per combination of truth values.
+     * @param table the table to write.
+     * @param channel where to write it, which should be blocking. It's not closed.
+     *
+     * @throws IOException if the channel fails.
+     */
+    public void write(PackedTruthTable table, WritableByteChannel channel) throws IOException {
+        write(table.getPropositionNames(), List.of(table.getFormula()), new long[][]{table.words()},
+                table.render(true), table.render(false), channel);
+    }
+
+    /**
+     * Writes a table to a file, creating it if it doesn't exist and replacing its contents otherwise.
+     * @param table the table to write.
+     * @param path the file.
+     *
+     * @throws IOException if the file can't be opened or written.
+     */
+    public void write(PackedTruthTable table, Path path) throws IOException {
+        try (FileChannel channel = open(path)) {
+            write(table, channel);
+        }
+    }
+
+    /**
+     * Writes the tables of a batch as a single table, with a column per proposition and per formula.
+     * @param batch the tables to write.
+     * @param channel where to write them, which should be blocking. It's not closed.
+     *
+     * @throws IOException if the channel fails.
+     */
+    public void write(TruthTableBatch batch, WritableByteChannel channel) throws IOException {
+        List<String> formulae = batch.getFormulae();
+        long[][] columns = new long[formulae.size()][];
+        for (int f = 0; f < columns.length; f++) {
+            columns[f] = batch.getResult(f).words();
+        }
+        PackedTruthTable first = batch.getResult(0);
+        write(batch.getPropositionNames(), formulae, columns, first.render(true), first.render(false), channel);
+    }
+
+    /**
+     * Writes the tables of a batch to a file, creating it if it doesn't exist and replacing its contents otherwise.
+     * @param batch the tables to write.
+     * @param path the file.
+     *
+     * @throws IOException if the file can't be opened or written.
+     */
+    public void write(TruthTableBatch batch, Path path) throws IOException {
+        try (FileChannel channel = open(path)) {
+            write(batch, channel);
+        }
+    }
+
+    /**
+     * @return a writer in the {@link Format#PLAIN} format, with the encoding and line separator of {@link System#out}.
+     */
+    static TableWriter standardOutput() {
+        return new TableWriter(Format.PLAIN, System.out.charset(), System.lineSeparator(), DEFAULT_BUFFER_SIZE);
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private void write(List<String> propositionNames, List<String> formulae, long[][] columns, String truth,
+                       String falsity, WritableByteChannel channel) throws IOException {
+        Metrics.Span span = Metrics.start(Metrics.Phase.OUTPUT, formulae);
+        int numProps = propositionNames.size();
+        int numColumns = numProps + columns.length;
+        String[] headers = new String[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            headers[i] = escape(i < numProps ? propositionNames.get(i) : formulae.get(i - numProps));
+        }
+        String escapedTruth = escape(truth);
+        String escapedFalsity = escape(falsity);
+
+        boolean isPadded = format == Format.TEXT || format == Format.MARKDOWN;
+        int[] widths = new int[numColumns];
+        if (isPadded) {
+            int cellWidth = Math.max(width(escapedTruth), width(escapedFalsity));
+            for (int i = 0; i < numColumns; i++) {
+                widths[i] = Math.max(width(headers[i]), cellWidth);
+                if (format == Format.MARKDOWN) {
+                    widths[i] = Math.max(widths[i], 3); // the delimiter row needs at least "---"
+                }
+            }
+        }
+
+        byte[][] headerCells = new byte[numColumns][];
+        byte[][] trueCells = new byte[numColumns][];
+        byte[][] falseCells = new byte[numColumns][];
+        for (int i = 0; i < numColumns; i++) {
+            headerCells[i] = cell(headers[i], i, widths, numColumns);
+            trueCells[i] = cell(escapedTruth, i, widths, numColumns);
+            falseCells[i] = cell(escapedFalsity, i, widths, numColumns);
+        }
+        byte[] rowStart = (format == Format.MARKDOWN ? "| " : "").getBytes(charset);
+
+        ByteBuffer out = buffer();
+        put(out, channel, rowStart);
+        for (byte[] header : headerCells) {
+            put(out, channel, header);
+        }
+        if (format == Format.MARKDOWN) {
+            put(out, channel, rowStart);
+            for (int i = 0; i < numColumns; i++) {
+                put(out, channel, cell("-".repeat(widths[i]), i, widths, numColumns));
+            }
+        }
+
+        long rowCount = 1L << numProps;
+        for (long row = 0; row < rowCount; row++) {
+            put(out, channel, rowStart);
+            for (int i = 0; i < numProps; i++) {
+                put(out, channel, ((row >>> (numProps - 1 - i)) & 1) != 0 ? trueCells[i] : falseCells[i]);
+            }
+            int word = (int) (row >>> 6);
+            for (int f = 0; f < columns.length; f++) {
+                int i = numProps + f;
+                put(out, channel, ((columns[f][word] >>> row) & 1) != 0 ? trueCells[i] : falseCells[i]);
+            }
+        }
+        flush(out, channel);
+        span.end(rowCount, -1);
+    }
+
+    /**
+     * Encodes a cell, padded to the width of its column (unless it's the last one in {@link Format#TEXT}, so
+     * lines don't end in spaces), followed by the separator, or by the end of the line if it's the last one.
+     */
+    private byte[] cell(String text, int column, int[] widths, int numColumns) {
+        boolean isLast = column == numColumns - 1;
+        StringBuilder cell = new StringBuilder(text);
+        if (format == Format.MARKDOWN || format == Format.TEXT && !isLast) {
+            cell.append(" ".repeat(Math.max(widths[column] - width(text), 0)));
+        }
+        if (isLast) {
+            cell.append(switch (format) {
+                case PLAIN -> " ";
+                case MARKDOWN -> " |";
+                default -> "";
+            }).append(lineSeparator);
+        } else {
+            cell.append(switch (format) {
+                case PLAIN, TEXT -> " ";
+                case CSV -> ",";
+                case TSV -> "\t";
+                case MARKDOWN -> " | ";
+            });
+        }
+        return cell.toString().getBytes(charset);
+    }
+
+    private String escape(String text) {
+        return switch (format) {
+            case PLAIN, TEXT -> text;
+            case CSV -> text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0
+                    && text.indexOf('\r') < 0 ? text : '"' + text.replace("\"", "\"\"") + '"';
+            case TSV -> text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+            case MARKDOWN -> text.replace("|", "\\|").replace('\n', ' ').replace('\r', ' ');
+        };
+    }
+
+    private static int width(String text) {
+        return text.codePointCount(0, text.length());
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static void put(ByteBuffer out, WritableByteChannel channel, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (bytes.length - offset > out.remaining()) {
+            int length = out.remaining();
+            out.put(bytes, offset, length);
+            offset += length;
+            flush(out, channel);
+        }
+        out.put(bytes, offset, bytes.length - offset);
+    }
+
+    private static void flush(ByteBuffer out, WritableByteChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The tokens of a formula, as scanned by {@link BooleanLogicLexer#scan(CharSequence)}: a type, a start
+ * and a length per token, in primitive arrays. The last token is always an {@link TokenType#EOL}.
+ * <p>
+ * Proposition names are interned per buffer: there's a single String (and {@link PropositionName}) per
+ * distinct name, however many times it appears, and each name token only stores the index of its name.
+ */
+public final class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence formula;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] nameIds; // -1 for tokens that aren't names
+    private int size = 0;
+
+    private String[] names = new String[8];
+    private int[] nameHashes = new int[8];
+    private int nameCount = 0;
+    private int[] nameTable = new int[16]; // open addressing: name id + 1, or 0 if empty
+
+    TokenBuffer(CharSequence formula, int capacity) {
+        this.formula = formula;
+        capacity = Math.max(capacity, 16);
+        types = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        nameIds = new int[capacity];
+    }
+
+    /**
+     * @return the number of tokens, including the {@link TokenType#EOL}.
+     */
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int token) {
+        return TYPES[types[checkIndex(token)]];
+    }
+
+    /**
+     * @return the index in the formula of the first character of the token.
+     */
+    public int start(int token) {
+        return starts[checkIndex(token)];
+    }
+
+    /**
+     * @return the number of characters of the formula the token spans, including the spaces inside it
+     * (spaces are ignored, so "A B" is the name "AB").
+     */
+    public int length(int token) {
+        return lengths[checkIndex(token)];
+    }
+
+    /**
+     * @return the index of the token's name among the {@link #nameCount() distinct names}, in order of
+     * appearance; or -1 if the token isn't a proposition name.
+     */
+    public int nameId(int token) {
+        return nameIds[checkIndex(token)];
+    }
+
+    /**
+     * @return the token's name, or null if the token isn't a proposition name.
+     */
+    public String name(int token) {
+        int id = nameId(token);
+        return id < 0 ? null : names[id];
+    }
+
+    /**
+     * @return the number of distinct proposition names.
+     */
+    public int nameCount() {
+        return nameCount;
+    }
+
+    /**
+     * @param nameId the index of a name, from 0 to {@link #nameCount()} (exclusive).
+     * @return the name.
+     */
+    public String getName(int nameId) {
+        return names[Objects.checkIndex(nameId, nameCount)];
+    }
+
+    /**
+     * Converts the buffer to the tokens used by the {@link BooleanLogicParser}.
+     * Tokens that are equal are the same object: there's one {@link PropositionName} per distinct name,
+     * and one {@link Connective} per type.
+     */
+    public Token[] toTokens() {
+        PropositionName[] propositionNames = new PropositionName[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            propositionNames[i] = new PropositionName(names[i]);
+        }
+        Connective[] connectives = new Connective[TYPES.length];
+        Token[] tokens = new Token[size];
+        for (int i = 0; i < size; i++) {
+            TokenType type = TYPES[types[i]];
+            tokens[i] = switch (type) {
+                case PROP_NAME -> propositionNames[nameIds[i]];
+                case EOL -> new EndOfLine();
+                default -> {
+                    if (connectives[types[i]] == null) {
+                        connectives[types[i]] = new Connective(type);
+                    }
+                    yield connectives[types[i]];
+                }
+            };
+        }
+        return tokens;
+    }
+
+    private int checkIndex(int token) {
+        return Objects.checkIndex(token, size);
+    }
+
+    void add(TokenType type, int start, int length) {
+        add(type, start, length, -1);
+    }
+
+    /**
+     * Adds a name token, interning its name.
+     * @param hash the {@link String#hashCode()} of the name, i.e. of the characters in the span without spaces.
+     */
+    void addName(int start, int length, int hash) {
+        int mask = nameTable.length - 1;
+        int slot = hash & mask;
+        while (nameTable[slot] != 0) {
+            int id = nameTable[slot] - 1;
+            if (nameHashes[id] == hash && nameEquals(names[id], start, length)) {
+                add(TokenType.PROP_NAME, start, length, id);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+            nameHashes = Arrays.copyOf(nameHashes, nameCount * 2);
+        }
+        int id = nameCount++;
+        names[id] = nameString(start, length);
+        nameHashes[id] = hash;
+        nameTable[slot] = id + 1;
+        if (nameCount * 2 > nameTable.length) {
+            rehashNames();
+        }
+        add(TokenType.PROP_NAME, start, length, id);
+    }
+
+    private void add(TokenType type, int start, int length, int nameId) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        nameIds[size] = nameId;
+        size++;
+    }
+
+    private boolean nameEquals(String name, int start, int length) {
+        int j = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = formula.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            if (j == name.length() || name.charAt(j++) != c) {
+                return false;
+            }
+        }
+        return j == name.length();
+    }
+
+    private String nameString(int start, int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = start; i < start + length; i++) {
+            char c = formula.charAt(i);
+            if (c != ' ') {
+                name.append(c);
+            }
+        }
+        return name.toString();
+    }
+
+    private void rehashNames() {
+        nameTable = new int[nameTable.length * 2];
+        int mask = nameTable.length - 1;
+        for (int id = 0; id < nameCount; id++) {
+            int slot = nameHashes[id] & mask;
+            while (nameTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            nameTable[slot] = id + 1;
+        }
+    }
+}
@@ -1,6 +1,16 @@
 package com.github.Leoo1011.truth_table_generator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TruthTable {
     /**
@@ -26,36 +36,107 @@ public class TruthTable {
      */
     public TruthTable(String expression, String[] truthRepresentation)
             throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
-        formula = Objects.requireNonNull(expression);
+        this(CompiledFormula.compile(expression), truthRepresentation);
+    }
+
+    /**
+     * A truth table generator that takes its formula from a cache, and stores it there if it isn't cached.
+     * If the cache keeps results, the table also reuses (or stores) the result column of the formula.
+     * @param expression The boolean logic formula from which to generate the truth table.
+     * @param truthRepresentation An array, of length 2, whose first element will be used to represent
+     *                            true values, and the second will represent false values.
+     * @param cache the cache of compiled formulae.
+     *
+     * @throws BooleanLogicLexer.LexError if the formula has invalid tokens.
+     * @throws BooleanLogicParser.ParseError if the formula doesn't match the grammar.
+     * @throws IllegalArgumentException if truthRepresentation.length != 2 or if expression is empty or blank.
+     */
+    public TruthTable(String expression, String[] truthRepresentation, CompileCache cache)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        this(cache.compile(expression), truthRepresentation, expression, cache);
+    }
+
+    /**
+     * A truth table generator for an already compiled formula, which may be shared with other tables or threads.
+     * @param compiledFormula The formula from which to generate the truth table.
+     * @param truthRepresentation An array, of length 2, whose first element will be used to represent
+     *                            true values, and the second will represent false values.
+     *
+     * @throws IllegalArgumentException if truthRepresentation.length != 2.
+     */
+    public TruthTable(CompiledFormula compiledFormula, String[] truthRepresentation) throws IllegalArgumentException {
+        this(compiledFormula, truthRepresentation, compiledFormula.getFormula(), null);
+    }
+
+    private TruthTable(CompiledFormula compiledFormula, String[] truthRepresentation, String formula,
+                       CompileCache cache) throws IllegalArgumentException {
+        this.compiledFormula = Objects.requireNonNull(compiledFormula);
         if (truthRepresentation.length != 2) {
             throw new IllegalArgumentException("'truthRepresentation' should have exactly 2 values.");
         }
-        if (formula.isBlank()) {
-            throw new IllegalArgumentException("'expression' shouldn't be empty or blank.");
-        }
+        this.formula = formula;
+        this.cache = cache;
         truth = truthRepresentation[0];
         falsity = truthRepresentation[1];
-        Token[] tokens = BooleanLogicLexer.tokenize(formula);
-        ast = BooleanLogicParser.parse(tokens);
-
-        int numProps = BooleanLogicParser.getPropositionNames().size();
-        int rows = (int) Math.pow(2, numProps) + 1; // number of permutations + formula
-        int cols = numProps + 1;                    // number of propositions + formula
-        table = new String[rows][cols];
     }
 
+    /**
+     * The most propositions a table can have while {@link #getTable()} still fits in a String[][].
+     */
+    public static final int MAX_TABLE_PROPOSITIONS = 30;
+
     private final String truth;
     private final String falsity;
     private final String formula;
-    private final Expr ast;
-    private final String[][] table;
-    private boolean isTableDone = false;
+    private final CompiledFormula compiledFormula;
+    private final CompileCache cache;
+    private PackedTruthTable result = null;
+    private String[][] table = null;
+    private EvaluationEngine engine = EvaluationEngine.BIT_SLICED;
+    private Executor executor = null;
+    private ParallelEvaluator.Report parallelReport = null;
+
+    /**
+     * Selects how the formula is evaluated. Defaults to {@link EvaluationEngine#BIT_SLICED}.
+     * @param engine the engine used to generate the table.
+     *
+     * @throws IllegalStateException if the table was already generated.
+     */
+    public void setEngine(EvaluationEngine engine) throws IllegalStateException {
+        if (result != null) {
+            throw new IllegalStateException("The engine can't be changed after the table is generated.");
+        }
+        this.engine = Objects.requireNonNull(engine);
+    }
+
+    /**
+     * Enables parallel generation: rows are split into chunks, which are evaluated and stored concurrently.
+     * Only the bit-sliced engines run in parallel; the others always run on one thread.
+     * @param executor where chunks are generated, such as {@link java.util.concurrent.ForkJoinPool#commonPool()},
+     *                 or null to generate the table on the calling thread (the default).
+     *
+     * @throws IllegalStateException if the table was already generated.
+     */
+    public void setExecutor(Executor executor) throws IllegalStateException {
+        if (result != null) {
+            throw new IllegalStateException("The executor can't be changed after the table is generated.");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * @return statistics about the parallel evaluation of the formula, or null if the table was
+     * generated on a single thread (or not generated yet).
+     */
+    public ParallelEvaluator.Report getParallelReport() {
+        return parallelReport;
+    }
 
     private void generateHeaders() {
         int cols = table[0].length; // Propositions + formula
 
         // Doesn't set the last element, as the number of propositions is rows - 1
-        BooleanLogicParser.getPropositionNames().toArray(table[0]);
+        compiledFormula.getPropositionNames().toArray(table[0]);
         table[0][cols - 1] = formula;
     }
 
@@ -70,62 +151,264 @@ public class TruthTable {
      * </ul>
      * Which, effectively, are all the possible permutations for a truth table with two propositions.
      * This algorithm uses this fact, along with bitwise operations (masking) to extract each individual
-     * bit (truth value).
-     *
-     * @return int[][] with each value as a 0 (false) or 1 (true). The internal table maintained by the class
-     * will be updated with strings corresponding to the custom values of 'truth' and 'falsity'.
+     * bit (truth value). The internal table maintained by the class will be updated with strings
+     * corresponding to the custom values of 'truth' and 'falsity'.
+     * @param fromRow the first permutation to generate (inclusive, 0 being the first row after the headers).
+     * @param toRow the last permutation to generate (exclusive).
      */
-    private int[][] generateAndStoreTruthValuePermutations() {
-        int nPerms = table.length - 1;
+    private void generateAndStoreTruthValuePermutations(int fromRow, int toRow) {
         int nProps = table[0].length - 1;
-        int[][] result = new int[nPerms][nProps];
-        for (int num = 1; num < nPerms + 1; num++) {  // Binary counter
+        for (int num = fromRow + 1; num < toRow + 1; num++) {  // Binary counter
             for (int i = 0; i < nProps; i++) {
                 int mask = 1 << (nProps - 1) - i;     // To extract bits from right to left.
                 int counter = num - 1;                // Because num starts at 1
 
                 // Dividing by 'mask' trims trailing 0s (same as right-shifting by mask/2).
                 int extractedBit = (counter & mask) / mask;
-                result[num - 1][i] = extractedBit;
                 table[num][i] = extractedBit == 1 ? truth : falsity;
             }
         }
-        return result;
     }
 
     /**
-     * Interprets the formula, by feeding the {@link BooleanLogicInterpreter} every sub-array of truthValuePermutations,
-     * and updating the table accordingly.
-     * @param truthValuePermutations the truth values to be used as input to the {@link BooleanLogicInterpreter}.
+     * Interprets the formula with the selected {@link EvaluationEngine}.
+     * The bit-sliced engines evaluate 64 rows at a time, whereas the {@link BooleanLogicInterpreter}
+     * walks the ast once per row and is kept as a reference.
+     * @return the result column, in the format returned by {@link BitSlicedEvaluator#evaluate(EvaluationProgram)}.
      */
-    private void generateInterpretedValues(int[][] truthValuePermutations) {
-        int rows = table.length;
+    private long[] evaluate() {
+        Metrics.Span span = Metrics.start(Metrics.Phase.EVALUATE, formula);
+        long[] values = evaluateWithEngine();
+        span.end(1L << compiledFormula.getPropositionNames().size(), compiledFormula.getNodeCount());
+        return values;
+    }
+
+    private long[] evaluateWithEngine() {
+        EvaluationProgram program = compiledFormula.getProgram();
+        int nProps = program.getNumSlots();
+        boolean isWordBased = engine == EvaluationEngine.BIT_SLICED || engine == EvaluationEngine.BYTECODE;
+        if (executor != null && isWordBased) {
+            int chunkWords = ParallelEvaluator.defaultChunkWords(BitSlicedEvaluator.wordCount(nProps), executor);
+            parallelReport = engine == EvaluationEngine.BYTECODE
+                    ? ParallelEvaluator.evaluate(() -> BytecodeCompiler.compile(program), nProps, executor, chunkWords)
+                    : ParallelEvaluator.evaluate(program::newEvaluator, nProps, executor, chunkWords);
+            return parallelReport.getValues();
+        }
+        return switch (engine) {
+            case INTERPRETER -> interpretRowByRow();
+            case SHORT_CIRCUIT -> ShortCircuitEvaluator.evaluate(compiledFormula);
+            case BIT_SLICED -> BitSlicedEvaluator.evaluate(program);
+            case BYTECODE -> BitSlicedEvaluator.evaluate(BytecodeCompiler.compile(program), nProps);
+            case INCREMENTAL -> IncrementalEvaluator.evaluate(compiledFormula);
+            case BDD -> {
+                Bdd bdd = new Bdd(compiledFormula.getPropositionNames());
+                yield bdd.toColumn(bdd.build(compiledFormula.getAst()), compiledFormula.getPropositionNames());
+            }
+        };
+    }
+
+    /**
+     * Updates the table with the interpreted values of the formula.
+     * @param evaluated the result column, as stored by the {@link PackedTruthTable}.
+     * @param fromRow the first row to update (inclusive, 0 being the first row after the headers).
+     * @param toRow the last row to update (exclusive).
+     */
+    private void generateInterpretedValues(final long[] evaluated, int fromRow, int toRow) {
         int cols = table[0].length - 1;
-        for (int i = 1; i < rows; i++) {
-            int evaluated = BooleanLogicInterpreter.interpret(ast, truthValuePermutations[i - 1]);
-            table[i][cols] = evaluated == 1 ? truth : falsity;
+        for (int row = fromRow; row < toRow; row++) {
+            boolean value = (evaluated[row >>> 6] & (1L << row)) != 0;
+            table[row + 1][cols] = value ? truth : falsity;
         }
     }
 
+    private long[] interpretRowByRow() {
+        int nProps = compiledFormula.getPropositionNames().size();
+        long nPerms = 1L << nProps;
+        long[] result = new long[BitSlicedEvaluator.wordCount(nProps)];
+        int[] truthValues = new int[nProps];
+        BooleanLogicInterpreter interpreter = new BooleanLogicInterpreter(compiledFormula);
+        for (long row = 0; row < nPerms; row++) {
+            for (int i = 0; i < nProps; i++) {
+                truthValues[i] = (int) (row >>> (nProps - 1 - i)) & 1;
+            }
+            result[(int) (row >>> 6)] |= (long) interpreter.interpret(truthValues) << row;
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the formula (only the first time it's called) and returns the result in a compact form,
+     * which takes one bit per row instead of a String per cell.
+     * @return the truth table, with the strings representing truth values provided in the constructor.
+     *
+     * @throws IllegalArgumentException if the formula has more than {@link BitSlicedEvaluator#MAX_PROPOSITIONS}
+     * propositions.
+     */
+    public PackedTruthTable getResult() throws IllegalArgumentException {
+        if (result == null) {
+            long[] values = cache != null ? cache.values(compiledFormula, this::evaluate) : evaluate();
+            result = new PackedTruthTable(formula, compiledFormula.getPropositionNames(), values, truth, falsity);
+        }
+        return result;
+    }
+
     private void generateTable() {
-        if (isTableDone) return;
+        if (table != null) return;
+        int numProps = compiledFormula.getPropositionNames().size();
+        if (numProps > MAX_TABLE_PROPOSITIONS) {
+            throw new IllegalStateException("Too many propositions for a String[][] (" + numProps + "), use getResult().");
+        }
+        long[] evaluated = getResult().words();
+        int nPerms = 1 << numProps;
+        table = new String[nPerms + 1][numProps + 1]; // permutations + header, propositions + formula
         generateHeaders();
-        int[][] truthValuePermutations = generateAndStoreTruthValuePermutations();
-        generateInterpretedValues(truthValuePermutations);
-        isTableDone = true;
+        if (executor == null) {
+            generateRows(evaluated, 0, nPerms);
+        } else {
+            // Each row is its own array, so chunks of rows can be filled concurrently without sharing cache lines.
+            ParallelEvaluator.forEachChunk(evaluated.length,
+                    ParallelEvaluator.defaultChunkWords(evaluated.length, executor), executor,
+                    (fromWord, toWord) -> generateRows(evaluated, fromWord * 64, Math.min(nPerms, toWord * 64)));
+        }
     }
 
-    public void printTable() {
-        generateTable();
-        for (String[] row : table) {
-            for (String element : row) {
-                System.out.print(element + " ");
+    private void generateRows(final long[] evaluated, int fromRow, int toRow) {
+        Metrics.Span span = Metrics.start(Metrics.Phase.PERMUTATIONS, formula);
+        generateAndStoreTruthValuePermutations(fromRow, toRow);
+        span.end(toRow - fromRow, -1);
+
+        span = Metrics.start(Metrics.Phase.INTERPRETED_VALUES, formula);
+        generateInterpretedValues(evaluated, fromRow, toRow);
+        span.end(toRow - fromRow, -1);
+    }
+
+    /**
+     * @return a supplier of evaluators for the selected engine, one per thread or spliterator.
+     * The other engines aren't word-based, so they're replaced by the compiled program.
+     */
+    private Supplier<WordEvaluator> wordEvaluators() {
+        EvaluationProgram program = compiledFormula.getProgram();
+        return engine == EvaluationEngine.BYTECODE ? () -> BytecodeCompiler.compile(program) : program::newEvaluator;
+    }
+
+    /**
+     * A lazy spliterator over the rows of the table: rows are computed on demand, 64 at a time,
+     * without generating the whole table. It reuses a single {@link TruthTableRow}, and it splits
+     * at word boundaries for parallel traversal.
+     * @return the spliterator, which works with up to 63 propositions.
+     *
+     * @throws IllegalArgumentException if the formula has more than 63 propositions.
+     */
+    public Spliterator<TruthTableRow> rowSpliterator() throws IllegalArgumentException {
+        return RowSpliterator.allRows(wordEvaluators(), compiledFormula.getPropositionNames().size());
+    }
+
+    /**
+     * @return a lazy iterator over the rows of the table. See {@link #rowSpliterator()}.
+     *
+     * @throws IllegalArgumentException if the formula has more than 63 propositions.
+     */
+    public Iterator<TruthTableRow> rowIterator() throws IllegalArgumentException {
+        return Spliterators.iterator(rowSpliterator());
+    }
+
+    /**
+     * @param parallel whether the stream is parallel.
+     * @return a lazy stream of the rows of the table. See {@link #rowSpliterator()}: as rows are reused,
+     * they should be copied (with {@link TruthTableRow#toArray()}) before being collected.
+     *
+     * @throws IllegalArgumentException if the formula has more than 63 propositions.
+     */
+    public Stream<TruthTableRow> rows(boolean parallel) throws IllegalArgumentException {
+        return StreamSupport.stream(rowSpliterator(), parallel);
+    }
+
+    /**
+     * @return a lazy, sequential stream of the rows of the table. See {@link #rows(boolean)}.
+     *
+     * @throws IllegalArgumentException if the formula has more than 63 propositions.
+     */
+    public Stream<TruthTableRow> rows() throws IllegalArgumentException {
+        return rows(false);
+    }
+
+    /**
+     * Computes a single row, without generating the rest of the table: the propositions' values are decoded
+     * from the bits of the index, and only the 64 rows around it are evaluated.
+     * @param index the index of the row (unsigned, to support tables with 63 propositions).
+     * @return the row.
+     *
+     * @throws IndexOutOfBoundsException if the row doesn't exist.
+     * @throws IllegalArgumentException if the formula has more than 63 propositions.
+     */
+    public TruthTableRow getRow(long index) throws IndexOutOfBoundsException, IllegalArgumentException {
+        int numProps = compiledFormula.getPropositionNames().size();
+        checkRowIndex(index, numProps);
+        TruthTableRow[] row = new TruthTableRow[1];
+        new RowSpliterator(wordEvaluators(), numProps, index, index + 1).tryAdvance(r -> row[0] = r);
+        return row[0];
+    }
+
+    /**
+     * Computes a page of the table, without generating the rows before it.
+     * @param offset the index of the first row (unsigned, to support tables with 63 propositions).
+     * @param limit the maximum number of rows in the page.
+     * @return the rows from offset (inclusive) to offset + limit (exclusive), or fewer if the table ends before.
+     * Each row holds the values of the propositions, followed by the value of the formula, represented by the
+     * strings provided in the constructor. Unlike {@link #getTable()}, there's no header row.
+     *
+     * @throws IndexOutOfBoundsException if the first row doesn't exist.
+     * @throws IllegalArgumentException if limit is negative or the formula has more than 63 propositions.
+     */
+    public String[][] getRows(long offset, int limit) throws IndexOutOfBoundsException, IllegalArgumentException {
+        int numProps = compiledFormula.getPropositionNames().size();
+        checkRowIndex(offset, numProps);
+        if (limit < 0) {
+            throw new IllegalArgumentException("'limit' shouldn't be negative.");
+        }
+        long remaining = (1L << numProps) - offset; // unsigned; 0 means 2^64, which can't happen
+        int size = Long.compareUnsigned(remaining, limit) < 0 ? (int) remaining : limit;
+
+        String[][] page = new String[size][numProps + 1];
+        int[] i = {0};
+        new RowSpliterator(wordEvaluators(), numProps, offset, offset + size).forEachRemaining(row -> {
+            String[] cells = page[i[0]++];
+            for (int prop = 0; prop < numProps; prop++) {
+                cells[prop] = row.getInput(prop) ? truth : falsity;
             }
-            System.out.println();
+            cells[numProps] = row.getValue() ? truth : falsity;
+        });
+        return page;
+    }
+
+    private static void checkRowIndex(long index, int numProps) throws IndexOutOfBoundsException {
+        if (numProps < RowSpliterator.MAX_PROPOSITIONS && Long.compareUnsigned(index, 1L << numProps) >= 0
+                || numProps == RowSpliterator.MAX_PROPOSITIONS && index < 0) {
+            throw new IndexOutOfBoundsException("Row " + Long.toUnsignedString(index) + " out of bounds for "
+                    + numProps + " propositions.");
+        }
+    }
+
+    /**
+     * Prints the table to {@link System#out}, in the {@link TableWriter.Format#PLAIN} format.
+     */
+    public void printTable() {
+        try {
+            TableWriter.standardOutput().write(getResult(), Channels.newChannel(System.out));
+            System.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    public String[][] getTable() {
+    /**
+     * A view of the table with a String per cell, built from {@link #getResult()} the first time it's called.
+     * The first row holds the propositions' names and the formula.
+     * @return the table. Changes made to the array are visible to later calls.
+     *
+     * @throws IllegalStateException if the formula has more than {@link #MAX_TABLE_PROPOSITIONS} propositions.
+     */
+    public String[][] getTable() throws IllegalStateException {
         generateTable();
         return table;
     }
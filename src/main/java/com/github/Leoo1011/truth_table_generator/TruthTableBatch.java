@@ -0,0 +1,242 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * The truth tables of several formulae, as a single table with a column per proposition and per formula.
+ * <p>
+ * The propositions of every formula are merged into one universe, in order of first appearance
+ * (the propositions of the first formula, then the new ones of the second, and so on), and every formula
+ * is compiled against it. The rows are then enumerated once: each block of 64 rows computes the
+ * propositions' columns a single time, and every formula is evaluated on them before moving to the next block.
+ * A formula is true or false in a row regardless of the propositions it doesn't contain.
+ */
+public final class TruthTableBatch {
+    private final List<CompiledFormula> formulae;
+    private final List<String> propositionNames;
+    private final EvaluationProgram[] programs;
+    private final String truth;
+    private final String falsity;
+    private Executor executor = null;
+    private long[][] values = null;
+
+    /**
+     * A batch of truth tables, using "T" and "F" to represent truth values.
+     * @param formulae the boolean logic formulae.
+     *
+     * @throws BooleanLogicLexer.LexError if a formula has invalid tokens.
+     * @throws BooleanLogicParser.ParseError if a formula doesn't match the grammar.
+     * @throws IllegalArgumentException if there are no formulae, or if one is empty or blank.
+     */
+    public static TruthTableBatch of(String... formulae)
+            throws BooleanLogicLexer.LexError, BooleanLogicParser.ParseError, IllegalArgumentException {
+        List<CompiledFormula> compiled = new ArrayList<>(formulae.length);
+        for (String formula : formulae) {
+            compiled.add(CompiledFormula.compile(formula));
+        }
+        return new TruthTableBatch(compiled, new String[]{"T", "F"});
+    }
+
+    /**
+     * @param formulae the formulae, in the order of their columns.
+     * @param truthRepresentation An array, of length 2, whose first element will be used to represent
+     *                            true values, and the second will represent false values.
+     *
+     * @throws IllegalArgumentException if there are no formulae, if truthRepresentation.length != 2,
+     * or if the formulae have more than {@link BitSlicedEvaluator#MAX_PROPOSITIONS} propositions in total.
+     */
+    public TruthTableBatch(List<CompiledFormula> formulae, String[] truthRepresentation)
+            throws IllegalArgumentException {
+        if (formulae.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one formula.");
+        }
+        if (truthRepresentation.length != 2) {
+            throw new IllegalArgumentException("'truthRepresentation' should have exactly 2 values.");
+        }
+        this.formulae = List.copyOf(formulae);
+        Set<String> universe = new LinkedHashSet<>();
+        for (CompiledFormula formula : this.formulae) {
+            universe.addAll(formula.getPropositionNames());
+        }
+        propositionNames = List.copyOf(universe);
+        BitSlicedEvaluator.wordCount(propositionNames.size()); // fails early if there are too many
+
+        String[] names = propositionNames.toArray(new String[0]);
+        programs = new EvaluationProgram[this.formulae.size()];
+        for (int i = 0; i < programs.length; i++) {
+            programs[i] = FormulaCompiler.compile(this.formulae.get(i).getAst(), names);
+        }
+        truth = truthRepresentation[0];
+        falsity = truthRepresentation[1];
+    }
+
+    /**
+     * Enables parallel evaluation: blocks of rows are evaluated concurrently, every formula at once.
+     * @param executor where blocks are evaluated, or null to evaluate them on the calling thread (the default).
+     *
+     * @throws IllegalStateException if the tables were already evaluated.
+     */
+    public void setExecutor(Executor executor) throws IllegalStateException {
+        if (values != null) {
+            throw new IllegalStateException("The executor can't be changed after the tables are evaluated.");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * @return the formulae, in the order of their columns.
+     */
+    public List<String> getFormulae() {
+        List<String> result = new ArrayList<>(formulae.size());
+        for (CompiledFormula formula : formulae) {
+            result.add(formula.getFormula());
+        }
+        return result;
+    }
+
+    /**
+     * @return the propositions of every formula, in order of first appearance.
+     * The first one is the most significant bit of the row index.
+     */
+    public List<String> getPropositionNames() {
+        return propositionNames;
+    }
+
+    /**
+     * @return the number of rows, not counting the headers: 2 to the number of propositions.
+     */
+    public long getRowCount() {
+        return 1L << propositionNames.size();
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @param formula the index of the formula.
+     * @return the value of the formula in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row or the formula don't exist.
+     */
+    public boolean valueAt(long row, int formula) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        long[] column = evaluate()[Objects.checkIndex(formula, programs.length)];
+        return (column[(int) (row >>> 6)] & (1L << row)) != 0;
+    }
+
+    /**
+     * @param row the index of the row, from 0 to {@link #getRowCount()} (exclusive).
+     * @param proposition the index of the proposition in {@link #getPropositionNames()}.
+     * @return the value of the proposition in the row.
+     *
+     * @throws IndexOutOfBoundsException if the row or the proposition don't exist.
+     */
+    public boolean inputAt(long row, int proposition) throws IndexOutOfBoundsException {
+        Objects.checkIndex(row, getRowCount());
+        int numProps = propositionNames.size();
+        Objects.checkIndex(proposition, numProps);
+        return ((row >>> (numProps - 1 - proposition)) & 1) != 0;
+    }
+
+    /**
+     * @param formula the index of the formula.
+     * @return the truth table of a single formula, over every proposition of the batch.
+     *
+     * @throws IndexOutOfBoundsException if the formula doesn't exist.
+     */
+    public PackedTruthTable getResult(int formula) throws IndexOutOfBoundsException {
+        long[] column = evaluate()[Objects.checkIndex(formula, programs.length)];
+        return new PackedTruthTable(formulae.get(formula).getFormula(), propositionNames, column, truth, falsity);
+    }
+
+    /**
+     * @return the table: a header row with the propositions and the formulae, then a row per combination
+     * of truth values, in the same format as {@link TruthTable#getTable()}.
+     *
+     * @throws IllegalStateException if there are more than {@link TruthTable#MAX_TABLE_PROPOSITIONS} propositions.
+     */
+    public String[][] getTable() throws IllegalStateException {
+        int numProps = propositionNames.size();
+        if (numProps > TruthTable.MAX_TABLE_PROPOSITIONS) {
+            throw new IllegalStateException("Too many propositions for a String[][] table: " + numProps + ".");
+        }
+        long[][] columns = evaluate();
+        int rows = 1 << numProps;
+        String[][] table = new String[rows + 1][numProps + programs.length];
+        propositionNames.toArray(table[0]);
+        for (int f = 0; f < programs.length; f++) {
+            table[0][numProps + f] = formulae.get(f).getFormula();
+        }
+        for (int row = 0; row < rows; row++) {
+            String[] cells = table[row + 1];
+            for (int i = 0; i < numProps; i++) {
+                cells[i] = ((row >>> (numProps - 1 - i)) & 1) != 0 ? truth : falsity;
+            }
+            for (int f = 0; f < programs.length; f++) {
+                cells[numProps + f] = (columns[f][row >>> 6] & (1L << row)) != 0 ? truth : falsity;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Prints the table to {@link System#out}, in the same format as {@link TruthTable#printTable()}.
+     */
+    public void printTable() {
+        try {
+            TableWriter.standardOutput().write(this, Channels.newChannel(System.out));
+            System.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Evaluates every formula (only the first time it's called).
+     * @return the result columns, one per formula, in the format of {@link PackedTruthTable}.
+     */
+    private long[][] evaluate() {
+        if (values != null) {
+            return values;
+        }
+        int numProps = propositionNames.size();
+        int words = BitSlicedEvaluator.wordCount(numProps);
+        Metrics.Span span = Metrics.start(Metrics.Phase.EVALUATE, getFormulae());
+        long[][] columns = new long[programs.length][words];
+        ParallelEvaluator.ChunkAction evaluateBlocks = (fromWord, toWord) -> {
+            // The generated evaluators are cached and thread-safe, but the fallback ones aren't: one per chunk.
+            WordEvaluator[] evaluators = new WordEvaluator[programs.length];
+            for (int f = 0; f < programs.length; f++) {
+                evaluators[f] = BytecodeCompiler.compile(programs[f]);
+            }
+            long[] propWords = new long[numProps];
+            for (int w = fromWord; w < toWord; w++) {
+                for (int i = 0; i < numProps; i++) {
+                    propWords[i] = BitSlicedEvaluator.propositionWord(numProps - 1 - i, w);
+                }
+                for (int f = 0; f < evaluators.length; f++) {
+                    columns[f][w] = evaluators[f].evaluate(propWords);
+                }
+            }
+        };
+        if (executor == null) {
+            evaluateBlocks.run(0, words);
+        } else {
+            ParallelEvaluator.forEachChunk(words, ParallelEvaluator.defaultChunkWords(words, executor),
+                    executor, evaluateBlocks);
+        }
+        long mask = BitSlicedEvaluator.validRowsMask(numProps);
+        for (long[] column : columns) {
+            column[words - 1] &= mask;
+        }
+        span.end(getRowCount(), -1);
+        values = columns;
+        return values;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.Leoo1011.truth_table_generator;
+
+/**
+ * A row of a truth table, as produced by {@link TruthTable#rows()}. The propositions' values are decoded
+ * from the row index: the first proposition is its most significant bit.
+ * <p>
+ * Rows are reused by the iterators that produce them, so a row is only valid until the iterator advances:
+ * use {@link #toArray()} to keep its values.
+ */
+public final class TruthTableRow {
+    private final int numProps;
+    private long index;
+    private boolean value;
+
+    TruthTableRow(int numProps) {
+        this.numProps = numProps;
+    }
+
+    void set(long index, boolean value) {
+        this.index = index;
+        this.value = value;
+    }
+
+    /**
+     * @return the index of the row, from 0 to 2 to the number of propositions (exclusive, and unsigned
+     * for tables with 63 propositions).
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of propositions.
+     */
+    public int getNumProps() {
+        return numProps;
+    }
+
+    /**
+     * @param proposition the index of the proposition, in order of appearance.
+     * @return the value of the proposition in this row.
+     */
+    public boolean getInput(int proposition) {
+        return ((index >>> (numProps - 1 - proposition)) & 1) != 0;
+    }
+
+    /**
+     * @return the value of the formula in this row.
+     */
+    public boolean getValue() {
+        return value;
+    }
+
+    /**
+     * @return a copy of the row: the value of every proposition, followed by the value of the formula.
+     */
+    public boolean[] toArray() {
+        boolean[] result = new boolean[numProps + 1];
+        for (int i = 0; i < numProps; i++) {
+            result[i] = getInput(i);
+        }
+        result[numProps] = value;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < numProps; i++) {
+            result.append(getInput(i) ? 'T' : 'F').append(' ');
+        }
+        return result.append(value ? 'T' : 'F').toString();
+    }
+}
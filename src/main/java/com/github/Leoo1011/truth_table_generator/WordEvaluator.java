@@ -0,0 +1,13 @@
+package com.github.Leoo1011.truth_table_generator;
+
+/**
+ * Evaluates a compiled formula over words of 64 independent truth values,
+ * as produced by the {@link BytecodeCompiler}.
+ */
+public interface WordEvaluator {
+    /**
+     * @param slots the value of each proposition, indexed by its position in order of appearance.
+     * @return the value of the formula, with each bit computed from the same bit of every slot.
+     */
+    long evaluate(long[] slots);
+}
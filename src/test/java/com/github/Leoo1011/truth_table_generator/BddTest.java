@@ -0,0 +1,81 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BddTest {
+    @Test
+    void tautologyAndEquivalence() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        assertTrue(Bdd.isTautology(CompiledFormula.compile("A|!A")));
+        assertTrue(Bdd.isTautology(CompiledFormula.compile("(A->B)<->(!B->!A)")));
+        assertFalse(Bdd.isTautology(CompiledFormula.compile("A->B")));
+        assertTrue(Bdd.areEquivalent(CompiledFormula.compile("A^(A->A)"), CompiledFormula.compile("!A")));
+        assertTrue(Bdd.areEquivalent(CompiledFormula.compile("!(A&B)"), CompiledFormula.compile("!A|!B")));
+        assertFalse(Bdd.areEquivalent(CompiledFormula.compile("A&B"), CompiledFormula.compile("A&C")));
+    }
+
+    @Test
+    void matchesTruthTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A<->!B", "(A|B)&!C->D", "A&B&C&D&E&F&G", "(A<->B)^(C|!D)->(E&F)|G^H"
+        };
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            assertEquals(BigInteger.valueOf(table.countTrue()), Bdd.countTrue(compiled), formula);
+
+            List<String> names = compiled.getPropositionNames();
+            for (List<String> order : List.of(names, Bdd.heuristicOrder(compiled.getAst()), names.reversed())) {
+                Bdd bdd = new Bdd(order, 16);
+                int node = bdd.build(compiled.getAst());
+                assertArrayEquals(BitSlicedEvaluator.evaluate(compiled.getProgram()), bdd.toColumn(node, names),
+                        formula + " " + order);
+            }
+        }
+    }
+
+    @Test
+    void countsWithoutEnumeration() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        StringBuilder formula = new StringBuilder("(P0&Q0)");
+        for (int i = 1; i < 100; i++) {
+            formula.append("|(P").append(i).append("&Q").append(i).append(")");
+        }
+        CompiledFormula compiled = CompiledFormula.compile(formula.toString());
+        // Every pair is false in 3^100 of the 4^100 assignments.
+        BigInteger expected = BigInteger.valueOf(4).pow(100).subtract(BigInteger.valueOf(3).pow(100));
+        assertEquals(expected, Bdd.countTrue(compiled));
+
+        Bdd bdd = new Bdd(compiled.getPropositionNames());
+        int node = bdd.build(compiled.getAst());
+        assertEquals(expected, bdd.satCount(node));
+        assertTrue(bdd.evaluate(node, bdd.satisfyingAssignment(node)));
+        assertEquals(202, bdd.nodeCount(node));
+    }
+
+    @Test
+    void deepDiagrams() {
+        // A conjunction of 100000 variables, and then one more below all of them: the last and has to go
+        // through every level of the diagram.
+        int count = 100_000;
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i <= count; i++) {
+            order.add("P" + i);
+        }
+        Bdd bdd = new Bdd(order);
+        int node = Bdd.TRUE;
+        for (int i = count - 1; i >= 0; i--) {
+            node = bdd.and(bdd.variable("P" + i), node);
+        }
+        node = bdd.and(node, bdd.variable("P" + count));
+        assertEquals(count + 3, bdd.nodeCount(node));
+        assertEquals(BigInteger.ONE, bdd.satCount(node));
+        // True in the row where every variable is, and in every row where the last one isn't.
+        assertEquals(BigInteger.TWO.pow(count).add(BigInteger.ONE),
+                bdd.satCount(bdd.iff(node, bdd.variable("P" + count))));
+    }
+}
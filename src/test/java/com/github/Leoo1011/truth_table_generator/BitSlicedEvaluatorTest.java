@@ -0,0 +1,39 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitSlicedEvaluatorTest {
+    @Test
+    void matchesInterpreter() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A<->!B", "A^(A->A)", "(A|B)&!C->D",
+                "A&B&C&D&E&F&G", "(A<->B)^(C|!D)->(E&F)|G^H", "!(!(A))"
+        };
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            String[] propNames = compiled.getPropositionNames().toArray(new String[0]);
+            int numProps = propNames.length;
+            long[] evaluated = BitSlicedEvaluator.evaluate(compiled.getAst(), propNames);
+            BooleanLogicInterpreter interpreter = new BooleanLogicInterpreter(compiled);
+
+            for (int row = 0; row < 1 << numProps; row++) {
+                int[] truthValues = new int[numProps];
+                for (int i = 0; i < numProps; i++) {
+                    truthValues[i] = (row >>> (numProps - 1 - i)) & 1;
+                }
+                int expected = interpreter.interpret(truthValues);
+                int actual = (int) (evaluated[row >>> 6] >>> row) & 1;
+                assertEquals(expected, actual, formula + ", row " + row);
+            }
+        }
+    }
+
+    @Test
+    void bitsPastLastRowAreZero() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Expr ast = CompiledFormula.compile("A|!A").getAst();
+        long[] evaluated = BitSlicedEvaluator.evaluate(ast, new String[]{"A"});
+        assertArrayEquals(new long[]{0b11}, evaluated);
+    }
+}
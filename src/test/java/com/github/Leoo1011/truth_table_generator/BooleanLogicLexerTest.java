@@ -26,6 +26,41 @@ class BooleanLogicLexerTest {
         }
     }
 
+    @Test
+    void scan() throws BooleanLogicLexer.LexError {
+        TokenBuffer tokens = BooleanLogicLexer.scan("foo <- >(b ar&foo)\n|x1");
+        TokenType[] expectedTypes = new TokenType[]{TokenType.PROP_NAME, TokenType.IFF, TokenType.LEFT_PAREN,
+                TokenType.PROP_NAME, TokenType.AND, TokenType.PROP_NAME, TokenType.RIGHT_PAREN, TokenType.OR,
+                TokenType.PROP_NAME, TokenType.EOL};
+        assertEquals(expectedTypes.length, tokens.size());
+        for (int i = 0; i < expectedTypes.length; i++) {
+            assertEquals(expectedTypes[i], tokens.type(i));
+        }
+        assertEquals(4, tokens.start(1));
+        assertEquals(4, tokens.length(1)); // "<- >"
+        assertEquals("bar", tokens.name(3));
+        assertEquals(4, tokens.length(3)); // "b ar"
+
+        // names are interned: both foos share an id, a String and a PropositionName
+        assertEquals(3, tokens.nameCount());
+        assertEquals(0, tokens.nameId(5));
+        assertSame(tokens.name(0), tokens.name(5));
+        assertNull(tokens.name(1));
+        Token[] array = tokens.toTokens();
+        assertSame(array[0], array[5]);
+        assertEquals("Proposition{ name = x1 }", array[8].toString());
+    }
+
+    @Test
+    void unknownSymbolMessages() {
+        String[][] cases = new String[][]{{"A<-B", "<"}, {"A-B", "-"}, {"A>B", ">"}, {"A&é", "é"}, {"A->\uD83D\uDE00", "\uD83D\uDE00"}};
+        for (String[] c : cases) {
+            BooleanLogicLexer.LexError error = assertThrowsExactly(BooleanLogicLexer.LexError.class,
+                    () -> BooleanLogicLexer.tokenize(c[0]));
+            assertEquals("Unknown symbol: " + c[1], error.getMessage());
+        }
+    }
+
     @Test
     void invalidSymbolThrowsLexError() {
         String[] invalidSymbols = new String[]{
@@ -11,7 +11,7 @@ class BooleanLogicParserTest {
     @Test
     void parse() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
         Token[] tokens = BooleanLogicLexer.tokenize("!A->(B|C)");
-        Expr ast = BooleanLogicParser.parse(tokens);
+        Expr ast = new BooleanLogicParser(tokens).parse();
 
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         try (PrintStream out = new PrintStream(byteArrayOutputStream)) {
@@ -22,6 +22,69 @@ class BooleanLogicParserTest {
         }
     }
 
+    @Test
+    void identicalSubtreesAreShared() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        BooleanLogicParser parser = new BooleanLogicParser(BooleanLogicLexer.tokenize("(A&B)|(A&B)"));
+        Expr ast = parser.parse();
+
+        // A, B, A&B, (A&B) and the disjunction; the second (A&B) reuses all four nodes of the first one
+        assertEquals(5, parser.getNodeCount());
+        assertEquals(4, parser.getDeduplicatedNodeCount());
+        Expr.BinaryOperation or = (Expr.BinaryOperation) ast;
+        assertSame(or.left, or.right);
+    }
+
+    @Test
+    void chainsAreLeftAssociative() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Expr ast = new BooleanLogicParser(BooleanLogicLexer.scan("!!A&(B|!(C))^D")).parse();
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(byteArrayOutputStream)) {
+            ExprPrinter.printExpr(ast, out);
+            assertEquals("(xor (and (not (not A)) (grouping (or B (not (grouping C))))) D)",
+                    byteArrayOutputStream.toString());
+        }
+    }
+
+    @Test
+    void deepAndLongFormulae() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        int depth = 200_000;
+        // an even number of negations
+        String nested = "(".repeat(depth) + "A" + ")".repeat(depth) + "&" + "!".repeat(depth) + "B";
+        CompiledFormula compiled = CompiledFormula.compile(nested);
+        assertTrue(compiled.evaluate(true, true));
+        assertFalse(compiled.evaluate(true, false));
+
+        StringBuilder chain = new StringBuilder("A");
+        for (int i = 0; i < 500_000; i++) {
+            chain.append(i % 2 == 0 ? "^B" : "^A");
+        }
+        compiled = CompiledFormula.compile(chain.toString());
+        assertTrue(compiled.evaluate(true, false)); // A, xored with 250000 Bs and 250000 As
+        assertFalse(compiled.evaluate(false, false));
+    }
+
+    @Test
+    void errorMessages() {
+        String[][] cases = new String[][]{
+                {"A&", "Expected expression or proposition name after operator '&'"},
+                {"(A->)", "Expected expression or proposition name after operator '->'"},
+                {"!&A", "Expected expression or proposition after '!'."},
+                {"!", "Invalid syntax"},
+                {"()", "Invalid syntax"},
+                {"A!B", "'!' not allowed after proposition/expression."},
+                {"(A)!B", "'!' not allowed after ')'."},
+                {"((A)", "Expected ')' after expression."},
+                {"A)", "Unmatched ')'."},
+                {"A\nB", "Unexpected token at end of input."}
+        };
+        for (String[] c : cases) {
+            BooleanLogicParser.ParseError error = assertThrowsExactly(BooleanLogicParser.ParseError.class,
+                    () -> new BooleanLogicParser(BooleanLogicLexer.tokenize(c[0])).parse(), c[0]);
+            assertEquals(c[1], error.getMessage(), c[0]);
+        }
+    }
+
     @Test
     void invalidSyntaxThrowsParseError() {
         String[] invalidFormulae = new String[]{"A->)", "()A", "A!->C", "()->A", "!A->(!B"};
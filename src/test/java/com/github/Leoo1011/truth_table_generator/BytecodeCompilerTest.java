@@ -0,0 +1,48 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BytecodeCompilerTest {
+    private static EvaluationProgram compile(String formula)
+            throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        return CompiledFormula.compile(formula).getProgram();
+    }
+
+    @Test
+    void matchesProgram() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A<->!B", "A^(A->A)", "(A|B)&!C->D", "(A<->B)^(C|!D)->(E&F)|G^H"
+        };
+        for (String formula : formulae) {
+            EvaluationProgram program = compile(formula);
+            WordEvaluator evaluator = BytecodeCompiler.compile(program);
+            assertTrue(evaluator.getClass().isHidden(), formula);
+            assertArrayEquals(BitSlicedEvaluator.evaluate(program),
+                    BitSlicedEvaluator.evaluate(evaluator, program.getNumSlots()));
+        }
+    }
+
+    @Test
+    void cachesGeneratedClasses() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        WordEvaluator first = BytecodeCompiler.compile(compile("A&(B|C)"));
+        WordEvaluator second = BytecodeCompiler.compile(compile("A&(B|C)"));
+        assertSame(first, second);
+    }
+
+    @Test
+    void fallsBackAboveMaxSize() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = compile("A->B->C->D");
+        WordEvaluator evaluator = BytecodeCompiler.compile(program, 3);
+        assertFalse(evaluator.getClass().isHidden());
+        assertArrayEquals(BitSlicedEvaluator.evaluate(program), BitSlicedEvaluator.evaluate(evaluator, 4));
+    }
+
+    @Test
+    void maxSizeAppliesToCachedClasses() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = compile("(A|B)->C^D");
+        assertTrue(BytecodeCompiler.compile(program).getClass().isHidden());
+        assertFalse(BytecodeCompiler.compile(program, 3).getClass().isHidden());
+    }
+}
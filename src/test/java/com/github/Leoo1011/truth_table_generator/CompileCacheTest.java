@@ -0,0 +1,128 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileCacheTest {
+    @Test
+    void formulaeThatOnlyDifferInSpacesShareAnEntry() throws Exception {
+        CompileCache cache = new CompileCache(100, 1 << 20, false);
+        CompiledFormula compiled = cache.compile("A -> B");
+        assertSame(compiled, cache.compile("A->B"));
+        assertSame(compiled, cache.compile(" A- >B "));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getEstimatedBytes() > 0);
+
+        // the table's header is the text it was given, not the cached one
+        TruthTable table = new TruthTable("A->B", new String[]{"T", "F"}, cache);
+        assertEquals("A->B", table.getTable()[0][2]);
+        assertArrayEquals(new TruthTable("A->B").getTable(), table.getTable());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntries() throws Exception {
+        CompileCache cache = new CompileCache(8, 1 << 20, false);
+        for (int i = 0; i < 8; i++) {
+            cache.compile("A" + i + "&B");
+        }
+        cache.compile("A0&B");
+        cache.compile("A8&B"); // over the bound: evicted down to 7 entries, the oldest first
+        assertEquals(7, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+
+        long misses = cache.getMissCount();
+        cache.compile("A0&B");
+        cache.compile("A8&B");
+        assertEquals(misses, cache.getMissCount());
+        cache.compile("A1&B");
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    void isBoundedByBytes() throws Exception {
+        CompiledFormula sample = CompiledFormula.compile("P0|Q0|R0");
+        long maxBytes = CompileCache.estimateBytes(sample) * 4;
+        CompileCache cache = new CompileCache(1000, maxBytes, false);
+        for (int i = 0; i < 20; i++) {
+            cache.compile("P" + i + "|Q" + i + "|R" + i);
+            assertTrue(cache.getEstimatedBytes() <= maxBytes);
+        }
+        assertTrue(cache.size() <= 4);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEstimatedBytes());
+    }
+
+    @Test
+    void oversizedFormulaeArentCached() throws Exception {
+        CompiledFormula sample = CompiledFormula.compile("P0|Q0|R0");
+        CompileCache cache = new CompileCache(1000, CompileCache.estimateBytes(sample) * 4, false);
+        cache.compile("P0|Q0|R0");
+        cache.compile("P1|Q1|R1");
+        StringBuilder big = new StringBuilder("P0");
+        for (int i = 1; i < 200; i++) {
+            big.append("|P").append(i);
+        }
+        CompiledFormula compiled = cache.compile(big.toString());
+        assertNotSame(compiled, cache.compile(big.toString()));
+        assertEquals(2, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+
+        long hits = cache.getHitCount();
+        cache.compile("P0|Q0|R0");
+        cache.compile("P1|Q1|R1");
+        assertEquals(hits + 2, cache.getHitCount());
+    }
+
+    @Test
+    void cachesResults() throws Exception {
+        CompileCache cache = new CompileCache(100, 1 << 20, true);
+        TruthTable first = new TruthTable("(A|B)&!C", new String[]{"1", "0"}, cache);
+        TruthTable second = new TruthTable("(A | B) & !C", new String[]{"T", "F"}, cache);
+        assertSame(first.getResult().words(), second.getResult().words());
+        assertEquals("(A | B) & !C", second.getResult().getFormula());
+        assertArrayEquals(new TruthTable("(A | B) & !C").getTable(), second.getTable());
+
+        long bytes = cache.getEstimatedBytes();
+        cache.clear();
+        assertTrue(bytes > cache.getEstimatedBytes());
+        TruthTable third = new TruthTable("(A|B)&!C", new String[]{"T", "F"}, cache);
+        assertNotSame(first.getResult().words(), third.getResult().words());
+    }
+
+    @Test
+    void concurrentLookups() throws Exception {
+        CompileCache cache = new CompileCache(16, 1 << 20, true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String formula = "X" + (i % 24) + "^Y";
+                        TruthTable table = new TruthTable(formula, new String[]{"T", "F"}, cache);
+                        assertEquals(2, table.getResult().countTrue());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(4 * 2000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.size() <= 16);
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledFormulaTest {
+    @Test
+    void compile() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        CompiledFormula compiled = CompiledFormula.compile("B->A&C|B");
+        assertEquals("B->A&C|B", compiled.getFormula());
+        assertEquals(List.of("B", "A", "C"), compiled.getPropositionNames());
+        assertTrue(compiled.evaluate(false, false, true)); // ((B->A)&C)|B
+        assertFalse(compiled.evaluate(false, false, false));
+        assertThrowsExactly(IllegalArgumentException.class, () -> compiled.evaluate(true));
+        assertThrowsExactly(IllegalArgumentException.class, () -> CompiledFormula.compile(" "));
+    }
+
+    @Test
+    void concurrentTablesDontInterfere() throws Exception {
+        String[] formulae = new String[]{"A<->!B", "A^(A->A)", "(A|B)&!C->D", "X&Y", "!(P|Q|R|S)"};
+        String[][][] expected = new String[formulae.length][][];
+        for (int i = 0; i < formulae.length; i++) {
+            expected[i] = new TruthTable(formulae[i]).getTable();
+        }
+
+        CompiledFormula shared = CompiledFormula.compile("(A|B)&!C->D");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 200; task++) {
+                int i = task % formulae.length;
+                futures.add(pool.submit(() -> {
+                    assertArrayEquals(expected[i], new TruthTable(formulae[i]).getTable());
+                    TruthTable t = new TruthTable(shared, new String[]{"T", "F"});
+                    t.setEngine(EvaluationEngine.INTERPRETER);
+                    assertArrayEquals(expected[2], t.getTable());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquivalenceCheckerTest {
+    private static final EquivalenceChecker CHECKER = new EquivalenceChecker();
+
+    private static EquivalenceChecker.Result equivalence(String a, String b)
+            throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        return CHECKER.checkEquivalence(CompiledFormula.compile(a), CompiledFormula.compile(b));
+    }
+
+    @Test
+    void equivalentFormulae() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        assertTrue(equivalence("A^(A->A)", "!A").holds());
+        assertTrue(equivalence("!(A&B)", "!A|!B").holds());
+        assertTrue(equivalence("(A->B)<->(!B->!A)", "A|!A").holds());
+        assertTrue(equivalence("A<->B", "!(A^B)").holds());
+        // B only appears in one of them, and it doesn't matter.
+        assertTrue(equivalence("A", "A&(B|!B)").holds());
+
+        EquivalenceChecker.Result result = equivalence("A&B", "B&A");
+        assertEquals(EquivalenceChecker.Method.EXHAUSTIVE, result.getMethod());
+        assertEquals(Optional.empty(), result.getCounterexample());
+        assertEquals(-1, result.getCounterexampleRow());
+    }
+
+    @Test
+    void counterexampleIsTheFirstDifferingRow() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EquivalenceChecker.Result result = equivalence("A->B", "B->A");
+        assertFalse(result.holds());
+        assertEquals(List.of("A", "B"), result.getPropositionNames());
+        assertEquals(1, result.getCounterexampleRow()); // A false, B true
+        assertEquals(Optional.of(Map.of("A", false, "B", true)), result.getCounterexample());
+
+        result = equivalence("A&B", "A&C");
+        assertEquals(List.of("A", "B", "C"), result.getPropositionNames());
+        assertEquals(0b101, result.getCounterexampleRow()); // A true, B false, C true
+    }
+
+    @Test
+    void implication() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        CompiledFormula and = CompiledFormula.compile("A&B");
+        CompiledFormula or = CompiledFormula.compile("A|B");
+        assertTrue(CHECKER.checkImplication(and, or).holds());
+        EquivalenceChecker.Result result = CHECKER.checkImplication(or, and);
+        assertFalse(result.holds());
+        Map<String, Boolean> counterexample = result.getCounterexample().orElseThrow();
+        assertTrue(counterexample.get("A") || counterexample.get("B"));
+        assertFalse(counterexample.get("A") && counterexample.get("B"));
+    }
+
+    @Test
+    void everyMethodAgreesWithTruthTables() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EquivalenceChecker[] checkers = new EquivalenceChecker[]{
+                new EquivalenceChecker(), // exhaustive, with simulation when there are more than 64 rows
+                new EquivalenceChecker(0, 20, 1), // exhaustive only
+                new EquivalenceChecker(0, 0, 1), // SAT only
+                new EquivalenceChecker(4, 0, 1) // simulation, then SAT
+        };
+        List<String> generated = RandomFormulas.generate(24, 300, 8, 1, 1, 6, 1);
+        for (int n = 0; n < generated.size(); n += 2) {
+            String[] formulae = new String[]{generated.get(n), generated.get(n + 1)};
+            CompiledFormula a = CompiledFormula.compile(formulae[0]);
+            CompiledFormula b = CompiledFormula.compile(
+                    "(" + formulae[0] + ") & (" + formulae[1] + " | !(" + formulae[1] + "))");
+            CompiledFormula c = CompiledFormula.compile(formulae[1]);
+            for (EquivalenceChecker checker : checkers) {
+                assertTrue(checker.checkEquivalence(a, b).holds(), checker + " " + formulae[0]);
+                assertTrue(checker.checkImplication(a, b).holds(), checker + " " + formulae[0]);
+
+                EquivalenceChecker.Result result = checker.checkEquivalence(a, c);
+                boolean[] values = unifiedTable(a, c);
+                assertEquals(values == null, result.holds(), checker + " " + formulae[0] + " = " + formulae[1]);
+                if (!result.holds()) {
+                    assertTrue(values[(int) result.getCounterexampleRow()], checker.toString());
+                    if (result.getMethod() == EquivalenceChecker.Method.EXHAUSTIVE) {
+                        for (int row = 0; row < result.getCounterexampleRow(); row++) {
+                            assertFalse(values[row]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void largeFormulaeUseTheSolver() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // De Morgan over 100 propositions: far too many rows to compare.
+        StringBuilder and = new StringBuilder("!(P0");
+        StringBuilder or = new StringBuilder("!P0");
+        for (int i = 1; i < 100; i++) {
+            and.append(" & P").append(i);
+            or.append(" | !P").append(i);
+        }
+        and.append(')');
+        EquivalenceChecker.Result result = equivalence(and.toString(), or.toString());
+        assertTrue(result.holds());
+        assertEquals(EquivalenceChecker.Method.SAT, result.getMethod());
+
+        // Differs only when every proposition is true, which random rows won't find.
+        result = equivalence(and.toString(), "(" + or + ") | " + and.substring(1));
+        assertFalse(result.holds());
+        assertEquals(EquivalenceChecker.Method.SAT, result.getMethod());
+        assertTrue(result.getCounterexample().orElseThrow().values().stream().allMatch(v -> v));
+
+        // Differs in half of the rows, which random rows find right away.
+        result = equivalence(and.toString(), "(" + or + ") & P99");
+        assertEquals(EquivalenceChecker.Method.SIMULATION, result.getMethod());
+        assertFalse(result.getCounterexample().orElseThrow().get("P99"));
+    }
+
+    /**
+     * @return for every row over the propositions of both formulae, whether they differ; or null if they never do.
+     */
+    private static boolean[] unifiedTable(CompiledFormula a, CompiledFormula b) {
+        List<String> names = new ArrayList<>(a.getPropositionNames());
+        for (String name : b.getPropositionNames()) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        boolean[] differs = new boolean[1 << names.size()];
+        boolean any = false;
+        for (int row = 0; row < differs.length; row++) {
+            differs[row] = evaluate(a, names, row) != evaluate(b, names, row);
+            any |= differs[row];
+        }
+        return any ? differs : null;
+    }
+
+    private static boolean evaluate(CompiledFormula formula, List<String> names, int row) {
+        boolean[] values = new boolean[formula.getPropositionNames().size()];
+        for (int i = 0; i < values.length; i++) {
+            int index = names.indexOf(formula.getPropositionNames().get(i));
+            values[i] = (row >>> (names.size() - 1 - index) & 1) != 0;
+        }
+        return formula.evaluate(values);
+    }
+}
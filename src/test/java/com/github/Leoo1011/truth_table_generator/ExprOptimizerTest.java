@@ -0,0 +1,77 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExprOptimizerTest {
+    private static String optimize(String formula, ExprOptimizer optimizer)
+            throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Expr ast = CompiledFormula.compile(formula, optimizer).getAst();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes)) {
+            ExprPrinter.printExpr(ast, out);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    void rewrites() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        ExprOptimizer optimizer = ExprOptimizer.allPasses();
+        assertEquals("(and A B)", optimize("((A))&!!B", optimizer));
+        assertEquals("(and A B)", optimize("A&(B&A)", optimizer));
+        assertEquals("A", optimize("A|(A&B)", optimizer));
+        assertEquals("A", optimize("A&(B|A)", optimizer));
+        assertEquals("C", optimize("A^A|C", optimizer));
+        assertEquals("(not C)", optimize("(A<->A)^C", optimizer));
+        assertEquals("false", optimize("A&!A", optimizer));
+        assertEquals("true", optimize("(A|B)->(A|B)", optimizer));
+        assertEquals("(and A B C D)", optimize("(A&B)&C&(D)", optimizer));
+        assertEquals("(or (and A B) C D)", optimize("A&B|C|D", optimizer));
+    }
+
+    @Test
+    void passesCanBeSwitchedOff() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String formula = "((A))&!!B&C";
+        assertEquals("(and (and (grouping (grouping A)) (not (not B))) C)",
+                optimize(formula, new ExprOptimizer(EnumSet.noneOf(ExprOptimizer.Pass.class))));
+        assertEquals("(and (and A (not (not B))) C)",
+                optimize(formula, new ExprOptimizer(EnumSet.of(ExprOptimizer.Pass.REMOVE_GROUPINGS))));
+        assertEquals("(and (and A B) C)", optimize(formula, new ExprOptimizer(
+                EnumSet.of(ExprOptimizer.Pass.REMOVE_GROUPINGS, ExprOptimizer.Pass.DOUBLE_NEGATION))));
+        assertEquals("(and A B C)", optimize(formula, ExprOptimizer.allPasses()));
+    }
+
+    @Test
+    void reportsNodeCounts() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        CompiledFormula compiled = CompiledFormula.compile("(A^A)|(A^A)", ExprOptimizer.allPasses());
+        // A, A^A, (A^A) and the disjunction; then a single constant
+        assertEquals(4, compiled.getOptimizationReport().getNodeCountBefore());
+        assertEquals(1, compiled.getOptimizationReport().getNodeCountAfter());
+        assertNull(CompiledFormula.compile("A^A").getOptimizationReport());
+    }
+
+    @Test
+    void optimizedFormulaeHaveTheSameTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{"((A))&!!B", "A|(A&B)->C", "A^A|C", "!(A&!A)<->(B->B)^C",
+                "(A&B)&(C&(A|D))|!!(B&A)", "X&Y&X|(Y&X)", "(P|Q)&(Q|P)&(R->!R)", "A->!A", "!A->A^(B|!B)"};
+        for (String formula : formulae) {
+            String[][] expected = new TruthTable(formula).getTable();
+            for (ExprOptimizer.Pass pass : ExprOptimizer.Pass.values()) {
+                CompiledFormula compiled = CompiledFormula.compile(formula, new ExprOptimizer(EnumSet.of(pass)));
+                assertArrayEquals(expected, new TruthTable(compiled, new String[]{"T", "F"}).getTable(),
+                        formula + " with " + pass);
+            }
+            CompiledFormula compiled = CompiledFormula.compile(formula, ExprOptimizer.allPasses());
+            for (EvaluationEngine engine : EvaluationEngine.values()) {
+                TruthTable table = new TruthTable(compiled, new String[]{"T", "F"});
+                table.setEngine(engine);
+                assertArrayEquals(expected, table.getTable(), formula + " with " + engine);
+            }
+        }
+    }
+}
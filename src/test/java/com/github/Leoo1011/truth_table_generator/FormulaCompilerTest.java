@@ -0,0 +1,61 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormulaCompilerTest {
+    @Test
+    void groupingsDisappear() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Expr ast = CompiledFormula.compile("((A))&(((!B)))").getAst();
+        EvaluationProgram program = FormulaCompiler.compile(ast, new String[]{"A", "B"});
+        // load A, load B, not, and
+        assertEquals(4, program.size());
+        assertEquals(2, program.getNumSlots());
+    }
+
+    @Test
+    void evaluatesSingleRows() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String formula = "(A->B)<->(!B->!C)^A";
+        CompiledFormula compiled = CompiledFormula.compile(formula);
+        String[] propNames = compiled.getPropositionNames().toArray(new String[0]);
+        EvaluationProgram program = FormulaCompiler.compile(compiled.getAst(), propNames);
+        BooleanLogicInterpreter interpreter = new BooleanLogicInterpreter(compiled);
+
+        long[] slots = new long[propNames.length];
+        int[] truthValues = new int[propNames.length];
+        long[] stack = program.newStack();
+        for (int row = 0; row < 1 << propNames.length; row++) {
+            for (int i = 0; i < propNames.length; i++) {
+                truthValues[i] = (row >>> (propNames.length - 1 - i)) & 1;
+                slots[i] = -truthValues[i]; // 0 or all ones
+            }
+            int expected = interpreter.interpret(truthValues);
+            assertEquals(expected, (int) program.evaluate(slots, stack) & 1, "row " + row);
+        }
+    }
+
+    @Test
+    void sharedSubtreesAreEvaluatedOnce() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = CompiledFormula.compile("(A&B)|(A&B)").getProgram();
+        // load A, load B, and, store, load register, or
+        assertEquals(6, program.size());
+
+        CompiledFormula compiled = CompiledFormula.compile("(A->!B)^C|(A->!B)&!(A->!B)<->!C");
+        WordEvaluator bytecode = BytecodeCompiler.compile(compiled.getProgram());
+        BooleanLogicInterpreter interpreter = new BooleanLogicInterpreter(compiled);
+        long[] words = BitSlicedEvaluator.evaluate(compiled.getProgram());
+        assertArrayEquals(words, BitSlicedEvaluator.evaluate(bytecode, 3));
+        assertArrayEquals(words, IncrementalEvaluator.evaluate(compiled));
+        for (int row = 0; row < 8; row++) {
+            int[] truthValues = {row >>> 2, (row >>> 1) & 1, row & 1};
+            assertEquals(interpreter.interpret(truthValues), (int) (words[0] >>> row) & 1, "row " + row);
+        }
+    }
+
+    @Test
+    void throwsOnUnknownProposition() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Expr ast = CompiledFormula.compile("A|B").getAst();
+        assertThrowsExactly(IllegalArgumentException.class, () -> FormulaCompiler.compile(ast, new String[]{"A"}));
+    }
+}
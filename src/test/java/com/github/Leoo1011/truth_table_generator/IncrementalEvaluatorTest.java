@@ -0,0 +1,31 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalEvaluatorTest {
+    @Test
+    void matchesBitSlicedEvaluator() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A<->!B", "A^(A->A)", "(A|B)&!C->D", "A&B&C&D&E&F&G",
+                "(A<->B)^(C|!D)->(E&F)|G^H", "(A&B)|(A&B)^!(A&B)->(C|A)"
+        };
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            assertArrayEquals(BitSlicedEvaluator.evaluate(compiled.getProgram()),
+                    IncrementalEvaluator.evaluate(compiled), formula);
+        }
+    }
+
+    @Test
+    void flip() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(CompiledFormula.compile("A&B|!C"));
+        assertTrue(evaluator.getValue());
+        assertFalse(evaluator.flip(2));
+        assertFalse(evaluator.flip(0));
+        assertTrue(evaluator.flip(1));
+        assertTrue(evaluator.getInput(0));
+        assertFalse(evaluator.flip(0));
+    }
+}
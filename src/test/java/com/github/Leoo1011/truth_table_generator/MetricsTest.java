@@ -0,0 +1,122 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    @Test
+    void listenersReceiveEveryPhase() throws Exception {
+        String formula = "(Metrics1 | Metrics2) & !Metrics1";
+        List<Metrics.Measurement> measurements = Collections.synchronizedList(new ArrayList<>());
+        Metrics.Listener listener = measurement -> {
+            if (measurement.getFormula().equals(formula)) {
+                measurements.add(measurement);
+            }
+        };
+        Metrics.addListener(listener);
+        try {
+            assertTrue(Metrics.isEnabled());
+            TruthTable table = new TruthTable(formula);
+            table.getTable();
+            new TableWriter(TableWriter.Format.CSV).write(table.getResult(),
+                    Channels.newChannel(new ByteArrayOutputStream()));
+        } finally {
+            Metrics.removeListener(listener);
+        }
+
+        List<Metrics.Phase> phases = new ArrayList<>();
+        for (Metrics.Measurement measurement : measurements) {
+            phases.add(measurement.getPhase());
+            assertTrue(measurement.getDurationNanos() >= 0);
+        }
+        assertEquals(List.of(Metrics.Phase.LEX, Metrics.Phase.PARSE, Metrics.Phase.COMPILE, Metrics.Phase.EVALUATE,
+                Metrics.Phase.PERMUTATIONS, Metrics.Phase.INTERPRETED_VALUES, Metrics.Phase.OUTPUT), phases);
+
+        Metrics.Measurement parse = measurements.get(1);
+        assertEquals(-1, parse.getRows());
+        assertEquals(-1.0, parse.getRowsPerSecond());
+        assertEquals(6, parse.getNodeCount()); // Metrics1, Metrics2, or, grouping, not, and
+        Metrics.Measurement evaluate = measurements.get(3);
+        assertEquals(4, evaluate.getRows());
+        assertTrue(evaluate.getRowsPerSecond() > 0);
+        assertEquals(4, measurements.get(6).getRows());
+
+        // Nothing is reported once the listener is removed.
+        int count = measurements.size();
+        new TruthTable(formula).getTable();
+        assertEquals(count, measurements.size());
+    }
+
+    @Test
+    void parallelPhasesAreReportedPerChunk() throws Exception {
+        StringBuilder formula = new StringBuilder("Q0");
+        for (int i = 1; i < 14; i++) {
+            formula.append(" ^ Q").append(i);
+        }
+        List<Metrics.Measurement> measurements = Collections.synchronizedList(new ArrayList<>());
+        Metrics.Listener listener = measurement -> {
+            if (measurement.getFormula().contentEquals(formula)
+                    && measurement.getPhase() == Metrics.Phase.PERMUTATIONS) {
+                measurements.add(measurement);
+            }
+        };
+        Metrics.addListener(listener);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            TruthTable table = new TruthTable(formula.toString());
+            table.setExecutor(pool);
+            table.getTable();
+        } finally {
+            Metrics.removeListener(listener);
+            pool.shutdown();
+        }
+        long rows = 0;
+        for (Metrics.Measurement measurement : measurements) {
+            rows += measurement.getRows();
+        }
+        assertEquals(1 << 14, rows);
+    }
+
+    @Test
+    void phasesAreRecordedAsFlightRecorderEvents() throws Exception {
+        String formula = "Jfr1 -> Jfr2";
+        Path file = Files.createTempFile("metrics", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(PhaseEvent.NAME);
+                recording.start();
+                assertTrue(Metrics.isEnabled());
+                new TruthTable(formula).getTable();
+                recording.stop();
+                recording.dump(file);
+            }
+            List<String> phases = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(PhaseEvent.NAME)
+                        && formula.equals(event.getString("formula"))) {
+                    phases.add(event.getString("phase"));
+                    if (event.getString("phase").equals("EVALUATE")) {
+                        assertEquals(4, event.getLong("rows"));
+                    }
+                }
+            }
+            assertEquals(List.of("LEX", "PARSE", "COMPILE", "EVALUATE", "PERMUTATIONS", "INTERPRETED_VALUES"), phases);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinimizerTest {
+    private static PackedTruthTable table(String formula) throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        return new TruthTable(formula).getResult();
+    }
+
+    private static void assertSameTable(PackedTruthTable table, Minimizer.Result result) {
+        String[] names = table.getPropositionNames().toArray(new String[0]);
+        assertArrayEquals(table.words(), BitSlicedEvaluator.evaluate(result.getAst(), names), result.toString());
+    }
+
+    @Test
+    void minimizesSmallFormulae() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Minimizer.Result result = Minimizer.minimize(table("(A&B)|(A&!B)"));
+        assertEquals(List.of("1-"), result.getCubes());
+        assertEquals("A", result.toFormula());
+        assertTrue(result.isMinimal());
+
+        // Majority, written as its four true rows.
+        result = Minimizer.minimize(table("(A&B&C)|(A&B&!C)|(A&!B&C)|(!A&B&C)"));
+        assertEquals(List.of("11-", "1-1", "-11"), result.getCubes());
+        assertEquals("(A & B) | (A & C) | (B & C)", result.toFormula());
+        assertEquals(6, result.getLiteralCount());
+
+        // The consensus term B&C is redundant.
+        result = Minimizer.minimize(table("(A&B)|(!A&C)|(B&C)"));
+        assertEquals(2, result.getCubeCount());
+        assertEquals(4, result.getLiteralCount());
+
+        assertEquals("A | !A", Minimizer.minimize(table("A|!A")).toFormula());
+        assertEquals("B & !B", Minimizer.minimize(table("B&!B")).toFormula());
+        assertEquals(0, new TruthTable(Minimizer.minimize(table("B&!B")).toFormula()).getResult().countTrue());
+        assertEquals(8, Minimizer.minimize(table("A^B^C^D")).getCubeCount());
+    }
+
+    @Test
+    void resultIsAnAstTheFrontEndAccepts() throws Exception {
+        PackedTruthTable table = table("(A->B)&(B->C)|!(C<->D)");
+        Minimizer.Result result = Minimizer.minimize(table);
+        assertSameTable(table, result);
+
+        BooleanLogicInterpreter interpreter = new BooleanLogicInterpreter(result.getAst(), result.getPropositionNames());
+        for (int row = 0; row < table.getRowCount(); row++) {
+            int[] values = new int[4];
+            for (int i = 0; i < 4; i++) {
+                values[i] = table.inputAt(row, i) ? 1 : 0;
+            }
+            assertEquals(table.valueAt(row) ? 1 : 0, interpreter.interpret(values));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExprPrinter.printExpr(result.getAst(), new PrintStream(out, true, "UTF-8"));
+        assertTrue(out.toString("UTF-8").startsWith("(or "));
+
+        CompiledFormula reparsed = CompiledFormula.compile(result.toFormula());
+        assertTrue(new EquivalenceChecker()
+                .checkEquivalence(CompiledFormula.compile("(A->B)&(B->C)|!(C<->D)"), reparsed).holds());
+    }
+
+    @Test
+    void heuristicMatchesTableAndIsNearExact() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        int exactCubes = 0;
+        int heuristicCubes = 0;
+        for (String formula : RandomFormulas.generate(25, 100, 8, 1, 4, 3, 3)) {
+            PackedTruthTable table = table(formula);
+            Minimizer.Result exact = Minimizer.minimize(table, Minimizer.Method.EXACT);
+            Minimizer.Result heuristic = Minimizer.minimize(table, Minimizer.Method.HEURISTIC);
+            assertSameTable(table, exact);
+            assertSameTable(table, heuristic);
+            assertTrue(exact.getCubeCount() <= heuristic.getCubeCount(), formula);
+            exactCubes += exact.getCubeCount();
+            heuristicCubes += heuristic.getCubeCount();
+        }
+        assertTrue(heuristicCubes <= exactCubes * 1.1, heuristicCubes + " cubes, " + exactCubes + " if exact");
+    }
+
+    @Test
+    void minimizesBeyondTwelvePropositions() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // 10 pairs, with redundant consensus terms between consecutive ones: 20 propositions.
+        StringBuilder formula = new StringBuilder("(P0&Q0)");
+        for (int i = 1; i < 10; i++) {
+            formula.append("|(P").append(i).append("&Q").append(i).append(")");
+            formula.append("|(P").append(i - 1).append("&Q").append(i - 1).append("&P").append(i).append(")");
+        }
+        PackedTruthTable table = table(formula.toString());
+        Minimizer.Result result = Minimizer.minimize(table);
+        assertEquals(Minimizer.Method.HEURISTIC, result.getMethod());
+        assertEquals(10, result.getCubeCount());
+        assertEquals(20, result.getLiteralCount());
+        assertSameTable(table, result);
+
+        assertThrows(IllegalArgumentException.class, () -> Minimizer.minimize(table, Minimizer.Method.EXACT));
+    }
+
+    @Test
+    void exactStopsAtTwelvePropositions() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        StringBuilder formula = new StringBuilder("P0");
+        for (int i = 1; i < Minimizer.MAX_EXACT_PROPOSITIONS; i++) {
+            formula.append("|P").append(i);
+        }
+        PackedTruthTable twelve = table(formula.toString());
+        Minimizer.Result result = Minimizer.minimize(twelve, Minimizer.Method.EXACT);
+        assertEquals(Minimizer.MAX_EXACT_PROPOSITIONS, result.getCubeCount());
+        assertSameTable(twelve, result);
+
+        PackedTruthTable thirteen = table(formula.append("|P12").toString());
+        assertThrows(IllegalArgumentException.class, () -> Minimizer.minimize(thirteen, Minimizer.Method.EXACT));
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCounterTest {
+    @Test
+    void matchesTruthTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A&!A", "A|!A", "A->B", "A<->!B", "A^B^C", "(A|B)&!C->D", "A&B&C&D&E&F&G",
+                "(A<->B)^(C|!D)->(E&F)|G^H", "(A^A)|B", "true", "false", "A&false", "A|true", "(A&B)|(A&B)|C",
+                "(A|B)&(C|D)&(E|F)", "(A->B)&(B->C)&(C->A)"
+        };
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            assertEquals(BigInteger.valueOf(table.countTrue()), ModelCounter.countTrue(compiled), formula);
+        }
+    }
+
+    @Test
+    void randomFormulaeMatchTruthTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        for (String formula : RandomFormulas.generate(23, 200, 10, 1, 6, 4, 2)) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            assertEquals(BigInteger.valueOf(table.countTrue()), ModelCounter.countTrue(compiled), formula);
+        }
+    }
+
+    @Test
+    void countsWithoutEnumeration() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        StringBuilder formula = new StringBuilder("(P0&Q0)");
+        for (int i = 1; i < 100; i++) {
+            formula.append("|(P").append(i).append("&Q").append(i).append(")");
+        }
+        // Every pair is false in 3^100 of the 4^100 assignments.
+        BigInteger expected = BigInteger.valueOf(4).pow(100).subtract(BigInteger.valueOf(3).pow(100));
+        assertEquals(expected, ModelCounter.countTrue(CompiledFormula.compile(formula.toString())));
+
+        // 20 independent groups of 3 propositions, each true in 7 of its 8 rows once the key is set.
+        StringBuilder groups = new StringBuilder("K");
+        for (int i = 0; i < 20; i++) {
+            groups.append(" & (K -> X").append(i).append(" | Y").append(i).append(" | Z").append(i).append(')');
+        }
+        CompiledFormula compiled = CompiledFormula.compile(groups.toString());
+        ModelCounter counter = new ModelCounter(compiled);
+        assertEquals(BigInteger.valueOf(7).pow(20), counter.count());
+        assertTrue(counter.getDecisionCount() < 1000, "decisions: " + counter.getDecisionCount());
+        assertEquals(Bdd.countTrue(compiled), counter.count());
+    }
+
+    @Test
+    void cachesRepeatedComponents() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // A ladder of 60 propositions: once both propositions of a rung are known, the rest of the ladder
+        // is the same component, whichever way it was reached.
+        StringBuilder formula = new StringBuilder("(A0 | B0)");
+        for (int i = 1; i < 30; i++) {
+            formula.append(" & (A").append(i - 1).append(" ^ A").append(i).append(" | B").append(i).append(')');
+        }
+        CompiledFormula compiled = CompiledFormula.compile(formula.toString());
+        ModelCounter counter = new ModelCounter(compiled);
+        assertEquals(Bdd.countTrue(compiled), counter.count());
+        assertTrue(counter.getCacheHitCount() > 0);
+        assertTrue(counter.getDecisionCount() < 10_000, "decisions: " + counter.getDecisionCount());
+    }
+}
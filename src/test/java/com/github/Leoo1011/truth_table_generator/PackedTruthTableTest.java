@@ -0,0 +1,58 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTruthTableTest {
+    @Test
+    void accessors() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        PackedTruthTable result = new TruthTable("A<->!B").getResult();
+        assertEquals(4, result.getRowCount());
+        assertFalse(result.valueAt(0));
+        assertTrue(result.valueAt(1));
+        assertTrue(result.valueAt(2));
+        assertFalse(result.valueAt(3));
+        assertTrue(result.inputAt(2, 0));
+        assertFalse(result.inputAt(2, 1));
+        assertEquals(2, result.countTrue());
+        assertArrayEquals(new long[]{1, 2}, result.rowsWhere(true).toArray());
+        assertArrayEquals(new long[]{0, 3}, result.rowsWhere(false).toArray());
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> result.valueAt(4));
+    }
+
+    @Test
+    void matchesStringTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        TruthTable t = new TruthTable("(A|B)&!C->D^(E<->F)|G", new String[]{"1", "0"});
+        PackedTruthTable result = t.getResult();
+        String[][] table = t.getTable();
+        for (int row = 0; row < result.getRowCount(); row++) {
+            for (int i = 0; i < 7; i++) {
+                assertEquals(table[row + 1][i], result.render(result.inputAt(row, i)));
+            }
+            assertEquals(table[row + 1][7], result.render(result.valueAt(row)));
+        }
+        assertEquals(result.rowsWhere(true).count(), result.countTrue());
+    }
+
+    @Test
+    void stringTableIsLimited() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        assertThrowsExactly(IllegalStateException.class, new TruthTable(conjunction(31))::getTable);
+    }
+
+    @Test
+    void largeTables() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        PackedTruthTable result = new TruthTable(conjunction(20)).getResult();
+        assertEquals(1L << 20, result.getRowCount());
+        assertEquals(1, result.countTrue());
+        assertTrue(result.valueAt((1L << 20) - 1));
+    }
+
+    private static String conjunction(int numProps) {
+        StringBuilder formula = new StringBuilder("P0");
+        for (int i = 1; i < numProps; i++) {
+            formula.append("&P").append(i);
+        }
+        return formula.toString();
+    }
+}
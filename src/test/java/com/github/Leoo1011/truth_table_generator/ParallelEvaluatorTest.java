@@ -0,0 +1,49 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEvaluatorTest {
+    private static final String FORMULA = "(A<->B)^(C|!D)->(E&F)|G^H&(I|J->K)<->L^!M|N";
+
+    @Test
+    void matchesSequentialEvaluationOnForkJoinPool() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = CompiledFormula.compile(FORMULA).getProgram();
+        long[] expected = BitSlicedEvaluator.evaluate(program);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelEvaluator.Report report = ParallelEvaluator.evaluate(program::newEvaluator, 14, pool, 10);
+            assertArrayEquals(expected, report.getValues());
+            assertEquals(16, report.getChunks()); // 256 words, in chunks of 16 (10 rounded up to a cache line)
+            assertTrue(report.getThreads() >= 1 && report.getThreads() <= 4);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void matchesSequentialEvaluationOnExecutor() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = CompiledFormula.compile(FORMULA).getProgram();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertArrayEquals(BitSlicedEvaluator.evaluate(program),
+                    ParallelEvaluator.evaluate(program, executor).getValues());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void smallTablesUseASingleChunk() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        EvaluationProgram program = CompiledFormula.compile("A->B").getProgram();
+        ParallelEvaluator.Report report = ParallelEvaluator.evaluate(program, ForkJoinPool.commonPool());
+        assertArrayEquals(BitSlicedEvaluator.evaluate(program), report.getValues());
+        assertEquals(1, report.getChunks());
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random formulae, for the tests that check an engine against the truth table.
+ */
+final class RandomFormulas {
+    private static final String[] OPERATORS = new String[]{" & ", " | ", " -> ", " ^ ", " <-> "};
+
+    private RandomFormulas() {
+    }
+
+    /**
+     * Every formula is minGroups to maxGroups parenthesized groups, joined by one of the first 'joins' operators
+     * of " & ", " | ", " -> ". Each group is 1 to maxOperands literals joined by any operator. All operators have
+     * the same precedence, hence the parentheses.
+     * <p>
+     * With joins = 1, every group is joined by an and, as in CNF: such formulae are often unsatisfiable.
+     *
+     * @param seed the seed of the formulae, so a test always checks the same ones.
+     * @param count the number of formulae.
+     * @param variables the number of propositions to pick from: A, B, C...
+     * @param minGroups the minimum number of groups per formula.
+     * @param maxGroups the maximum number of groups per formula.
+     * @param maxOperands the maximum number of literals per group.
+     * @param joins the number of operators the groups can be joined by, from 1 to 3.
+     * @return the formulae.
+     */
+    static List<String> generate(long seed, int count, int variables, int minGroups, int maxGroups, int maxOperands,
+                                 int joins) {
+        Random random = new Random(seed);
+        List<String> formulae = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            StringBuilder formula = new StringBuilder();
+            int groups = minGroups + random.nextInt(maxGroups - minGroups + 1);
+            for (int g = 0; g < groups; g++) {
+                if (g > 0) {
+                    formula.append(OPERATORS[joins == 1 ? 0 : random.nextInt(joins)]);
+                }
+                formula.append('(');
+                int operands = 1 + random.nextInt(maxOperands);
+                for (int o = 0; o < operands; o++) {
+                    if (o > 0) {
+                        formula.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+                    }
+                    formula.append(random.nextBoolean() ? "!" : "").append((char) ('A' + random.nextInt(variables)));
+                }
+                formula.append(')');
+            }
+            formulae.add(formula.toString());
+        }
+        return formulae;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowSpliteratorTest {
+    @Test
+    void matchesPackedTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        TruthTable t = new TruthTable("(A|B)&!C->D^(E<->F)|G");
+        PackedTruthTable result = t.getResult();
+        Iterator<TruthTableRow> rows = t.rowIterator();
+        for (long row = 0; row < result.getRowCount(); row++) {
+            assertTrue(rows.hasNext());
+            TruthTableRow next = rows.next();
+            assertEquals(row, next.getIndex());
+            assertEquals(result.valueAt(row), next.getValue());
+            for (int i = 0; i < 7; i++) {
+                assertEquals(result.inputAt(row, i), next.getInput(i));
+            }
+        }
+        assertFalse(rows.hasNext());
+    }
+
+    @Test
+    void parallelStream() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        TruthTable t = new TruthTable("(A<->B)^(C|!D)->(E&F)|G^H&(I|J->K)<->L^!M|N");
+        long expected = t.getResult().countTrue();
+        assertEquals(expected, t.rows(true).filter(TruthTableRow::getValue).count());
+        assertEquals(1L << 14, t.rows(true).map(TruthTableRow::getIndex).collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    void splitsAtWordBoundaries() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Spliterator<TruthTableRow> suffix = new TruthTable(conjunction(20)).rowSpliterator();
+        Spliterator<TruthTableRow> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(1L << 19, prefix.estimateSize());
+        assertEquals(1L << 19, suffix.estimateSize());
+        assertEquals(0, prefix.estimateSize() % 64);
+    }
+
+    @Test
+    void handles63Propositions() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        TruthTable t = new TruthTable(conjunction(63));
+        Spliterator<TruthTableRow> rows = t.rowSpliterator();
+        assertEquals(Long.MAX_VALUE, rows.estimateSize());
+        assertEquals(0, t.rows().limit(1000).filter(TruthTableRow::getValue).count());
+
+        // The last row is the only one in which every proposition is true.
+        Spliterator<TruthTableRow> last = rows;
+        for (int i = 0; i < 60; i++) {
+            last.trySplit();
+        }
+        boolean[] lastValue = new boolean[1];
+        last.forEachRemaining(row -> lastValue[0] = row.getValue() && row.getIndex() == Long.MAX_VALUE);
+        assertTrue(lastValue[0]);
+
+        StringBuilder tooMany = new StringBuilder(conjunction(63)).append("&P63");
+        assertThrowsExactly(IllegalArgumentException.class, () -> new TruthTable(tooMany.toString()).rows());
+    }
+
+    private static String conjunction(int numProps) {
+        StringBuilder formula = new StringBuilder("P0");
+        for (int i = 1; i < numProps; i++) {
+            formula.append("&P").append(i);
+        }
+        return formula.toString();
+    }
+}
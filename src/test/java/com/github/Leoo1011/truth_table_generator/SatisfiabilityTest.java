@@ -0,0 +1,133 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SatisfiabilityTest {
+    @Test
+    void satisfyingRowsMatchTruthTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{
+                "A", "!A", "A&!A", "A|!A", "A->B", "A<->!B", "A^B^C", "(A|B)&!C->D", "A&B&C&D&E&F&G",
+                "(A<->B)^(C|!D)->(E&F)|G^H", "(A^A)|B", "!(A->B)&(B<->C)", "true", "false", "A&false", "A|true",
+                "(A&B)|(A&B)|C"
+        };
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            Satisfiability sat = new Satisfiability(compiled);
+            assertArrayEquals(table.rowsWhere(true).toArray(), sat.satisfyingRows().sorted().toArray(), formula);
+            assertEquals(table.countTrue() > 0, sat.isSatisfiable(), formula);
+            assertEquals(table.countTrue(), sat.models().count(), formula);
+        }
+    }
+
+    @Test
+    void modelsAreKeyedByPropositionNames() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Satisfiability sat = Satisfiability.of("Rain & !Sun -> Umbrella");
+        CompiledFormula compiled = sat.getFormula();
+        sat.models().forEach(model -> {
+            assertEquals(compiled.getPropositionNames(), model.keySet().stream().toList());
+            boolean[] values = new boolean[model.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = model.get(compiled.getPropositionNames().get(i));
+            }
+            assertTrue(compiled.evaluate(values));
+        });
+
+        Optional<Map<String, Boolean>> model = Satisfiability.of("A & !B & C").findModel();
+        assertEquals(Optional.of(Map.of("A", true, "B", false, "C", true)), model);
+        assertEquals(Optional.empty(), Satisfiability.of("(A -> B) & (B -> C) & A & !C").findModel());
+    }
+
+    @Test
+    void solvesFormulaeTooLargeForATable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // A parity chain over 2000 propositions, whose ast is far too deep to be walked recursively.
+        StringBuilder chain = new StringBuilder("P0");
+        for (int i = 1; i < 2000; i++) {
+            chain.append(" ^ P").append(i);
+        }
+        Satisfiability parity = Satisfiability.of(chain + " & !P0");
+        Map<String, Boolean> model = parity.findModel().orElseThrow();
+        int trueCount = 0;
+        for (boolean value : model.values()) {
+            trueCount += value ? 1 : 0;
+        }
+        assertFalse(model.get("P0"));
+        assertEquals(1, trueCount % 2);
+        assertEquals(5, parity.models().limit(5).count());
+
+        // The pigeonhole principle for 6 pigeons and 5 holes is unsatisfiable, and needs some conflicts to prove it.
+        StringBuilder pigeonhole = new StringBuilder();
+        for (int p = 0; p < 6; p++) {
+            pigeonhole.append(p == 0 ? "(" : " & (");
+            for (int h = 0; h < 5; h++) {
+                pigeonhole.append(h == 0 ? "" : " | ").append("X").append(p).append('_').append(h);
+            }
+            pigeonhole.append(')');
+        }
+        for (int h = 0; h < 5; h++) {
+            for (int p = 0; p < 6; p++) {
+                for (int q = p + 1; q < 6; q++) {
+                    pigeonhole.append(" & !(X").append(p).append('_').append(h)
+                            .append(" & X").append(q).append('_').append(h).append(')');
+                }
+            }
+        }
+        assertFalse(Satisfiability.of(pigeonhole.toString()).isSatisfiable());
+    }
+
+    @Test
+    void randomFormulaeMatchTruthTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        for (String formula : RandomFormulas.generate(22, 200, 6, 2, 9, 3, 1)) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            assertArrayEquals(table.rowsWhere(true).toArray(),
+                    new Satisfiability(compiled).satisfyingRows().sorted().toArray(), formula);
+        }
+    }
+
+    @Test
+    void switchesFromTheSolverToTheTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // 24 propositions, so the solver is asked for up to 64 rows before the table is scanned.
+        StringBuilder fixed = new StringBuilder("P0");
+        for (int i = 1; i < 16; i++) {
+            fixed.append(" & P").append(i);
+        }
+        StringBuilder any = new StringBuilder("(Q0");
+        for (int i = 1; i < 8; i++) {
+            any.append(" | Q").append(i);
+        }
+        any.append(')');
+        for (String formula : new String[]{fixed + " & " + any + " & !Q0 & !Q1 & !Q2 & !Q3", fixed + " & " + any}) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            PackedTruthTable table = new TruthTable(compiled, new String[]{"T", "F"}).getResult();
+            assertArrayEquals(table.rowsWhere(true).toArray(),
+                    new Satisfiability(compiled).satisfyingRows().sorted().toArray(), formula);
+        }
+    }
+
+    @Test
+    void enumeratesEveryRowOfATautology() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // 20 propositions, true in every one of the 2^20 rows: most of them come from the table, not the solver.
+        // SatisfiabilityBenchmark compares the time it takes with the table's.
+        StringBuilder formula = new StringBuilder("(P0 | !P0)");
+        for (int i = 1; i < 20; i++) {
+            formula.append(" & (P").append(i).append(" | !P").append(i).append(')');
+        }
+        Satisfiability sat = Satisfiability.of(formula.toString());
+        assertArrayEquals(LongStream.range(0, 1 << 20).toArray(), sat.satisfyingRows().sorted().toArray());
+    }
+
+    @Test
+    void cnfIsExportedAsDimacs() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        Cnf cnf = Cnf.encode(CompiledFormula.compile("A & !B"));
+        assertEquals(2, cnf.getPropositionCount());
+        assertEquals(3, cnf.getVariableCount());
+        assertEquals("c 1 A\nc 2 B\np cnf 3 4\n-3 1 0\n-3 -2 0\n3 -1 2 0\n3 0\n", cnf.toDimacs());
+    }
+}
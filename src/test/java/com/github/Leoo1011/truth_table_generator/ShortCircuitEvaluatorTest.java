@@ -0,0 +1,44 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortCircuitEvaluatorTest {
+    @Test
+    void matchesTheInterpreter() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String[] formulae = new String[]{"(A->B)<->(!B->!C)^A", "A&B|C->D", "!(A|B)&(C<->!A)", "(A^B)&C|(A^B)",
+                "P->Q->R->P", "X|!X&Y"};
+        for (String formula : formulae) {
+            CompiledFormula compiled = CompiledFormula.compile(formula);
+            assertArrayEquals(BitSlicedEvaluator.evaluate(compiled.getProgram()),
+                    ShortCircuitEvaluator.evaluate(compiled), formula);
+            CompiledFormula optimized = CompiledFormula.compile(formula, ExprOptimizer.allPasses());
+            assertArrayEquals(BitSlicedEvaluator.evaluate(compiled.getProgram()),
+                    ShortCircuitEvaluator.evaluate(optimized), formula + " (optimized)");
+        }
+    }
+
+    @Test
+    void cheaperOperandsAreEvaluatedFirst() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        ShortCircuitEvaluator evaluator = new ShortCircuitEvaluator(CompiledFormula.compile("(A^B^C^D)&E"));
+        assertFalse(evaluator.evaluate(true, false, false, false, false));
+        assertEquals(2, evaluator.getEvaluatedNodeCount()); // the conjunction and E
+
+        // evaluated as !(A^B^C)|D, with D first
+        evaluator = new ShortCircuitEvaluator(CompiledFormula.compile("(A^B^C)->D"));
+        assertTrue(evaluator.evaluate(true, false, false, true));
+        assertEquals(2, evaluator.getEvaluatedNodeCount());
+        assertFalse(evaluator.evaluate(true, false, false, false));
+        assertEquals(2 + 8, evaluator.getEvaluatedNodeCount());
+    }
+
+    @Test
+    void sharedSubtreesAreEvaluatedOncePerRow() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        ShortCircuitEvaluator evaluator = new ShortCircuitEvaluator(CompiledFormula.compile("((A^B)<->C)^(A^B)"));
+        assertFalse(evaluator.evaluate(true, false, true));
+        assertEquals(6, evaluator.getEvaluatedNodeCount()); // (A^B), A and B are only evaluated once
+        assertTrue(evaluator.evaluate(true, true, false));
+        assertEquals(12, evaluator.getEvaluatedNodeCount());
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableFileTest {
+    private interface FileTest {
+        void run(Path file) throws Exception;
+    }
+
+    private static void withTempFile(FileTest test) throws Exception {
+        Path file = Files.createTempFile("table", ".ttbl");
+        try {
+            test.run(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        withTempFile(file -> {
+            PackedTruthTable result = new TruthTable("A <-> B", new String[]{"yes", "no"}).getResult();
+            TableFile.write(result, file);
+            TableFile table = TableFile.open(file);
+            assertEquals("A <-> B", table.getFormula());
+            assertEquals(List.of("A", "B"), table.getPropositionNames());
+            assertEquals("yes", table.render(true));
+            assertEquals("no", table.render(false));
+            assertEquals(4, table.getRowCount());
+            assertTrue(table.hasChecksums());
+            table.verify();
+            for (long row = 0; row < 4; row++) {
+                assertEquals(result.valueAt(row), table.valueAt(row));
+                assertEquals(result.inputAt(row, 1), table.inputAt(row, 1));
+            }
+            assertEquals(2, table.countTrue());
+            assertEquals(result.toString(), table.toPackedTruthTable().toString());
+            assertThrowsExactly(IndexOutOfBoundsException.class, () -> table.valueAt(4));
+        });
+    }
+
+    @Test
+    void largeTablesAndRangeCounts() throws Exception {
+        withTempFile(file -> {
+            StringBuilder formula = new StringBuilder("P0");
+            for (int i = 1; i < 20; i++) {
+                formula.append(i % 3 == 0 ? " ^ " : i % 3 == 1 ? " | " : " & ").append('P').append(i);
+            }
+            PackedTruthTable result = new TruthTable(formula.toString()).getResult();
+            TableFile.write(result, file, false);
+            TableFile table = TableFile.open(file);
+            assertFalse(table.hasChecksums());
+            assertEquals(result.countTrue(), table.countTrue());
+            long[][] ranges = {{0, 0}, {3, 5}, {60, 70}, {64, 128}, {100, 1 << 19}, {12345, (1 << 20) - 1}};
+            for (long[] range : ranges) {
+                long expected = result.rowsWhere(true).filter(row -> row >= range[0] && row < range[1]).count();
+                assertEquals(expected, table.countTrue(range[0], range[1]));
+            }
+            assertArrayEquals(result.words(), table.toPackedTruthTable().words());
+            assertThrowsExactly(IndexOutOfBoundsException.class, () -> table.countTrue(5, 3));
+        });
+    }
+
+    @Test
+    void detectsCorruption() throws Exception {
+        withTempFile(file -> {
+            // 2^20 rows, 16384 words: two checksum chunks
+            TableFile.write(new TruthTable("A0 & A1 | A2 & A3 | A4 & A5 | A6 & A7 | A8 & A9 | B0 & B1 | B2 & B3"
+                    + " | B4 & B5 | B6 & B7 | B8 & B9").getResult(), file);
+            TableFile.open(file).verify();
+            long size = Files.size(file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{0x55}), size - 8 - 1000);
+            }
+            TableFile.FormatException error = assertThrows(TableFile.FormatException.class,
+                    () -> TableFile.open(file).verify());
+            assertTrue(error.getMessage().startsWith("Checksum mismatch in rows 524288 to"));
+        });
+    }
+
+    @Test
+    void rejectsInvalidFiles() throws Exception {
+        withTempFile(file -> {
+            Files.write(file, new byte[]{1, 2, 3});
+            assertThrows(TableFile.FormatException.class, () -> TableFile.open(file));
+            Files.write(file, new byte[64]);
+            assertThrows(TableFile.FormatException.class, () -> TableFile.open(file), "Not a truth table file.");
+
+            TableFile.write(new TruthTable("A & B").getResult(), file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(TableFile.FormatException.class, () -> TableFile.open(file));
+        });
+    }
+}
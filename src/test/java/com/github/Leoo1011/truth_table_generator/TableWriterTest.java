@@ -0,0 +1,108 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableWriterTest {
+    private static String write(TableWriter writer, PackedTruthTable table) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(table, Channels.newChannel(out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static PackedTruthTable table(String formula, String truth, String falsity) throws Exception {
+        return new TruthTable(formula, new String[]{truth, falsity}).getResult();
+    }
+
+    @Test
+    void plainMatchesPrintTable() throws Exception {
+        PackedTruthTable result = table("(A | B) & !C", "T", "F");
+        assertEquals(result.toString(), write(new TableWriter(TableWriter.Format.PLAIN), result));
+    }
+
+    @Test
+    void csvAndTsv() throws Exception {
+        PackedTruthTable result = table("A|B", "1", "0");
+        assertEquals("A,B,A|B\r\n0,0,0\r\n0,1,1\r\n1,0,1\r\n1,1,1\r\n",
+                write(new TableWriter(TableWriter.Format.CSV), result));
+        assertEquals("A\tB\tA|B\n0\t0\t0\n0\t1\t1\n1\t0\t1\n1\t1\t1\n",
+                write(new TableWriter(TableWriter.Format.TSV), result));
+
+        PackedTruthTable quoted = table("A", "yes, \"true\"", "no");
+        assertEquals("A,A\r\nno,no\r\n\"yes, \"\"true\"\"\",\"yes, \"\"true\"\"\"\r\n",
+                write(new TableWriter(TableWriter.Format.CSV), quoted));
+    }
+
+    @Test
+    void alignedText() throws Exception {
+        PackedTruthTable result = table("A <-> B", "True", "False");
+        assertEquals("""
+                A     B     A <-> B
+                False False True
+                False True  False
+                True  False False
+                True  True  True
+                """, write(new TableWriter(TableWriter.Format.TEXT), result));
+    }
+
+    @Test
+    void markdown() throws Exception {
+        PackedTruthTable result = table("A|B", "T", "F");
+        assertEquals("""
+                | A   | B   | A\\|B |
+                | --- | --- | ---- |
+                | F   | F   | F    |
+                | F   | T   | T    |
+                | T   | F   | T    |
+                | T   | T   | T    |
+                """, write(new TableWriter(TableWriter.Format.MARKDOWN), result));
+    }
+
+    @Test
+    void bufferSizeDoesNotChangeTheOutput() throws Exception {
+        PackedTruthTable result = table("A0 & A1 | A2 ^ A3 -> A4 <-> A5 & !A6 | A7 ^ A8 -> A9", "true", "false");
+        for (TableWriter.Format format : TableWriter.Format.values()) {
+            TableWriter small = new TableWriter(format, StandardCharsets.UTF_8, "\r\n", 7);
+            TableWriter large = new TableWriter(format, StandardCharsets.UTF_8, "\r\n", TableWriter.DEFAULT_BUFFER_SIZE);
+            String expected = write(large, result);
+            assertEquals(expected, write(small, result));
+            assertEquals(expected, write(small, result)); // the buffer is reused
+            assertEquals(format == TableWriter.Format.MARKDOWN ? 1026 : 1025, expected.split("\r\n").length);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new TableWriter(TableWriter.Format.CSV, StandardCharsets.UTF_8, "\n", 0));
+    }
+
+    @Test
+    void writesFilesAndBatches() throws Exception {
+        Path file = Files.createTempFile("table", ".csv");
+        try {
+            TableWriter writer = new TableWriter(TableWriter.Format.CSV);
+            writer.write(TruthTableBatch.of("A & B", "C", "A -> C"), file);
+            assertEquals("""
+                    A,B,C,A & B,C,A -> C
+                    F,F,F,F,F,T
+                    F,F,T,F,T,T
+                    F,T,F,F,F,T
+                    F,T,T,F,T,T
+                    T,F,F,F,F,F
+                    T,F,T,F,T,T
+                    T,T,F,T,F,F
+                    T,T,T,T,T,T
+                    """.replace("\n", "\r\n"), Files.readString(file));
+
+            writer.write(table("X", "T", "F"), file); // replaces the contents
+            assertEquals("X,X\r\nF,F\r\nT,T\r\n", Files.readString(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
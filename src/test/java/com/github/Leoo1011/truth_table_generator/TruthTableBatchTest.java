@@ -0,0 +1,76 @@
+package com.github.Leoo1011.truth_table_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruthTableBatchTest {
+    @Test
+    void propositionsAreUnifiedInOrderOfAppearance() throws Exception {
+        TruthTableBatch batch = TruthTableBatch.of("A & B", "C -> A", "!D | B");
+        assertEquals(List.of("A", "B", "C", "D"), batch.getPropositionNames());
+        assertEquals(List.of("A & B", "C -> A", "!D | B"), batch.getFormulae());
+        assertEquals(16, batch.getRowCount());
+
+        for (long row = 0; row < 16; row++) {
+            boolean a = batch.inputAt(row, 0);
+            boolean b = batch.inputAt(row, 1);
+            boolean c = batch.inputAt(row, 2);
+            boolean d = batch.inputAt(row, 3);
+            assertEquals(a && b, batch.valueAt(row, 0));
+            assertEquals(!c || a, batch.valueAt(row, 1));
+            assertEquals(!d || b, batch.valueAt(row, 2));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.valueAt(16, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.valueAt(0, 3));
+    }
+
+    @Test
+    void matchesIndividualTablesOverTheSameVariables() throws Exception {
+        String[] formulae = {"(A | B) & !C", "!(!A & !B) & !C", "A ^ B <-> C", "A & B -> C"};
+        TruthTableBatch batch = TruthTableBatch.of(formulae);
+        String[][] table = batch.getTable();
+        assertArrayEquals(new String[]{"A", "B", "C", formulae[0], formulae[1], formulae[2], formulae[3]}, table[0]);
+        for (int f = 0; f < formulae.length; f++) {
+            String[][] single = new TruthTable(formulae[f]).getTable();
+            for (int row = 0; row < single.length; row++) {
+                assertEquals(single[row][3], table[row][3 + f]);
+                assertEquals(single[row][0], table[row][0]);
+            }
+            assertEquals(new TruthTable(formulae[f]).getResult().countTrue(), batch.getResult(f).countTrue());
+        }
+    }
+
+    @Test
+    void parallelEvaluationMatchesSequential() throws Exception {
+        List<CompiledFormula> formulae = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            formulae.add(CompiledFormula.compile("P" + i + " ^ (Q & R" + i + ") -> S" + (i + 1)));
+        }
+        TruthTableBatch sequential = new TruthTableBatch(formulae, new String[]{"1", "0"});
+        TruthTableBatch parallel = new TruthTableBatch(formulae, new String[]{"1", "0"});
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            parallel.setExecutor(pool);
+            assertEquals(16, parallel.getPropositionNames().size());
+            for (int f = 0; f < formulae.size(); f++) {
+                assertArrayEquals(sequential.getResult(f).words(), parallel.getResult(f).words());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalStateException.class, () -> parallel.setExecutor(null));
+    }
+
+    @Test
+    void invalidBatches() {
+        assertThrows(IllegalArgumentException.class, TruthTableBatch::of);
+        assertThrows(IllegalArgumentException.class, () -> TruthTableBatch.of("A", " "));
+        assertThrows(BooleanLogicParser.ParseError.class, () -> TruthTableBatch.of("A", "A &"));
+    }
+}
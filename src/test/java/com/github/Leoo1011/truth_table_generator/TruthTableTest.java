@@ -2,7 +2,9 @@ package com.github.Leoo1011.truth_table_generator;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +35,84 @@ class TruthTableTest {
         assertArrayEquals(t1MinusHeader, t2MinusHeader, "Tables of equivalent formulae should be equal.");
     }
 
+    @Test
+    void enginesProduceTheSameTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String formula = "(A|B)&!C->D^(E<->F)|G";
+        TruthTable reference = new TruthTable(formula);
+        reference.setEngine(EvaluationEngine.INTERPRETER);
+        String[][] expected = reference.getTable();
+
+        for (EvaluationEngine engine : EvaluationEngine.values()) {
+            TruthTable t = new TruthTable(formula);
+            t.setEngine(engine);
+            assertArrayEquals(expected, t.getTable(), engine.toString());
+        }
+    }
+
+    @Test
+    void enginesHandleLongChains() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        // The parser turns both of these into asts 200000 nodes deep.
+        String[] operators = new String[]{"^", "|", "->", "<->", "&"};
+        StringBuilder chain = new StringBuilder("A");
+        for (int i = 0; i < 200_000; i++) {
+            chain.append(operators[i % operators.length]).append((char) ('A' + i % 3));
+        }
+        int depth = 200_000;
+        String nested = "(".repeat(depth) + "A" + ")".repeat(depth) + "|" + "!".repeat(depth) + "B";
+
+        for (String formula : new String[]{chain.toString(), nested}) {
+            long[] expected = new TruthTable(formula).getResult().words();
+            for (EvaluationEngine engine : EvaluationEngine.values()) {
+                TruthTable t = new TruthTable(formula);
+                t.setEngine(engine);
+                assertArrayEquals(expected, t.getResult().words(), engine.toString());
+            }
+            CompiledFormula optimized = CompiledFormula.compile(formula, ExprOptimizer.allPasses());
+            assertArrayEquals(expected, BitSlicedEvaluator.evaluate(optimized.getProgram()));
+            assertEquals(BigInteger.valueOf(Long.bitCount(expected[0])),
+                    Bdd.countTrue(CompiledFormula.compile(formula)));
+        }
+    }
+
+    @Test
+    void parallelGenerationProducesTheSameTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        String formula = "(A|B)&!C->D^(E<->F)|G&H^I->J";
+        String[][] expected = new TruthTable(formula).getTable();
+
+        for (EvaluationEngine engine : EvaluationEngine.values()) {
+            TruthTable t = new TruthTable(formula);
+            t.setEngine(engine);
+            t.setExecutor(ForkJoinPool.commonPool());
+            assertArrayEquals(expected, t.getTable(), engine.toString());
+        }
+    }
+
+    @Test
+    void getRows() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        TruthTable t = new TruthTable("(A|B)&!C->D^(E<->F)|G", new String[]{"1", "0"});
+        String[][] table = t.getTable();
+        assertArrayEquals(Arrays.copyOfRange(table, 61, 111), t.getRows(60, 50));
+        assertArrayEquals(Arrays.copyOfRange(table, 121, 129), t.getRows(120, 100));
+        assertArrayEquals(new String[0][], t.getRows(0, 0));
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> t.getRows(128, 1));
+        assertThrowsExactly(IndexOutOfBoundsException.class, () -> t.getRow(-1));
+    }
+
+    @Test
+    void getRowOfHugeTable() throws BooleanLogicParser.ParseError, BooleanLogicLexer.LexError {
+        StringBuilder formula = new StringBuilder("P0");
+        for (int i = 1; i < 41; i++) {
+            formula.append(i % 2 == 0 ? "|P" : "&P").append(i);
+        }
+        TruthTable t = new TruthTable(formula.toString());
+        TruthTableRow row = t.getRow(1L << 40);
+        assertEquals(1L << 40, row.getIndex());
+        assertTrue(row.getInput(0));
+        assertFalse(row.getInput(40));
+        boolean[] inputs = Arrays.copyOf(row.toArray(), 41);
+        assertEquals(CompiledFormula.compile(formula.toString()).evaluate(inputs), row.getValue());
+    }
+
     @Test
     void throwsOnIllegalArguments() {
         assertThrowsExactly(IllegalArgumentException.class, () -> new TruthTable(""));